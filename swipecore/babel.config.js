@@ -1,5 +1,7 @@
 module.exports = function (api) {
-  api.cache(true);
+  // Also keys the config cache on the environment
+  const isProduction = api.env('production');
+
   return {
     presets: ['babel-preset-expo'],
     plugins: [
@@ -14,6 +16,8 @@ module.exports = function (api) {
           allowUndefined: true,
         },
       ],
+      // Drop development-only logging (src/utils/devLog.ts) from release builds
+      ...(isProduction ? ['./scripts/babel-plugin-strip-dev-log.js'] : []),
     ],
   };
 };
@@ -0,0 +1,78 @@
+import NodeCache from 'node-cache';
+import { BoundedCache, sectionFor } from '../cache/boundedCache';
+
+describe('BoundedCache', () => {
+  let store: NodeCache;
+  let cache: BoundedCache;
+
+  // ~100 bytes once serialised
+  const payload = (id: number) => ({ id, body: 'x'.repeat(80) });
+
+  beforeEach(() => {
+    store = new NodeCache({ checkperiod: 0, useClones: false });
+    cache = new BoundedCache(store, { nearby: 1000, details: 350, photo: 1000, other: 1000 });
+  });
+
+  afterEach(() => {
+    store.close();
+  });
+
+  it('should map keys to their budget section', () => {
+    expect(sectionFor('nearby:tile:dr5re:all')).toBe('nearby');
+    expect(sectionFor('textSearch:abc')).toBe('nearby');
+    expect(sectionFor('details:place1')).toBe('details');
+    expect(sectionFor('photo:places/1/photos/2:400:400')).toBe('photo');
+    expect(sectionFor('misc')).toBe('other');
+  });
+
+  it('should evict the least recently used entries once over budget', () => {
+    cache.set('details:1', payload(1), 60);
+    cache.set('details:2', payload(2), 60);
+    cache.set('details:3', payload(3), 60);
+    cache.set('details:4', payload(4), 60);
+
+    expect(cache.get('details:1')).toBeUndefined();
+    expect(cache.get('details:4')).toEqual(payload(4));
+
+    const stats = cache.getStats().details;
+    expect(stats.bytes).toBeLessThanOrEqual(350);
+    expect(stats.evictions).toBe(1);
+  });
+
+  it('should keep entries that were hit over one-off entries', () => {
+    cache.set('details:hot', payload(0), 60);
+    cache.get('details:hot');
+
+    cache.set('details:1', payload(1), 60);
+    cache.set('details:2', payload(2), 60);
+    cache.set('details:3', payload(3), 60);
+
+    expect(cache.get('details:hot')).toEqual(payload(0));
+    expect(cache.get('details:1')).toBeUndefined();
+  });
+
+  it('should not admit entries larger than the section budget', () => {
+    const admitted = cache.set('details:huge', { body: 'x'.repeat(1000) }, 60);
+
+    expect(admitted).toBe(false);
+    expect(cache.get('details:huge')).toBeUndefined();
+    expect(cache.getStats().details.rejected).toBe(1);
+  });
+
+  it('should budget sections independently', () => {
+    for (let i = 0; i < 5; i++) {
+      cache.set(`details:${i}`, payload(i), 60);
+    }
+    cache.set('nearby:a', payload(9), 60);
+
+    expect(cache.get('nearby:a')).toEqual(payload(9));
+    expect(cache.getStats().nearby.evictions).toBe(0);
+  });
+
+  it('should release bytes when entries are deleted', () => {
+    cache.set('photo:a', 'https://example.com/a.jpg', 60);
+    cache.del('photo:a');
+
+    expect(cache.getStats().photo).toMatchObject({ entries: 0, bytes: 0 });
+  });
+});
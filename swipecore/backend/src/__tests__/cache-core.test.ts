@@ -1,5 +1,6 @@
-import { withCache } from '../cache';
+import { withCache, cache } from '../cache';
 import { local } from '../cache/local';
+import { encodeSuccess, negotiateEncoding } from '../lib/encodedBody';
 
 describe('Unified Cache System', () => {
   let fetcherCallCount = 0;
@@ -104,4 +105,122 @@ describe('Unified Cache System', () => {
       expect((cachedResult2 as any).data).toBe('result-2');
     });
   });
-});
\ No newline at end of file
+
+  describe('Concurrent miss coalescing', () => {
+    beforeEach(() => {
+      cache.resetFetchStats();
+    });
+
+    it('should share a single fetch between concurrent misses', async () => {
+      const key = 'test-coalesce-shared';
+      let resolveFetch: (value: { data: string }) => void = () => {};
+      const slowFetcher = jest.fn(
+        () => new Promise<{ data: string }>((resolve) => { resolveFetch = resolve; })
+      );
+
+      const pending = Array.from({ length: 5 }, () => withCache(key, 60, slowFetcher));
+      resolveFetch({ data: 'shared' });
+      const results = await Promise.all(pending);
+
+      expect(slowFetcher).toHaveBeenCalledTimes(1);
+      results.forEach((result) => expect(result.data).toBe('shared'));
+      expect(cache.getFetchStats()).toMatchObject({ originated: 1, coalesced: 4, inFlight: 0 });
+    });
+
+    it('should propagate fetch errors to every waiter and not cache them', async () => {
+      const key = 'test-coalesce-error';
+      const failingFetcher = jest.fn().mockRejectedValue(new Error('upstream down'));
+
+      const pending = [withCache(key, 60, failingFetcher), withCache(key, 60, failingFetcher)];
+      const results = await Promise.allSettled(pending);
+
+      expect(failingFetcher).toHaveBeenCalledTimes(1);
+      results.forEach((result) => expect(result.status).toBe('rejected'));
+
+      // The failed fetch is no longer in flight, so the next miss retries
+      const retryFetcher = jest.fn().mockResolvedValue({ data: 'recovered' });
+      const result = await withCache(key, 60, retryFetcher);
+      expect(retryFetcher).toHaveBeenCalledTimes(1);
+      expect(result.data).toBe('recovered');
+    });
+  });
+
+  describe('Stale-while-revalidate', () => {
+    beforeEach(() => {
+      cache.resetFetchStats();
+    });
+
+    it('should serve stale data and refresh it in the background', async () => {
+      const key = 'test-swr-refresh';
+      const fetcher = jest
+        .fn()
+        .mockResolvedValueOnce({ data: 'first' })
+        .mockResolvedValueOnce({ data: 'second' });
+
+      await withCache(key, 60, fetcher, { softTtlSecs: 1 });
+      await new Promise(resolve => setTimeout(resolve, 1100));
+
+      // Stale hit returns the old value immediately
+      const stale = await withCache(key, 60, fetcher, { softTtlSecs: 1 });
+      expect(stale.data).toBe('first');
+      expect(fetcher).toHaveBeenCalledTimes(2);
+
+      // Let the background refresh land
+      await new Promise(resolve => setImmediate(resolve));
+      const fresh = await withCache(key, 60, fetcher, { softTtlSecs: 1 });
+      expect(fresh.data).toBe('second');
+      expect(fetcher).toHaveBeenCalledTimes(2);
+      expect(cache.getFetchStats()).toMatchObject({ staleServed: 1, revalidated: 1 });
+    }, 10000);
+
+    it('should keep serving stale data when the refresh fails', async () => {
+      const key = 'test-swr-failure';
+      const fetcher = jest
+        .fn()
+        .mockResolvedValueOnce({ data: 'first' })
+        .mockRejectedValueOnce(new Error('upstream down'));
+
+      await withCache(key, 60, fetcher, { softTtlSecs: 1 });
+      await new Promise(resolve => setTimeout(resolve, 1100));
+
+      const stale = await withCache(key, 60, fetcher, { softTtlSecs: 1 });
+      await new Promise(resolve => setImmediate(resolve));
+
+      expect(stale.data).toBe('first');
+      expect(local.get(key)).toEqual({ data: 'first' });
+      expect(cache.getFetchStats()).toMatchObject({ staleServed: 1, revalidateFailed: 1 });
+    }, 10000);
+  });
+
+  describe('Encoded response bodies', () => {
+    beforeEach(() => cache.resetFetchStats());
+
+    it('should reuse the encoded body while the cached payload is unchanged', async () => {
+      const key = 'test-encoded-reuse';
+      const fetcher = jest
+        .fn()
+        .mockResolvedValueOnce({ data: 'first' })
+        .mockResolvedValueOnce({ data: 'second' });
+
+      const first = cache.encoded(await withCache(key, 60, fetcher), encodeSuccess);
+      const again = cache.encoded(await withCache(key, 60, fetcher), encodeSuccess);
+      expect(again).toBe(first);
+
+      local.del(key);
+      const replaced = cache.encoded(await withCache(key, 60, fetcher), encodeSuccess);
+      expect(replaced).not.toBe(first);
+      expect(JSON.parse(replaced.identity.toString()).data).toEqual({ data: 'second' });
+      expect(cache.getFetchStats()).toMatchObject({ encodedBuilt: 2, encodedReused: 1 });
+    });
+
+    it('should negotiate the encoding from Accept-Encoding q-values', () => {
+      expect(negotiateEncoding('gzip, deflate, br')).toBe('br');
+      expect(negotiateEncoding('br;q=0, gzip')).toBe('gzip');
+      expect(negotiateEncoding('br;q=0.5, gzip;q=0.8')).toBe('gzip');
+      expect(negotiateEncoding('gzip;q=0, *')).toBe('br');
+      expect(negotiateEncoding('*;q=0')).toBeNull();
+      expect(negotiateEncoding('identity')).toBeNull();
+      expect(negotiateEncoding(undefined)).toBeNull();
+    });
+  });
+});
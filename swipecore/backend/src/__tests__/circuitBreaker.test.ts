@@ -0,0 +1,86 @@
+import { CircuitBreaker, CircuitOpenError, LatencyWindow } from '../google/circuitBreaker';
+
+const options = {
+  windowSize: 10,
+  minCalls: 4,
+  failureRatio: 0.5,
+  slowCallMs: 100,
+  openMs: 1000,
+};
+
+describe('CircuitBreaker', () => {
+  afterEach(() => {
+    jest.useRealTimers();
+  });
+
+  const call = (breaker: CircuitBreaker, durationMs: number, failed: boolean) => {
+    breaker.acquire();
+    breaker.record(durationMs, failed);
+  };
+
+  it('should stay closed below the minimum number of calls', () => {
+    const breaker = new CircuitBreaker('details', options);
+    for (let i = 0; i < 3; i++) call(breaker, 10, true);
+
+    expect(breaker.getStats().state).toBe('closed');
+  });
+
+  it('should open when too many calls fail and then fail fast', () => {
+    const breaker = new CircuitBreaker('details', options);
+    call(breaker, 10, false);
+    call(breaker, 10, false);
+    call(breaker, 10, true);
+    call(breaker, 10, true);
+
+    expect(breaker.getStats().state).toBe('open');
+    expect(() => breaker.acquire()).toThrow(CircuitOpenError);
+    expect(breaker.getStats().rejected).toBe(1);
+  });
+
+  it('should count slow successful calls against the breaker', () => {
+    const breaker = new CircuitBreaker('nearby', options);
+    for (let i = 0; i < 4; i++) call(breaker, 250, false);
+
+    expect(breaker.getStats().state).toBe('open');
+  });
+
+  it('should let one probe through after openMs and close on success', () => {
+    jest.useFakeTimers();
+    const breaker = new CircuitBreaker('details', options);
+    for (let i = 0; i < 4; i++) call(breaker, 10, true);
+
+    jest.advanceTimersByTime(1000);
+    breaker.acquire();
+    expect(breaker.getStats().state).toBe('half-open');
+    // Only the probe gets through
+    expect(() => breaker.acquire()).toThrow(CircuitOpenError);
+
+    breaker.record(10, false);
+    expect(breaker.getStats().state).toBe('closed');
+  });
+
+  it('should reopen when the probe fails', () => {
+    jest.useFakeTimers();
+    const breaker = new CircuitBreaker('details', options);
+    for (let i = 0; i < 4; i++) call(breaker, 10, true);
+
+    jest.advanceTimersByTime(1000);
+    call(breaker, 10, true);
+
+    expect(breaker.getStats()).toMatchObject({ state: 'open', opened: 2 });
+  });
+});
+
+describe('LatencyWindow', () => {
+  it('should report percentiles over the most recent samples', () => {
+    const window = new LatencyWindow(100);
+    for (let ms = 1; ms <= 100; ms++) window.record(ms);
+
+    expect(window.percentile(50)).toBe(51);
+    expect(window.percentile(95)).toBe(96);
+
+    // Older samples are overwritten once the window is full
+    for (let i = 0; i < 100; i++) window.record(5);
+    expect(window.percentile(95)).toBe(5);
+  });
+});
@@ -0,0 +1,102 @@
+import fs from 'fs';
+import os from 'os';
+import path from 'path';
+import { DevCacheLog } from '../cache/devCacheLog';
+
+describe('DevCacheLog', () => {
+  let dir: string;
+  let live: Map<string, { value: number }>;
+
+  const openLog = (options = {}) =>
+    new DevCacheLog<{ value: number }>(dir, () => live.entries(), options);
+
+  beforeEach(() => {
+    dir = fs.mkdtempSync(path.join(os.tmpdir(), 'dev-cache-log-'));
+    live = new Map();
+  });
+
+  afterEach(() => {
+    fs.rmSync(dir, { recursive: true, force: true });
+  });
+
+  it('should replay sets and deletes on load', async () => {
+    const log = openLog();
+    log.set('nearby:a', { value: 1 }, true);
+    log.set('nearby:b', { value: 2 }, true);
+    log.set('nearby:a', { value: 3 }, false);
+    log.delete('nearby:b');
+    await log.flush();
+
+    const reloaded = openLog().load();
+    expect(Array.from(reloaded.entries())).toEqual([['nearby:a', { value: 3 }]]);
+  });
+
+  it('should batch buffered writes into a single append', async () => {
+    const log = openLog();
+    log.load();
+    for (let i = 0; i < 50; i++) {
+      log.set(`details:${i}`, { value: i }, true);
+    }
+
+    // Nothing is written until the batch is flushed
+    expect(log.hasSegments()).toBe(false);
+    await log.flush();
+    expect(openLog().load().size).toBe(50);
+  });
+
+  it('should skip a torn trailing record', async () => {
+    const log = openLog();
+    log.set('photo:x', { value: 1 }, true);
+    await log.flush();
+
+    const [segment] = fs.readdirSync(dir);
+    fs.appendFileSync(path.join(dir, segment), '{"k":"photo:y","v":');
+
+    const reloaded = openLog().load();
+    expect(reloaded.size).toBe(1);
+    expect(reloaded.get('photo:x')).toEqual({ value: 1 });
+  });
+
+  it('should not join new records onto a torn trailing record', async () => {
+    const log = openLog();
+    log.set('photo:x', { value: 1 }, true);
+    await log.flush();
+
+    const [segment] = fs.readdirSync(dir);
+    fs.appendFileSync(path.join(dir, segment), '{"k":"photo:y","v":');
+
+    const resumed = openLog();
+    resumed.load();
+    resumed.set('photo:z', { value: 2 }, true);
+    await resumed.flush();
+
+    const reloaded = openLog().load();
+    expect(Array.from(reloaded.keys())).toEqual(['photo:x', 'photo:z']);
+  });
+
+  it('should compact dead records into a fresh segment', async () => {
+    const log = openLog({ compactionMinRecords: 10, compactionRatio: 2 });
+    log.load();
+
+    for (let i = 0; i < 20; i++) {
+      live.set('nearby:hot', { value: i });
+      log.set('nearby:hot', { value: i }, i === 0);
+    }
+    await log.flush();
+
+    const segments = fs.readdirSync(dir);
+    expect(segments).toHaveLength(1);
+    const lines = fs.readFileSync(path.join(dir, segments[0]), 'utf-8').trim().split('\n');
+    expect(lines).toHaveLength(1);
+    expect(openLog().load().get('nearby:hot')).toEqual({ value: 19 });
+  });
+
+  it('should remove all segments on clear', async () => {
+    const log = openLog();
+    log.set('nearby:a', { value: 1 }, true);
+    await log.flush();
+
+    await log.clear();
+    expect(log.hasSegments()).toBe(false);
+  });
+});
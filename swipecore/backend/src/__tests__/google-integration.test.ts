@@ -2,14 +2,17 @@ import { hash, nearbyKey, detailsKey } from '../google/key';
 import * as places from '../google';
 import { config } from '../config';
 import { NearbySearchParams } from '../types/places';
+import { local } from '../cache/local';
+import { distanceMeters, MAX_TILES, NEARBY_RESULT_COUNT } from '../google/tiles';
 
-// Mock axios to avoid actual API calls
-jest.mock('axios');
-const mockedAxios = jest.mocked(require('axios'));
+// Mock the upstream client to avoid actual API calls
+jest.mock('../google/upstream', () => ({ upstreamRequest: jest.fn() }));
+const mockedUpstream = jest.mocked(require('../google/upstream').upstreamRequest);
 
 describe('Google Places Integration', () => {
   beforeEach(() => {
     jest.clearAllMocks();
+    mockedUpstream.mockReset();
   });
 
   describe('Key Generation', () => {
@@ -55,4 +58,130 @@ describe('Google Places Integration', () => {
       expect(hash1).toHaveLength(40);
     });
   });
-});
\ No newline at end of file
+
+  describe('Nearby tiles', () => {
+    beforeEach(() => {
+      local.flushAll();
+    });
+
+    // A dense grid of places (one every ~150m); each upstream search returns
+    // up to its result count of the places in its circle, nearest first
+    const SPACING_DEG = 0.00135;
+    const upstreamNearby = (_name: string, request: any) => {
+      const { circle } = request.data.locationRestriction;
+      const center = { lat: circle.center.latitude, lng: circle.center.longitude };
+      const places: any[] = [];
+      const latSteps = Math.ceil(circle.radius / 111320 / SPACING_DEG);
+      const lngSteps = Math.ceil(latSteps / Math.cos((center.lat * Math.PI) / 180));
+      const latBase = Math.round(center.lat / SPACING_DEG);
+      const lngBase = Math.round(center.lng / SPACING_DEG);
+
+      for (let y = latBase - latSteps; y <= latBase + latSteps; y++) {
+        for (let x = lngBase - lngSteps; x <= lngBase + lngSteps; x++) {
+          const location = { lat: y * SPACING_DEG, lng: x * SPACING_DEG };
+          const distance = distanceMeters(center, location);
+          if (distance <= circle.radius) {
+            places.push({
+              distance,
+              place: { id: `${y}:${x}`, location: { latitude: location.lat, longitude: location.lng } },
+            });
+          }
+        }
+      }
+
+      places.sort((a, b) => a.distance - b.distance);
+      return Promise.resolve({
+        data: { places: places.slice(0, request.data.maxResultCount).map(({ place }) => place) },
+      });
+    };
+
+    it.each([
+      [40.7128, -74.006, 500],
+      [40.7128, -74.006, 1500],
+      [35.68, 139.7, 3000],
+      [51.5, -0.12, 5000],
+    ])('should return a full page of places around (%s, %s) within %sm', async (lat, lng, radius) => {
+      mockedUpstream.mockImplementation(upstreamNearby);
+
+      const result = await places.nearby({ lat, lng, radius });
+
+      expect(result.places!.length).toBeGreaterThanOrEqual(NEARBY_RESULT_COUNT);
+      result.places!.forEach((place) => {
+        const location = { lat: place.location!.latitude, lng: place.location!.longitude };
+        expect(distanceMeters({ lat, lng }, location)).toBeLessThanOrEqual(radius);
+      });
+      expect(mockedUpstream.mock.calls.length).toBeLessThanOrEqual(MAX_TILES);
+    });
+  });
+
+  describe('Details tiers', () => {
+    beforeEach(() => {
+      local.flushAll();
+    });
+
+    const fieldMaskOf = (call: any[]) => call[1].headers['X-Goog-FieldMask'].split(',');
+
+    it('should request only the fields of the requested tier', async () => {
+      mockedUpstream.mockResolvedValueOnce({ data: { id: 'tier-basic', websiteUri: 'https://a.example' } });
+
+      await places.details('tier-basic', 'contact');
+
+      const mask = fieldMaskOf(mockedUpstream.mock.calls[0]);
+      expect(mask).toContain('websiteUri');
+      expect(mask).not.toContain('reviews');
+    });
+
+    it('should fetch only missing fields when upgrading a cached place', async () => {
+      mockedUpstream
+        .mockResolvedValueOnce({ data: { id: 'tier-up', websiteUri: 'https://a.example' } })
+        .mockResolvedValueOnce({ data: { id: 'tier-up', reviews: [{ rating: 5 }] } });
+
+      await places.details('tier-up', 'contact');
+      const upgraded = await places.details('tier-up', 'atmosphere');
+
+      expect(fieldMaskOf(mockedUpstream.mock.calls[1]).sort()).toEqual(['editorialSummary', 'id', 'reviews']);
+      expect(upgraded).toMatchObject({ websiteUri: 'https://a.example', reviews: [{ rating: 5 }] });
+
+      // Both tiers are now served from cache
+      await places.details('tier-up', 'basic');
+      await places.details('tier-up', 'atmosphere');
+      expect(mockedUpstream).toHaveBeenCalledTimes(2);
+    });
+
+    it('should keep every group when concurrent upgrades of a place land', async () => {
+      mockedUpstream
+        .mockResolvedValueOnce({ data: { id: 'tier-race', displayName: { text: 'Race' } } })
+        .mockResolvedValueOnce({ data: { id: 'tier-race', websiteUri: 'https://a.example' } })
+        .mockResolvedValueOnce({ data: { id: 'tier-race', reviews: [{ rating: 5 }] } });
+
+      await places.details('tier-race', 'basic');
+      await Promise.all([
+        places.details('tier-race', 'contact'),
+        places.details('tier-race', 'atmosphere'),
+      ]);
+
+      const full = await places.details('tier-race', 'atmosphere');
+      expect(full).toMatchObject({ websiteUri: 'https://a.example', reviews: [{ rating: 5 }] });
+      expect(mockedUpstream).toHaveBeenCalledTimes(3);
+    });
+
+    it('should revalidate a stale entry with all of its cached groups', async () => {
+      mockedUpstream.mockResolvedValue({ data: { id: 'tier-stale', reviews: [{ rating: 4 }] } });
+      await places.details('tier-stale', 'atmosphere');
+
+      const now = Date.now();
+      const clock = jest.spyOn(Date, 'now').mockReturnValue(now + (config.cacheSoftTtlHours * 3600 + 1) * 1000);
+      try {
+        await places.details('tier-stale', 'basic');
+        await new Promise((resolve) => setImmediate(resolve));
+      } finally {
+        clock.mockRestore();
+      }
+
+      expect(mockedUpstream).toHaveBeenCalledTimes(2);
+      expect(fieldMaskOf(mockedUpstream.mock.calls[1])).toEqual(
+        expect.arrayContaining(['websiteUri', 'reviews', 'editorialSummary'])
+      );
+    });
+  });
+});
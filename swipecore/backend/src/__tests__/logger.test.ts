@@ -0,0 +1,91 @@
+import { Logger, LogSink, LoggerOptions, parseSampleRates, requestIdMiddleware } from '../lib/logger';
+
+describe('Logger', () => {
+  let written: string[];
+  let sink: LogSink;
+
+  const createLogger = (overrides: Partial<LoggerOptions> = {}) =>
+    new Logger('cache', {
+      level: 'debug',
+      format: 'json',
+      sampleRates: new Map(),
+      sink,
+      ...overrides,
+    });
+
+  const records = () => {
+    sink.flush();
+    return written.join('').split('\n').filter(Boolean).map((line) => JSON.parse(line));
+  };
+
+  beforeEach(() => {
+    written = [];
+    sink = new LogSink((chunk) => written.push(chunk));
+  });
+
+  it('should buffer records and write them as one batch', () => {
+    const log = createLogger();
+    log.info('first');
+    log.info('second', { key: 'nearby:abc' });
+
+    expect(written).toHaveLength(0);
+    sink.flush();
+    expect(written).toHaveLength(1);
+
+    const [first, second] = records();
+    expect(first).toMatchObject({ level: 'info', category: 'cache', msg: 'first' });
+    expect(second).toMatchObject({ msg: 'second', key: 'nearby:abc' });
+  });
+
+  it('should drop records below the configured level', () => {
+    const log = createLogger({ level: 'warn' });
+    log.debug('hidden');
+    log.info('hidden');
+    log.warn('shown');
+
+    expect(records().map((r) => r.msg)).toEqual(['shown']);
+  });
+
+  it('should sample debug and info per category but keep warnings', () => {
+    const log = createLogger({ sampleRates: new Map([['cache', 0]]) });
+    log.debug('sampled away');
+    log.info('sampled away');
+    log.warn('kept');
+    log.child('google').info('other category');
+
+    expect(records().map((r) => r.msg)).toEqual(['kept', 'other category']);
+  });
+
+  it('should serialise errors in fields', () => {
+    createLogger().error('failed', { error: new Error('boom') });
+
+    const [record] = records();
+    expect(record.error).toMatchObject({ name: 'Error', message: 'boom' });
+    expect(record.error.stack).toContain('boom');
+  });
+
+  it('should attach the request ID inside a request', () => {
+    const log = createLogger();
+    const res = { setHeader: jest.fn() } as any;
+    const req = { headers: { 'x-request-id': 'req-123' } } as any;
+
+    requestIdMiddleware(req, res, () => log.info('in request'));
+    log.info('outside');
+
+    const [inside, outside] = records();
+    expect(res.setHeader).toHaveBeenCalledWith('X-Request-Id', 'req-123');
+    expect(inside.requestId).toBe('req-123');
+    expect(outside.requestId).toBeUndefined();
+  });
+});
+
+describe('parseSampleRates', () => {
+  it('should parse category rates and clamp them to [0, 1]', () => {
+    const rates = parseSampleRates('cache=0.01, google=2,bad,http=x');
+
+    expect(rates.get('cache')).toBe(0.01);
+    expect(rates.get('google')).toBe(1);
+    expect(rates.has('bad')).toBe(false);
+    expect(rates.has('http')).toBe(false);
+  });
+});
@@ -0,0 +1,96 @@
+import request from 'supertest';
+
+jest.mock('../config', () => {
+  const actual = jest.requireActual('../config');
+  return { config: { ...actual.config, metricsToken: 'scrape-token' } };
+});
+
+import { Registry } from '../metrics';
+import { cache } from '../cache';
+import app from '../index';
+
+describe('Registry', () => {
+  it('should render counters with labels', () => {
+    const registry = new Registry();
+    const counter = registry.counter('requests_total', 'Requests');
+
+    counter.inc({ route: '/a' });
+    counter.inc({ route: '/a' }, 2);
+    counter.inc({ route: '/b' });
+
+    const text = registry.render();
+    expect(text).toContain('# TYPE requests_total counter');
+    expect(text).toContain('requests_total{route="/a"} 3');
+    expect(text).toContain('requests_total{route="/b"} 1');
+  });
+
+  it('should render cumulative histogram buckets', () => {
+    const registry = new Registry();
+    const histogram = registry.histogram('latency_seconds', 'Latency', [0.1, 1]);
+
+    histogram.observe({ op: 'get' }, 0.05);
+    histogram.observe({ op: 'get' }, 0.5);
+    histogram.observe({ op: 'get' }, 3);
+
+    const text = registry.render();
+    expect(text).toContain('latency_seconds_bucket{op="get",le="0.1"} 1');
+    expect(text).toContain('latency_seconds_bucket{op="get",le="1"} 2');
+    expect(text).toContain('latency_seconds_bucket{op="get",le="+Inf"} 3');
+    expect(text).toContain('latency_seconds_count{op="get"} 3');
+    expect(text).toContain('latency_seconds_sum{op="get"} 3.55');
+  });
+
+  it('should read collected values at render time', () => {
+    const registry = new Registry();
+    let value = 1;
+    registry.gauge('queue_depth', 'Depth', () => [[{}, value]]);
+
+    expect(registry.render()).toContain('queue_depth 1');
+    value = 5;
+    expect(registry.render()).toContain('queue_depth 5');
+  });
+
+  it('should escape label values', () => {
+    const registry = new Registry();
+    registry.counter('odd_total', 'Odd').inc({ v: 'a"b\\c' });
+
+    expect(registry.render()).toContain('odd_total{v="a\\"b\\\\c"} 1');
+  });
+});
+
+describe('GET /metrics', () => {
+  const scrape = () => request(app).get('/metrics').set('Authorization', 'Bearer scrape-token');
+
+  it('should require the metrics token', async () => {
+    const response = await request(app).get('/metrics');
+
+    expect(response.status).toBe(401);
+  });
+
+  it('should expose request, cache and upstream metrics', async () => {
+    await request(app).get('/health');
+
+    const response = await scrape();
+
+    expect(response.status).toBe(200);
+    expect(response.headers['content-type']).toContain('text/plain');
+    expect(response.text).toContain('http_requests_total{method="GET",route="/health",status="200"}');
+    expect(response.text).toContain('# TYPE cache_bytes gauge');
+    expect(response.text).toContain('# TYPE upstream_circuit_state gauge');
+    expect(response.text).toContain('nodejs_eventloop_lag_seconds{quantile="0.99"}');
+  });
+
+  it('should keep cache fetch counters monotonic across stats resets', async () => {
+    await cache.get('test-metrics-monotonic', 60, async () => ({ value: 1 }));
+    const counted = (text: string) =>
+      Number(/cache_fetch_events_total\{event="originated"\} (\d+)/.exec(text)?.[1]);
+
+    const before = counted((await scrape()).text);
+    cache.resetFetchStats();
+    const after = counted((await scrape()).text);
+
+    expect(before).toBeGreaterThan(0);
+    expect(after).toBe(before);
+    expect(cache.getFetchStats().originated).toBe(0);
+  });
+});
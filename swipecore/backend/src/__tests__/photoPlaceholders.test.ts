@@ -0,0 +1,110 @@
+const mockCached = new Map<string, unknown>();
+const mockEncode = jest.fn();
+
+jest.mock('../config', () => {
+  const actual = jest.requireActual('../config');
+  return { config: { ...actual.config, photoPlaceholders: true, photoPlaceholdersPerPlace: 1 } };
+});
+jest.mock('../cache', () => ({
+  cache: {
+    peek: (key: string) => mockCached.get(key),
+    set: (key: string, value: unknown) => mockCached.set(key, value),
+  },
+  photoStore: { pathFor: (hash: string) => (hash === 'evicted' ? null : __filename) },
+}));
+jest.mock(
+  'sharp',
+  () => () => ({
+    resize: () => ({
+      ensureAlpha: () => ({
+        raw: () => ({
+          toBuffer: async () => mockEncode(),
+        }),
+      }),
+    }),
+  }),
+  { virtual: true }
+);
+jest.mock('thumbhash', () => ({ rgbaToThumbHash: () => new Uint8Array([1, 2, 3]) }), {
+  virtual: true,
+});
+
+import { withPlaceholders, placeholderFromStored } from '../services/photoPlaceholders';
+import { PlaceBasic } from '../types/places';
+
+const photo = (name: string) => ({ name, widthPx: 800, heightPx: 600, authorAttributions: [] });
+
+const place = (id: string, photoNames: string[]): PlaceBasic => ({
+  id,
+  displayName: { text: id, languageCode: 'en' },
+  photos: photoNames.map(photo),
+});
+
+const stored = (hash = 'h') => ({ hash, size: 10, contentType: 'image/jpeg' });
+
+const hashingDone = () => new Promise((resolve) => setTimeout(resolve, 10));
+
+describe('photo placeholders', () => {
+  beforeEach(() => {
+    mockEncode.mockReset();
+    mockEncode.mockResolvedValue({ data: Buffer.alloc(16), info: { width: 2, height: 2 } });
+  });
+
+  it('should return places untouched until their photos have been served', () => {
+    const places = [place('a', ['places/a/photos/1'])];
+
+    expect(withPlaceholders(places)).toBe(places);
+    expect(mockEncode).not.toHaveBeenCalled();
+  });
+
+  it('should attach a thumbhash to the leading photo once it has been stored', async () => {
+    const places = [place('b', ['places/b/photos/1', 'places/b/photos/2']), place('c', [])];
+
+    placeholderFromStored('places/b/photos/1', stored());
+    placeholderFromStored('places/b/photos/2', stored());
+    await hashingDone();
+    const result = withPlaceholders(places);
+
+    expect(result[0].photos![0].thumbhash).toBe('AQID');
+    expect(result[0].photos![1].thumbhash).toBeUndefined();
+    expect(result[1]).toBe(places[1]);
+    // The cached input is left untouched
+    expect(places[0].photos![0].thumbhash).toBeUndefined();
+    expect(mockCached.get('photo:thumbhash:places/b/photos/1')).toBe('AQID');
+  });
+
+  it('should use placeholders computed by another instance', () => {
+    mockCached.set('photo:thumbhash:places/d/photos/1', 'BAUG');
+    const places = [place('d', ['places/d/photos/1'])];
+
+    expect(withPlaceholders(places)[0].photos![0].thumbhash).toBe('BAUG');
+  });
+
+  it('should return the same array again while no new placeholders arrive', async () => {
+    placeholderFromStored('places/e/photos/1', stored());
+    await hashingDone();
+    const places = [place('e', ['places/e/photos/1'])];
+
+    expect(withPlaceholders(places)).toBe(withPlaceholders(places));
+  });
+
+  it('should hash each photo once, and not retry one that failed', async () => {
+    mockEncode.mockRejectedValue(new Error('corrupt image'));
+    const places = [place('f', ['places/f/photos/1'])];
+
+    placeholderFromStored('places/f/photos/1', stored());
+    await hashingDone();
+    placeholderFromStored('places/f/photos/1', stored());
+    await hashingDone();
+
+    expect(withPlaceholders(places)).toBe(places);
+    expect(mockEncode).toHaveBeenCalledTimes(1);
+  });
+
+  it('should skip photos evicted before they were hashed', async () => {
+    placeholderFromStored('places/g/photos/1', stored('evicted'));
+    await hashingDone();
+
+    expect(mockEncode).not.toHaveBeenCalled();
+  });
+});
@@ -0,0 +1,69 @@
+import fs from 'fs';
+import os from 'os';
+import path from 'path';
+import { PhotoStore } from '../cache/photoStore';
+
+describe('PhotoStore', () => {
+  let dir: string;
+
+  beforeEach(() => {
+    dir = fs.mkdtempSync(path.join(os.tmpdir(), 'photo-store-'));
+  });
+
+  afterEach(() => {
+    fs.rmSync(dir, { recursive: true, force: true });
+  });
+
+  it('should store bytes under their content hash', async () => {
+    const store = new PhotoStore(dir, 1024);
+    const stored = await store.put(Buffer.from('jpeg-bytes'), 'image/jpeg');
+
+    expect(stored.hash).toMatch(/^[a-f0-9]{64}$/);
+    expect(stored.size).toBe(10);
+    expect(fs.readFileSync(store.pathFor(stored.hash)!, 'utf-8')).toBe('jpeg-bytes');
+  });
+
+  it('should store identical bytes once', async () => {
+    const store = new PhotoStore(dir, 1024);
+    const a = await store.put(Buffer.from('same'), 'image/jpeg');
+    const b = await store.put(Buffer.from('same'), 'image/jpeg');
+
+    expect(a.hash).toBe(b.hash);
+    expect(store.getStats()).toMatchObject({ blobs: 1, bytes: 4 });
+  });
+
+  it('should write concurrent puts of the same bytes once', async () => {
+    const store = new PhotoStore(dir, 1024);
+    const [a, b] = await Promise.all([
+      store.put(Buffer.from('same'), 'image/jpeg'),
+      store.put(Buffer.from('same'), 'image/jpeg'),
+    ]);
+
+    expect(a.hash).toBe(b.hash);
+    expect(store.getStats()).toMatchObject({ blobs: 1, bytes: 4 });
+    expect(fs.readdirSync(path.dirname(store.pathFor(a.hash)!))).toEqual([a.hash]);
+  });
+
+  it('should evict least recently used blobs over the size cap', async () => {
+    const store = new PhotoStore(dir, 25);
+    const first = await store.put(Buffer.alloc(10, 1), 'image/jpeg');
+    const second = await store.put(Buffer.alloc(10, 2), 'image/jpeg');
+
+    // Touch the first blob so the second one is the eviction candidate
+    store.pathFor(first.hash);
+    const third = await store.put(Buffer.alloc(10, 3), 'image/jpeg');
+
+    expect(store.has(first.hash)).toBe(true);
+    expect(store.has(second.hash)).toBe(false);
+    expect(store.has(third.hash)).toBe(true);
+    expect(store.getStats()).toMatchObject({ bytes: 20, evictions: 1 });
+  });
+
+  it('should rebuild its index from disk', async () => {
+    const stored = await new PhotoStore(dir, 1024).put(Buffer.from('persisted'), 'image/png');
+
+    const reopened = new PhotoStore(dir, 1024);
+    expect(reopened.has(stored.hash)).toBe(true);
+    expect(reopened.getStats().bytes).toBe(9);
+  });
+});
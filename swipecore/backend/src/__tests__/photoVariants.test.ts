@@ -0,0 +1,82 @@
+const mockResize = jest.fn();
+const mockPut = jest.fn();
+
+jest.mock('../google', () => ({ photoMedia: jest.fn() }));
+jest.mock('../cache', () => ({
+  withCache: (_key: string, _ttl: number, fetcher: () => Promise<unknown>) => fetcher(),
+  cache: { set: jest.fn() },
+  photoStore: { pathFor: () => __filename, has: () => true, put: mockPut },
+}));
+jest.mock(
+  'sharp',
+  () => () => ({
+    resize: (options: unknown) => {
+      mockResize(options);
+      return {
+        avif: () => ({ toBuffer: async () => Buffer.from('avif') }),
+        webp: () => ({ toBuffer: async () => Buffer.from('webp') }),
+      };
+    },
+  }),
+  { virtual: true }
+);
+
+import { widthBucket, negotiateFormat, photoVariant, WIDTH_BUCKETS } from '../services/photoVariants';
+import { photoMedia } from '../google';
+
+const mockedPhotoMedia = jest.mocked(photoMedia);
+const original = { hash: 'original', size: 10, contentType: 'image/jpeg' };
+
+describe('photo variants', () => {
+  it('should snap widths up to the next bucket', () => {
+    expect(widthBucket(1)).toBe(160);
+    expect(widthBucket(320)).toBe(320);
+    expect(widthBucket(321)).toBe(480);
+    expect(widthBucket(1080)).toBe(1280);
+  });
+
+  it('should cap widths at the largest bucket', () => {
+    expect(widthBucket(4800)).toBe(WIDTH_BUCKETS[WIDTH_BUCKETS.length - 1]);
+  });
+
+  it('should prefer an explicitly requested format', () => {
+    expect(negotiateFormat('webp', 'image/avif,image/webp,*/*')).toBe('webp');
+    expect(negotiateFormat('original', 'image/avif')).toBe('original');
+  });
+
+  it('should negotiate the best format from the Accept header', () => {
+    expect(negotiateFormat(undefined, 'image/avif,image/webp,*/*')).toBe('avif');
+    expect(negotiateFormat(undefined, 'image/webp,*/*')).toBe('webp');
+    expect(negotiateFormat(undefined, '*/*')).toBe('original');
+    expect(negotiateFormat(undefined, undefined)).toBe('original');
+  });
+
+  describe('photoVariant', () => {
+    beforeEach(() => {
+      jest.clearAllMocks();
+      mockedPhotoMedia.mockResolvedValue(original);
+      mockPut.mockImplementation(async (bytes: Buffer, contentType: string) => ({
+        hash: bytes.toString(),
+        size: bytes.length,
+        contentType,
+      }));
+    });
+
+    it('should transcode the bucketed original when sharp is installed', async () => {
+      const variant = await photoVariant('places/a/photos/1', 300, 'avif');
+
+      expect(mockedPhotoMedia).toHaveBeenCalledWith('places/a/photos/1', 320, 4800);
+      expect(mockResize).toHaveBeenCalledWith({ width: 320, withoutEnlargement: true });
+      expect(mockPut).toHaveBeenCalledWith(Buffer.from('avif'), 'image/avif');
+      expect(variant).toEqual({ hash: 'avif', size: 4, contentType: 'image/avif' });
+    });
+
+    it('should serve the original bytes when no transcoding is asked for', async () => {
+      const variant = await photoVariant('places/a/photos/1', 300, 'original');
+
+      expect(variant).toBe(original);
+      expect(mockResize).not.toHaveBeenCalled();
+      expect(mockPut).not.toHaveBeenCalled();
+    });
+  });
+});
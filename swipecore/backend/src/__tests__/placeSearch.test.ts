@@ -0,0 +1,31 @@
+import { compileFilters } from '../services/placeSearch';
+import { PlaceBasic } from '../types/places';
+
+const place = (name: string, types: string[]): PlaceBasic => ({
+  id: name,
+  displayName: { text: name, languageCode: 'en' },
+  types,
+});
+
+describe('Place search filters', () => {
+  it('should match keywords from the shared tables in the name and types', () => {
+    const outdoor = compileFilters({ openNow: false, features: ['outdoor-seating'] });
+
+    expect(outdoor(place('Rose Garden Kitchen', ['restaurant']))).toBe(1);
+    expect(outdoor(place('Corner Kitchen', ['restaurant']))).toBe(-1);
+  });
+
+  it('should match a cuisine by type, cuisine label or keyword', () => {
+    const italian = compileFilters({ openNow: false, cuisine: ['italian'] });
+
+    expect(italian(place('Luigi', ['italian_restaurant']))).toBe(1);
+    expect(italian(place('Luigi Pizzeria', ['restaurant']))).toBe(1);
+    expect(italian(place('Luigi', ['restaurant']))).toBe(-1);
+  });
+
+  it('should count every matched value across filters', () => {
+    const filters = compileFilters({ openNow: false, cuisine: ['japanese', 'thai'], ambiance: ['casual'] });
+
+    expect(filters(place('Casual Sushi & Thai', ['restaurant']))).toBe(3);
+  });
+});
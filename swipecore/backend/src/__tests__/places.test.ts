@@ -130,7 +130,7 @@ describe('Places API Endpoints', () => {
       expect(response.status).toBe(200);
       expect(response.body.success).toBe(true);
       expect(response.body.data).toEqual(mockPlace);
-      expect(mockDetails).toHaveBeenCalledWith('place1');
+      expect(mockDetails).toHaveBeenCalledWith('place1', 'atmosphere');
     });
 
     it('should return 400 for empty place ID', async () => {
@@ -151,6 +151,205 @@ describe('Places API Endpoints', () => {
     });
   });
 
+  describe('ETag and compression', () => {
+    const manyPlaces = {
+      places: Array.from({ length: 40 }, (_, i) => ({
+        id: `place${i}`,
+        displayName: { text: `Restaurant ${i}`, languageCode: 'en' },
+        formattedAddress: `${i} Test St, New York, NY`,
+      })),
+    };
+
+    it('should answer a matching If-None-Match with 304', async () => {
+      mockDetails.mockResolvedValue({ id: 'etag-place', rating: 4.2 });
+
+      const first = await request(app).get('/api/places/etag-place');
+      expect(first.status).toBe(200);
+      expect(first.headers.etag).toBeDefined();
+
+      const second = await request(app)
+        .get('/api/places/etag-place')
+        .set('If-None-Match', first.headers.etag);
+      expect(second.status).toBe(304);
+      expect(second.text).toBe('');
+    });
+
+    it('should change the ETag when the data changes', async () => {
+      mockDetails.mockResolvedValueOnce({ id: 'etag-change', rating: 4.2 });
+      mockDetails.mockResolvedValueOnce({ id: 'etag-change', rating: 4.3 });
+
+      const first = await request(app).get('/api/places/etag-change');
+      const second = await request(app)
+        .get('/api/places/etag-change')
+        .set('If-None-Match', first.headers.etag);
+
+      expect(second.status).toBe(200);
+      expect(second.headers.etag).not.toBe(first.headers.etag);
+      expect(second.body.data.rating).toBe(4.3);
+    });
+
+    it('should gzip large responses when accepted', async () => {
+      mockNearby.mockResolvedValue(manyPlaces);
+
+      const response = await request(app)
+        .get('/api/places/nearby?lat=40.7128&lng=-74.0060&radius=1500')
+        .set('Accept-Encoding', 'gzip');
+
+      expect(response.status).toBe(200);
+      expect(response.headers['content-encoding']).toBe('gzip');
+      expect(response.headers.vary).toContain('Accept-Encoding');
+      expect(response.body.count).toBe(40);
+    });
+
+    it('should send identity bytes when no encoding is accepted', async () => {
+      mockNearby.mockResolvedValue(manyPlaces);
+
+      const response = await request(app)
+        .get('/api/places/nearby?lat=40.7128&lng=-74.0060&radius=1500')
+        .set('Accept-Encoding', 'identity');
+
+      expect(response.headers['content-encoding']).toBeUndefined();
+      expect(response.body.data).toHaveLength(40);
+    });
+  });
+
+  describe('GET /api/places/search', () => {
+    const candidates = {
+      places: [
+        {
+          id: 'pizza',
+          displayName: { text: 'Tony\'s Pizzeria', languageCode: 'en' },
+          rating: 4.2,
+          priceLevel: 'PRICE_LEVEL_MODERATE',
+          types: ['pizza_restaurant', 'restaurant'],
+          location: { latitude: 40.7130, longitude: -74.0060 },
+          regularOpeningHours: { openNow: true },
+        },
+        {
+          id: 'trattoria',
+          displayName: { text: 'Trattoria Roma', languageCode: 'en' },
+          rating: 4.8,
+          priceLevel: 'PRICE_LEVEL_EXPENSIVE',
+          types: ['italian_restaurant', 'restaurant'],
+          location: { latitude: 40.7140, longitude: -74.0060 },
+          regularOpeningHours: { openNow: false },
+        },
+        {
+          id: 'sushi',
+          displayName: { text: 'Sushi Zen', languageCode: 'en' },
+          rating: 4.9,
+          types: ['japanese_restaurant', 'restaurant'],
+          location: { latitude: 40.7129, longitude: -74.0061 },
+        },
+      ],
+    };
+
+    beforeEach(() => {
+      mockNearby.mockResolvedValue(candidates);
+    });
+
+    it('should filter candidates with FilterEngine semantics and rank them', async () => {
+      const response = await request(app)
+        .get('/api/places/search')
+        .query({ lat: 40.7128, lng: -74.0060, radius: 2000, cuisine: 'Italian' });
+
+      expect(response.status).toBe(200);
+      expect(response.body.data.map((place: any) => place.id)).toEqual(['trattoria', 'pizza']);
+      expect(response.body.total).toBe(2);
+      expect(response.body.nextCursor).toBeNull();
+      expect(mockNearby).toHaveBeenCalledWith({ lat: 40.7128, lng: -74.0060, radius: 2000, type: 'restaurant' });
+    });
+
+    it('should require every filter to pass', async () => {
+      const response = await request(app)
+        .get('/api/places/search')
+        .query({ lat: 40.7128, lng: -74.0060, radius: 2000, cuisine: 'italian,japanese', openNow: 'true' });
+
+      expect(response.body.data.map((place: any) => place.id)).toEqual(['pizza']);
+    });
+
+    it('should page through the ranked deck', async () => {
+      const first = await request(app)
+        .get('/api/places/search')
+        .query({ lat: 40.7128, lng: -74.0060, radius: 2000, pageSize: 2 });
+
+      expect(first.body.data).toHaveLength(2);
+      expect(first.body.total).toBe(3);
+      expect(first.body.nextCursor).toBe(2);
+
+      const second = await request(app)
+        .get('/api/places/search')
+        .query({ lat: 40.7128, lng: -74.0060, radius: 2000, pageSize: 2, cursor: 2 });
+
+      expect(second.body.data).toHaveLength(1);
+      expect(second.body.nextCursor).toBeNull();
+      expect([...first.body.data, ...second.body.data].map((place: any) => place.id).sort())
+        .toEqual(['pizza', 'sushi', 'trattoria']);
+    });
+
+    it('should return 400 for an out-of-range price level', async () => {
+      const response = await request(app)
+        .get('/api/places/search')
+        .query({ lat: 40.7128, lng: -74.0060, priceLevel: 7 });
+
+      expect(response.status).toBe(400);
+    });
+  });
+
+  describe('POST /api/places/details:batch', () => {
+    const collectNdjson = (res: any, done: (err: Error | null, body: any) => void) => {
+      let text = '';
+      res.setEncoding('utf8');
+      res.on('data', (chunk: string) => { text += chunk; });
+      res.on('end', () => done(null, text.split('\n').filter(Boolean).map((line) => JSON.parse(line))));
+    };
+
+    it('should stream one NDJSON line per unique place', async () => {
+      mockDetails.mockImplementation(async (id: string) => ({ id }));
+
+      const response = await request(app)
+        .post('/api/places/details:batch')
+        .send({ placeIds: ['place1', 'place2', 'place1'], tier: 'contact' })
+        .buffer(true)
+        .parse(collectNdjson);
+
+      expect(response.status).toBe(200);
+      expect(response.headers['content-type']).toContain('application/x-ndjson');
+      expect(response.body).toHaveLength(2);
+      expect(response.body).toEqual(expect.arrayContaining([
+        { placeId: 'place1', success: true, data: { id: 'place1' } },
+        { placeId: 'place2', success: true, data: { id: 'place2' } },
+      ]));
+      expect(mockDetails).toHaveBeenCalledWith('place1', 'contact');
+    });
+
+    it('should report failures per place without failing the batch', async () => {
+      mockDetails.mockImplementation(async (id: string) => {
+        if (id === 'missing') throw new Error('Place not found');
+        return { id };
+      });
+
+      const response = await request(app)
+        .post('/api/places/details:batch')
+        .send({ placeIds: ['place1', 'missing'] })
+        .buffer(true)
+        .parse(collectNdjson);
+
+      expect(response.status).toBe(200);
+      const failed = response.body.find((line: any) => line.placeId === 'missing');
+      expect(failed.success).toBe(false);
+      expect(failed.error.message).toBe('Place not found');
+    });
+
+    it('should return 400 for an empty batch', async () => {
+      const response = await request(app)
+        .post('/api/places/details:batch')
+        .send({ placeIds: [] });
+
+      expect(response.status).toBe(400);
+    });
+  });
+
   describe('GET /api/places/photo/:photoReference', () => {
     it('should return photo URL for valid photo reference', async () => {
       const mockPhotoUrl = 'https://example.com/photo.jpg';
@@ -0,0 +1,204 @@
+import net from 'net';
+import { cache, withCache } from '../cache';
+import { local } from '../cache/local';
+import { SharedCacheStore } from '../cache/sharedStore';
+import { RespSharedStore, encodeCommand, parseReply } from '../cache/respStore';
+
+/**
+ * Local stand-in for a Redis server: understands the handful of commands
+ * the shared store issues, over real RESP on a loopback socket
+ */
+function startRespStandIn(): Promise<{ server: net.Server; port: number; data: Map<string, string> }> {
+  const data = new Map<string, string>();
+
+  const server = net.createServer((socket) => {
+    let buffer = Buffer.alloc(0);
+    socket.on('data', (chunk) => {
+      buffer = Buffer.concat([buffer, chunk]);
+      let parsed = parseReply(buffer, 0);
+      while (parsed) {
+        const [command, ...args] = parsed.value as string[];
+        buffer = buffer.subarray(parsed.next);
+
+        switch (command.toUpperCase()) {
+          case 'GET': {
+            const value = data.get(args[0]);
+            socket.write(value === undefined ? '$-1\r\n' : `$${Buffer.byteLength(value)}\r\n${value}\r\n`);
+            break;
+          }
+          case 'SET':
+            data.set(args[0], args[1]);
+            socket.write('+OK\r\n');
+            break;
+          default:
+            socket.write(`-ERR unknown command '${command}'\r\n`);
+        }
+        parsed = parseReply(buffer, 0);
+      }
+    });
+  });
+
+  return new Promise((resolve) => {
+    server.listen(0, '127.0.0.1', () => {
+      resolve({ server, port: (server.address() as net.AddressInfo).port, data });
+    });
+  });
+}
+
+class MemorySharedStore implements SharedCacheStore {
+  data = new Map<string, string>();
+
+  async get(key: string) {
+    return this.data.get(key) ?? null;
+  }
+
+  async set(key: string, value: string) {
+    this.data.set(key, value);
+  }
+
+  async close() {}
+}
+
+describe('Shared cache tier', () => {
+  describe('RESP protocol', () => {
+    it('should round-trip commands through the encoder and parser', () => {
+      const parsed = parseReply(Buffer.from(encodeCommand(['SET', 'k', 'välue'])), 0);
+      expect(parsed?.value).toEqual(['SET', 'k', 'välue']);
+    });
+
+    it('should wait for a complete bulk string', () => {
+      expect(parseReply(Buffer.from('$5\r\nhel'), 0)).toBeNull();
+      expect(parseReply(Buffer.from('$5\r\nhello\r\n'), 0)?.value).toBe('hello');
+      expect(parseReply(Buffer.from('$-1\r\n'), 0)?.value).toBeNull();
+    });
+  });
+
+  describe('RespSharedStore', () => {
+    let standIn: { server: net.Server; port: number; data: Map<string, string> };
+    let store: RespSharedStore;
+
+    beforeEach(async () => {
+      standIn = await startRespStandIn();
+      store = new RespSharedStore(`redis://127.0.0.1:${standIn.port}`, { keyPrefix: 'test:' });
+    });
+
+    afterEach(async () => {
+      await store.close();
+      await new Promise((resolve) => standIn.server.close(resolve));
+    });
+
+    it('should set and get values with the key prefix', async () => {
+      await store.set('details:abc', '{"a":1}', 60);
+
+      expect(standIn.data.get('test:details:abc')).toBe('{"a":1}');
+      expect(await store.get('details:abc')).toBe('{"a":1}');
+      expect(await store.get('details:missing')).toBeNull();
+    });
+
+    it('should keep pipelined replies in order', async () => {
+      await Promise.all(
+        Array.from({ length: 20 }, (_, i) => store.set(`k${i}`, `v${i}`, 60))
+      );
+      const values = await Promise.all(
+        Array.from({ length: 20 }, (_, i) => store.get(`k${i}`))
+      );
+
+      expect(values).toEqual(Array.from({ length: 20 }, (_, i) => `v${i}`));
+    });
+
+    it('should reconnect after a connection stops answering', async () => {
+      // Accepts connections but never replies, like a half-open peer
+      const connections: net.Socket[] = [];
+      const silent = net.createServer((socket) => connections.push(socket));
+      await new Promise<void>((resolve) => silent.listen(0, '127.0.0.1', resolve));
+      const port = (silent.address() as net.AddressInfo).port;
+      const stalled = new RespSharedStore(`redis://127.0.0.1:${port}`, {
+        commandTimeoutMs: 20,
+        maxConsecutiveTimeouts: 2,
+      });
+
+      try {
+        await expect(stalled.get('a')).rejects.toThrow('timed out');
+        await expect(stalled.get('b')).rejects.toThrow('timed out');
+        await expect(stalled.get('c')).rejects.toThrow('timed out');
+
+        // The third command went out on a fresh connection
+        expect(connections).toHaveLength(2);
+      } finally {
+        await stalled.close();
+        connections.forEach((socket) => socket.destroy());
+        await new Promise((resolve) => silent.close(resolve));
+      }
+    });
+
+    it('should reject when the server is unreachable', async () => {
+      const unreachable = new RespSharedStore('redis://127.0.0.1:1');
+      await expect(unreachable.get('anything')).rejects.toBeDefined();
+    });
+
+    it('should refuse URL schemes it cannot connect with', () => {
+      expect(() => new RespSharedStore('http://127.0.0.1:6379')).toThrow(/scheme/);
+      expect(() => new RespSharedStore('rediss://127.0.0.1:1')).not.toThrow();
+    });
+  });
+
+  describe('UnifiedCache with a shared tier', () => {
+    let shared: MemorySharedStore;
+
+    beforeEach(() => {
+      local.flushAll();
+      shared = new MemorySharedStore();
+      cache.setSharedStore(shared);
+      cache.resetFetchStats();
+    });
+
+    afterEach(() => {
+      cache.setSharedStore(null);
+    });
+
+    it('should write through and serve other instances from the shared tier', async () => {
+      const fetcher = jest.fn().mockResolvedValue({ data: 'upstream' });
+
+      await withCache('test-shared-write', 60, fetcher);
+      expect(shared.data.has('test-shared-write')).toBe(true);
+
+      // A fresh instance has an empty L1 but the same L2
+      local.flushAll();
+      const result = await withCache('test-shared-write', 60, fetcher);
+
+      expect(result.data).toBe('upstream');
+      expect(fetcher).toHaveBeenCalledTimes(1);
+      expect(cache.getFetchStats()).toMatchObject({ sharedHits: 1 });
+    });
+
+    it('should fall back to the fetcher when the shared tier fails', async () => {
+      cache.setSharedStore({
+        get: () => Promise.reject(new Error('down')),
+        set: () => Promise.reject(new Error('down')),
+        close: async () => {},
+      });
+      const fetcher = jest.fn().mockResolvedValue({ data: 'upstream' });
+
+      const result = await withCache('test-shared-down', 60, fetcher);
+
+      expect(result.data).toBe('upstream');
+      expect(fetcher).toHaveBeenCalledTimes(1);
+    });
+
+    it('should negatively cache upstream not-found responses', async () => {
+      const notFound = Object.assign(new Error('Request failed with status code 404'), {
+        response: { status: 404 },
+      });
+      const fetcher = jest.fn().mockRejectedValue(notFound);
+
+      await expect(withCache('details:missing-place', 60, fetcher)).rejects.toMatchObject({ statusCode: 404 });
+      await expect(withCache('details:missing-place', 60, fetcher)).rejects.toMatchObject({ statusCode: 404 });
+
+      expect(fetcher).toHaveBeenCalledTimes(1);
+      expect(cache.getFetchStats()).toMatchObject({ negativeHits: 1 });
+
+      const stored = JSON.parse(shared.data.get('details:missing-place') as string);
+      expect(stored.data).toMatchObject({ __negative: true });
+    });
+  });
+});
@@ -0,0 +1,72 @@
+import {
+  encodeGeohash,
+  coveringTiles,
+  distanceMeters,
+  precisionForRadius,
+  expectedTileYield,
+  MAX_TILE_RADIUS_METERS,
+  MAX_TILES,
+  NEARBY_RESULT_COUNT,
+} from '../google/tiles';
+
+describe('Nearby geohash tiles', () => {
+  describe('encodeGeohash', () => {
+    it('should match the reference geohash encoding', () => {
+      expect(encodeGeohash(57.64911, 10.40744, 11)).toBe('u4pruydqqvj');
+    });
+  });
+
+  describe('coveringTiles', () => {
+    it('should cover the search circle with at most four tiles', () => {
+      const tiles = coveringTiles(35.68, 139.7, 3000);
+
+      expect(tiles).not.toBeNull();
+      expect(tiles!.length).toBeGreaterThanOrEqual(1);
+      expect(tiles!.length).toBeLessThanOrEqual(MAX_TILES);
+      tiles!.forEach((tile) => {
+        expect(tile.geohash).toHaveLength(precisionForRadius(35.68, 139.7, 3000));
+        expect(tile.radius).toBeLessThanOrEqual(MAX_TILE_RADIUS_METERS);
+      });
+    });
+
+    it('should only tile when the tiles yield at least one full search of places', () => {
+      const tiles = coveringTiles(35.68, 139.7, 3000)!;
+
+      expect(expectedTileYield(tiles, { lat: 35.68, lng: 139.7 }, 3000)).toBeGreaterThanOrEqual(
+        NEARBY_RESULT_COUNT
+      );
+    });
+
+    it('should decline to tile circles much smaller than the tiles', () => {
+      // Covering 500m takes ~3km tiles, which would leave about one place inside
+      expect(coveringTiles(40.7128, -74.006, 500)).toBeNull();
+    });
+
+    it('should give nearby users the same tiles', () => {
+      const a = coveringTiles(35.68, 139.7, 3000)!.map((t) => t.geohash);
+      const b = coveringTiles(35.68005, 139.70005, 3000)!.map((t) => t.geohash);
+
+      expect(b).toEqual(a);
+    });
+
+    it('should fully contain the search circle in the tile circles', () => {
+      const center = { lat: 35.68, lng: 139.7 };
+      const tiles = coveringTiles(center.lat, center.lng, 3000)!;
+
+      // Points on the search circle must fall inside some tile's fetch circle
+      for (let bearing = 0; bearing < 360; bearing += 30) {
+        const rad = (bearing * Math.PI) / 180;
+        const point = {
+          lat: center.lat + (3000 / 111320) * Math.cos(rad),
+          lng: center.lng + (3000 / (111320 * Math.cos((center.lat * Math.PI) / 180))) * Math.sin(rad),
+        };
+        const covered = tiles.some((tile) => distanceMeters(tile.center, point) <= tile.radius);
+        expect(covered).toBe(true);
+      }
+    });
+
+    it('should decline to tile circles too large for one upstream search', () => {
+      expect(coveringTiles(40.7128, -74.006, 50000)).toBeNull();
+    });
+  });
+});
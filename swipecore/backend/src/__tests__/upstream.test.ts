@@ -0,0 +1,69 @@
+import { ConcurrencyLimiter, getUpstreamStats } from '../google/upstream';
+
+const deferred = () => {
+  let resolve!: () => void;
+  const promise = new Promise<void>((r) => { resolve = r; });
+  return { promise, resolve };
+};
+
+describe('ConcurrencyLimiter', () => {
+  it('should run at most maxConcurrent tasks at once', async () => {
+    const limiter = new ConcurrencyLimiter(2, 10);
+    const gates = [deferred(), deferred(), deferred()];
+    let running = 0;
+    let peak = 0;
+
+    const runs = gates.map((gate) =>
+      limiter.run(async () => {
+        running++;
+        peak = Math.max(peak, running);
+        await gate.promise;
+        running--;
+      })
+    );
+
+    await Promise.resolve();
+    expect(limiter.getStats()).toMatchObject({ active: 2, waiting: 1 });
+
+    gates.forEach((gate) => gate.resolve());
+    await Promise.all(runs);
+
+    expect(peak).toBe(2);
+    expect(limiter.getStats()).toMatchObject({ active: 0, waiting: 0, queued: 1, peakActive: 2 });
+  });
+
+  it('should reject with 503 once the queue is full', async () => {
+    const limiter = new ConcurrencyLimiter(1, 1);
+    const gate = deferred();
+
+    const first = limiter.run(() => gate.promise);
+    const second = limiter.run(async () => 'queued');
+
+    await expect(limiter.run(async () => 'rejected')).rejects.toMatchObject({ statusCode: 503 });
+    expect(limiter.getStats().rejected).toBe(1);
+
+    gate.resolve();
+    await first;
+    await expect(second).resolves.toBe('queued');
+  });
+
+  it('should release the slot when a task fails', async () => {
+    const limiter = new ConcurrencyLimiter(1, 1);
+
+    await expect(limiter.run(async () => { throw new Error('boom'); })).rejects.toThrow('boom');
+    await expect(limiter.run(async () => 'ok')).resolves.toBe('ok');
+    expect(limiter.getStats().active).toBe(0);
+  });
+});
+
+describe('getUpstreamStats', () => {
+  it('should report pool, limiter and per-endpoint stats', () => {
+    const stats = getUpstreamStats();
+
+    expect(stats.pool).toMatchObject({ inUse: 0, idle: 0, utilisation: 0 });
+    expect(stats.limiter.active).toBe(0);
+    expect(Object.keys(stats.endpoints)).toEqual(
+      expect.arrayContaining(['nearby', 'textSearch', 'details', 'photo', 'photoMedia'])
+    );
+  });
+});
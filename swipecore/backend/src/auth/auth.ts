@@ -1,6 +1,9 @@
 
 import { sign, verify, SignOptions } from "jsonwebtoken";
 import { config as envConfig } from "../config";
+import { logger } from "../lib/logger";
+
+const log = logger.child("auth");
 
 // ----- ENV -----
 const ACCESS_TTL = `${envConfig.authAccessTtlSeconds}s`; // short lived
@@ -25,7 +28,7 @@ export function cleanupExpiredSessions() {
     for (const [sessionId, session] of sessions.entries()) {
         if (now > session.expiresAt) {
             sessions.delete(sessionId);
-            console.log(`Cleaned up expired session: ${sessionId}`);
+            log.debug("Cleaned up expired session", { sessionId });
         }
     }
 }
@@ -70,7 +73,7 @@ export function requireAuth(req: any, res: any, next: any) {
             // Clean up expired session if it exists
             if (session) {
                 sessions.delete(sessionId);
-                console.log(`Removed expired session from auth middleware: ${sessionId}`);
+                log.info("Removed expired session from auth middleware", { sessionId });
             }
             return res.status(401).json({
                 success: false,
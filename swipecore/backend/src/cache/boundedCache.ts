@@ -0,0 +1,236 @@
+import NodeCache from 'node-cache';
+
+export type CacheSection = 'nearby' | 'details' | 'photo' | 'other';
+
+export type SectionBudgets = Record<CacheSection, number>;
+
+interface SectionStats {
+  entries: number;
+  bytes: number;
+  budgetBytes: number;
+  hits: number;
+  misses: number;
+  evictions: number;
+  evictedBytes: number;
+  rejected: number;
+}
+
+// Share of a section's budget reserved for entries that were hit at least once
+const PROTECTED_RATIO = 0.8;
+
+/**
+ * Segmented LRU for one cache section. New entries land in probation; a hit
+ * promotes them to the protected segment. Eviction takes the least recently
+ * used probation entry first, so one-off lookups cannot flush out the hot set.
+ * Maps keep insertion order, so re-inserting a key moves it to the MRU end.
+ */
+class SegmentedLru {
+  private probation = new Map<string, number>();
+  private protectedSegment = new Map<string, number>();
+  private protectedBytes = 0;
+
+  bytes = 0;
+  stats = { hits: 0, misses: 0, evictions: 0, evictedBytes: 0, rejected: 0 };
+
+  constructor(readonly budgetBytes: number) {}
+
+  get entries(): number {
+    return this.probation.size + this.protectedSegment.size;
+  }
+
+  has(key: string): boolean {
+    return this.probation.has(key) || this.protectedSegment.has(key);
+  }
+
+  add(key: string, size: number): void {
+    this.probation.set(key, size);
+    this.bytes += size;
+  }
+
+  touch(key: string): void {
+    const protectedSize = this.protectedSegment.get(key);
+    if (protectedSize !== undefined) {
+      this.protectedSegment.delete(key);
+      this.protectedSegment.set(key, protectedSize);
+      return;
+    }
+
+    const size = this.probation.get(key);
+    if (size === undefined) return;
+
+    this.probation.delete(key);
+    this.protectedSegment.set(key, size);
+    this.protectedBytes += size;
+
+    // Demote the coldest protected entries back to probation when over quota
+    const protectedBudget = this.budgetBytes * PROTECTED_RATIO;
+    for (const [coldKey, coldSize] of this.protectedSegment) {
+      if (this.protectedBytes <= protectedBudget) break;
+      this.protectedSegment.delete(coldKey);
+      this.protectedBytes -= coldSize;
+      this.probation.set(coldKey, coldSize);
+    }
+  }
+
+  remove(key: string): boolean {
+    const probationSize = this.probation.get(key);
+    if (probationSize !== undefined) {
+      this.probation.delete(key);
+      this.bytes -= probationSize;
+      return true;
+    }
+
+    const protectedSize = this.protectedSegment.get(key);
+    if (protectedSize !== undefined) {
+      this.protectedSegment.delete(key);
+      this.protectedBytes -= protectedSize;
+      this.bytes -= protectedSize;
+      return true;
+    }
+
+    return false;
+  }
+
+  /**
+   * Pick victims until `incoming` more bytes fit in the budget
+   */
+  victims(incoming: number): Array<[string, number]> {
+    const victims: Array<[string, number]> = [];
+    let bytes = this.bytes;
+
+    for (const segment of [this.probation, this.protectedSegment]) {
+      for (const [key, size] of segment) {
+        if (bytes + incoming <= this.budgetBytes) return victims;
+        victims.push([key, size]);
+        bytes -= size;
+      }
+    }
+
+    return victims;
+  }
+
+  clear(): void {
+    this.probation.clear();
+    this.protectedSegment.clear();
+    this.protectedBytes = 0;
+    this.bytes = 0;
+  }
+}
+
+/**
+ * NodeCache with a byte budget per key section (`nearby:`, `details:`,
+ * `photo:`). NodeCache still owns storage and TTL expiry; this wrapper tracks
+ * the approximate serialised size of each entry and evicts with a segmented
+ * LRU once a section is over budget. Entries larger than their section's
+ * whole budget are not admitted.
+ */
+export class BoundedCache {
+  private sections: Record<CacheSection, SegmentedLru>;
+
+  constructor(
+    private readonly store: NodeCache,
+    budgets: SectionBudgets
+  ) {
+    this.sections = {
+      nearby: new SegmentedLru(budgets.nearby),
+      details: new SegmentedLru(budgets.details),
+      photo: new SegmentedLru(budgets.photo),
+      other: new SegmentedLru(budgets.other),
+    };
+
+    // Keep the size index in step with TTL expiry and explicit deletes
+    this.store.on('del', (key: NodeCache.Key) => {
+      const name = String(key);
+      this.sections[sectionFor(name)].remove(name);
+    });
+  }
+
+  get options(): NodeCache.Options {
+    return this.store.options;
+  }
+
+  get<T>(key: string): T | undefined {
+    const section = this.sections[sectionFor(key)];
+    const value = this.store.get<T>(key);
+
+    if (value === undefined) {
+      section.stats.misses++;
+      return undefined;
+    }
+
+    section.stats.hits++;
+    section.touch(key);
+    return value;
+  }
+
+  set<T>(key: string, value: T, ttlSecs: number): boolean {
+    const section = this.sections[sectionFor(key)];
+    const size = estimateSize(value);
+
+    if (section.has(key)) {
+      section.remove(key);
+    }
+
+    if (size > section.budgetBytes) {
+      section.stats.rejected++;
+      this.store.del(key);
+      return false;
+    }
+
+    for (const [victim, victimSize] of section.victims(size)) {
+      section.remove(victim);
+      this.store.del(victim);
+      section.stats.evictions++;
+      section.stats.evictedBytes += victimSize;
+    }
+
+    section.add(key, size);
+    return this.store.set(key, value, ttlSecs);
+  }
+
+  getTtl(key: string): number | undefined {
+    return this.store.getTtl(key);
+  }
+
+  del(key: string): number {
+    return this.store.del(key);
+  }
+
+  flushAll(): void {
+    this.store.flushAll();
+    Object.values(this.sections).forEach((section) => section.clear());
+  }
+
+  getStats(): Record<CacheSection, SectionStats> {
+    const stats = {} as Record<CacheSection, SectionStats>;
+
+    (Object.keys(this.sections) as CacheSection[]).forEach((name) => {
+      const section = this.sections[name];
+      stats[name] = {
+        entries: section.entries,
+        bytes: section.bytes,
+        budgetBytes: section.budgetBytes,
+        ...section.stats,
+      };
+    });
+
+    return stats;
+  }
+}
+
+export function sectionFor(key: string): CacheSection {
+  if (key.startsWith('nearby:') || key.startsWith('textSearch:')) return 'nearby';
+  if (key.startsWith('details:')) return 'details';
+  if (key.startsWith('photo:')) return 'photo';
+  return 'other';
+}
+
+/**
+ * Approximate size of a cached value: its JSON length in bytes. Computed once
+ * per set, which only happens on an upstream fetch.
+ */
+function estimateSize(value: unknown): number {
+  if (Buffer.isBuffer(value)) return value.length;
+  if (typeof value === 'string') return Buffer.byteLength(value);
+  return Buffer.byteLength(JSON.stringify(value) ?? '');
+}
@@ -0,0 +1,277 @@
+import fs from 'fs';
+import path from 'path';
+import { logger } from '../lib/logger';
+
+const log = logger.child('cache');
+
+// One line per record: a set carries the value, a delete carries d: 1
+interface LogRecord<V> {
+  k: string;
+  v?: V;
+  d?: 1;
+}
+
+interface DevCacheLogOptions {
+  flushIntervalMs?: number;
+  maxSegmentBytes?: number;
+  // Compact once the log holds this many times more records than live keys
+  compactionRatio?: number;
+  compactionMinRecords?: number;
+}
+
+const SEGMENT_PATTERN = /^segment-(\d+)\.log$/;
+
+/**
+ * Append-only, segmented key/value log used to persist the dev cache.
+ *
+ * Writes are buffered in memory and appended to the active segment in
+ * batches, with a single fsync per batch, so a cache set costs one
+ * serialised entry instead of a rewrite of the whole cache. Segments roll
+ * over at maxSegmentBytes, and once dead records dominate the log the live
+ * entries are rewritten into a fresh segment and the older ones removed.
+ */
+export class DevCacheLog<V> {
+  private readonly flushIntervalMs: number;
+  private readonly maxSegmentBytes: number;
+  private readonly compactionRatio: number;
+  private readonly compactionMinRecords: number;
+
+  private pending: string[] = [];
+  private flushTimer: NodeJS.Timeout | null = null;
+  private flushChain: Promise<void> = Promise.resolve();
+
+  private activeSeq = 1;
+  private activeBytes = 0;
+  private totalRecords = 0;
+  private liveKeys = 0;
+
+  constructor(
+    private readonly dir: string,
+    private readonly snapshot: () => Iterable<[string, V]>,
+    options: DevCacheLogOptions = {}
+  ) {
+    this.flushIntervalMs = options.flushIntervalMs ?? 200;
+    this.maxSegmentBytes = options.maxSegmentBytes ?? 8 * 1024 * 1024;
+    this.compactionRatio = options.compactionRatio ?? 4;
+    this.compactionMinRecords = options.compactionMinRecords ?? 1000;
+  }
+
+  get directory(): string {
+    return this.dir;
+  }
+
+  hasSegments(): boolean {
+    return this.listSegments().length > 0;
+  }
+
+  /**
+   * Rebuild the key index by scanning every segment in order. Runs once at
+   * startup; a torn trailing line from a crash is skipped, and cut from the
+   * active segment so later appends start on a fresh line.
+   */
+  load(): Map<string, V> {
+    const entries = new Map<string, V>();
+    fs.mkdirSync(this.dir, { recursive: true });
+
+    const segments = this.listSegments();
+    for (const seq of segments) {
+      const filePath = this.segmentPath(seq);
+      const lines = fs.readFileSync(filePath, 'utf-8').split('\n');
+
+      for (const line of lines) {
+        if (!line) continue;
+
+        let record: LogRecord<V>;
+        try {
+          record = JSON.parse(line);
+        } catch {
+          continue;
+        }
+
+        this.totalRecords++;
+        if (record.d) {
+          entries.delete(record.k);
+        } else {
+          entries.set(record.k, record.v as V);
+        }
+      }
+    }
+
+    this.liveKeys = entries.size;
+    this.activeSeq = segments.length ? segments[segments.length - 1] : 1;
+    this.activeBytes = segments.length ? this.truncateTornTail(this.activeSeq) : 0;
+
+    return entries;
+  }
+
+  set(key: string, value: V, isNew: boolean): void {
+    if (isNew) this.liveKeys++;
+    this.append({ k: key, v: value });
+  }
+
+  delete(key: string): void {
+    this.liveKeys = Math.max(0, this.liveKeys - 1);
+    this.append({ k: key, d: 1 });
+  }
+
+  /**
+   * Drop every segment and any buffered writes
+   */
+  async clear(): Promise<void> {
+    this.pending = [];
+    await this.enqueue(async () => {
+      for (const seq of this.listSegments()) {
+        await fs.promises.unlink(this.segmentPath(seq));
+      }
+      this.activeSeq = 1;
+      this.activeBytes = 0;
+      this.totalRecords = 0;
+      this.liveKeys = 0;
+    });
+  }
+
+  /**
+   * Write all buffered records and fsync the active segment
+   */
+  flush(): Promise<void> {
+    if (this.flushTimer) {
+      clearTimeout(this.flushTimer);
+      this.flushTimer = null;
+    }
+
+    return this.enqueue(async () => {
+      await this.writePending();
+      if (this.shouldCompact()) {
+        await this.compact();
+      }
+    });
+  }
+
+  /**
+   * Last-resort synchronous write of buffered records, for process exit only
+   */
+  flushSync(): void {
+    if (!this.pending.length) return;
+
+    fs.mkdirSync(this.dir, { recursive: true });
+    fs.appendFileSync(this.segmentPath(this.activeSeq), this.pending.join(''));
+    this.pending = [];
+  }
+
+  private append(record: LogRecord<V>): void {
+    this.pending.push(JSON.stringify(record) + '\n');
+    this.totalRecords++;
+
+    if (!this.flushTimer) {
+      this.flushTimer = setTimeout(() => {
+        this.flushTimer = null;
+        this.flush().catch((error) => {
+          log.error('Error flushing dev cache log', { error });
+        });
+      }, this.flushIntervalMs);
+      this.flushTimer.unref();
+    }
+  }
+
+  // Disk work is serialised so appends, rollovers and compaction never interleave
+  private enqueue(task: () => Promise<void>): Promise<void> {
+    const run = this.flushChain.then(task);
+    this.flushChain = run.catch(() => undefined);
+    return run;
+  }
+
+  private async writePending(): Promise<void> {
+    if (!this.pending.length) return;
+
+    const batch = this.pending.join('');
+    this.pending = [];
+
+    if (this.activeBytes >= this.maxSegmentBytes) {
+      this.activeSeq++;
+      this.activeBytes = 0;
+    }
+
+    await fs.promises.mkdir(this.dir, { recursive: true });
+    const handle = await fs.promises.open(this.segmentPath(this.activeSeq), 'a');
+    try {
+      await handle.write(batch);
+      await handle.datasync();
+    } finally {
+      await handle.close();
+    }
+
+    this.activeBytes += Buffer.byteLength(batch);
+  }
+
+  private shouldCompact(): boolean {
+    return (
+      this.totalRecords >= this.compactionMinRecords &&
+      this.totalRecords > this.liveKeys * this.compactionRatio
+    );
+  }
+
+  /**
+   * Rewrite the live entries into a new segment, then remove the old ones.
+   * The new segment is written under a temporary name and renamed into place,
+   * so a crash mid-compaction leaves the previous segments intact.
+   */
+  private async compact(): Promise<void> {
+    const previous = this.listSegments();
+    const nextSeq = this.activeSeq + 1;
+    const target = this.segmentPath(nextSeq);
+    const tmp = `${target}.tmp`;
+
+    const lines: string[] = [];
+    for (const [key, value] of this.snapshot()) {
+      lines.push(JSON.stringify({ k: key, v: value }) + '\n');
+    }
+    const body = lines.join('');
+
+    const handle = await fs.promises.open(tmp, 'w');
+    try {
+      await handle.write(body);
+      await handle.datasync();
+    } finally {
+      await handle.close();
+    }
+    await fs.promises.rename(tmp, target);
+
+    for (const seq of previous) {
+      await fs.promises.unlink(this.segmentPath(seq));
+    }
+
+    log.info('Dev cache log compacted', { records: this.totalRecords, live: lines.length });
+
+    this.activeSeq = nextSeq;
+    this.activeBytes = Buffer.byteLength(body);
+    this.totalRecords = lines.length + this.pending.length;
+    this.liveKeys = lines.length;
+  }
+
+  // Cut a segment back to its last complete line, returning its new size
+  private truncateTornTail(seq: number): number {
+    const filePath = this.segmentPath(seq);
+    const content = fs.readFileSync(filePath);
+    const end = content.lastIndexOf(0x0a) + 1;
+    if (end < content.length) {
+      fs.truncateSync(filePath, end);
+      log.warn('Dev cache log torn record dropped', { segment: seq, bytes: content.length - end });
+    }
+    return end;
+  }
+
+  private listSegments(): number[] {
+    if (!fs.existsSync(this.dir)) return [];
+
+    return fs
+      .readdirSync(this.dir)
+      .map((name) => SEGMENT_PATTERN.exec(name))
+      .filter((match): match is RegExpExecArray => match !== null)
+      .map((match) => Number(match[1]))
+      .sort((a, b) => a - b);
+  }
+
+  private segmentPath(seq: number): string {
+    return path.join(this.dir, `segment-${String(seq).padStart(6, '0')}.log`);
+  }
+}
@@ -1,3 +1,6 @@
 // Export unified cache functionality
 export { withCache, cache } from './unifiedCache';
-export { local } from './local';
\ No newline at end of file
+export type { CacheOptions } from './unifiedCache';
+export { local } from './local';
+export { photoStore } from './photoStore';
+export type { StoredPhoto } from './photoStore';
@@ -1,10 +1,21 @@
 import NodeCache from 'node-cache';
+import { config } from '../config';
+import { BoundedCache } from './boundedCache';
 
 // Configure NodeCache with proper TTL options
 // checkperiod: how often to check for expired items (in seconds)
 // This ensures automatic deletion of expired items even if they're not accessed
-export const local = new NodeCache({
+const store = new NodeCache({
   checkperiod: 10000, // Check for expired items every 10 seconds
   useClones: false, // For better performance
   deleteOnExpire: true, // Ensure items are deleted when they expire
 });
+
+// Byte budgets per key section so heap use stays bounded under real traffic
+const MB = 1024 * 1024;
+export const local = new BoundedCache(store, {
+  nearby: config.localCacheBudgetMb.nearby * MB,
+  details: config.localCacheBudgetMb.details * MB,
+  photo: config.localCacheBudgetMb.photo * MB,
+  other: config.localCacheBudgetMb.other * MB,
+});
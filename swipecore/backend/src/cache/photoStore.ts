@@ -0,0 +1,134 @@
+import crypto from 'crypto';
+import fs from 'fs';
+import path from 'path';
+import { config } from '../config';
+
+export interface StoredPhoto {
+  hash: string;
+  size: number;
+  contentType: string;
+}
+
+/**
+ * Content-addressed, size-capped blob store for photo bytes on local disk.
+ *
+ * Blobs are named by the SHA-256 of their contents (fanned out by the first
+ * two hex characters), so the same image is only stored once and a blob's
+ * name doubles as its ETag. Total size is capped at maxBytes; once over, the
+ * least recently used blobs are deleted. Access order is rebuilt from file
+ * modification times at startup.
+ */
+export class PhotoStore {
+  // hash -> size, in least-recently-used first order
+  private blobs = new Map<string, number>();
+  private totalBytes = 0;
+  private evictions = 0;
+  // Writes in progress by hash, so concurrent puts of the same bytes share one
+  private writing = new Map<string, Promise<void>>();
+  private tmpCounter = 0;
+
+  constructor(
+    private readonly dir: string,
+    private readonly maxBytes: number
+  ) {
+    this.scan();
+  }
+
+  has(hash: string): boolean {
+    return this.blobs.has(hash);
+  }
+
+  /**
+   * Absolute path of a stored blob, marking it as recently used
+   */
+  pathFor(hash: string): string | null {
+    const size = this.blobs.get(hash);
+    if (size === undefined) return null;
+
+    this.blobs.delete(hash);
+    this.blobs.set(hash, size);
+    return this.blobPath(hash);
+  }
+
+  async put(bytes: Buffer, contentType: string): Promise<StoredPhoto> {
+    const hash = crypto.createHash('sha256').update(bytes).digest('hex');
+
+    if (!this.blobs.has(hash)) {
+      let write = this.writing.get(hash);
+      if (!write) {
+        write = this.write(hash, bytes).finally(() => this.writing.delete(hash));
+        this.writing.set(hash, write);
+      }
+      await write;
+    }
+
+    return { hash, size: bytes.length, contentType };
+  }
+
+  getStats() {
+    return {
+      blobs: this.blobs.size,
+      bytes: this.totalBytes,
+      maxBytes: this.maxBytes,
+      evictions: this.evictions,
+    };
+  }
+
+  private async write(hash: string, bytes: Buffer): Promise<void> {
+    const target = this.blobPath(hash);
+    // Unique per write, so other processes sharing the directory never collide
+    const tmp = `${target}.${process.pid}.${++this.tmpCounter}.tmp`;
+
+    await fs.promises.mkdir(path.dirname(target), { recursive: true });
+    await fs.promises.writeFile(tmp, bytes);
+    await fs.promises.rename(tmp, target);
+
+    this.blobs.set(hash, bytes.length);
+    this.totalBytes += bytes.length;
+    await this.evictOverCap(hash);
+  }
+
+  private async evictOverCap(keep: string): Promise<void> {
+    for (const [hash, size] of this.blobs) {
+      if (this.totalBytes <= this.maxBytes) return;
+      if (hash === keep) continue;
+
+      this.blobs.delete(hash);
+      this.totalBytes -= size;
+      this.evictions++;
+      await fs.promises.unlink(this.blobPath(hash)).catch(() => undefined);
+    }
+  }
+
+  private scan(): void {
+    if (!fs.existsSync(this.dir)) return;
+
+    const found: Array<{ hash: string; size: number; mtimeMs: number }> = [];
+    for (const fanout of fs.readdirSync(this.dir)) {
+      const fanoutDir = path.join(this.dir, fanout);
+      if (!fs.statSync(fanoutDir).isDirectory()) continue;
+
+      for (const name of fs.readdirSync(fanoutDir)) {
+        if (!/^[a-f0-9]{64}$/.test(name)) continue;
+        const stat = fs.statSync(path.join(fanoutDir, name));
+        found.push({ hash: name, size: stat.size, mtimeMs: stat.mtimeMs });
+      }
+    }
+
+    found
+      .sort((a, b) => a.mtimeMs - b.mtimeMs)
+      .forEach(({ hash, size }) => {
+        this.blobs.set(hash, size);
+        this.totalBytes += size;
+      });
+  }
+
+  private blobPath(hash: string): string {
+    return path.join(this.dir, hash.slice(0, 2), hash);
+  }
+}
+
+export const photoStore = new PhotoStore(
+  config.photoStoreDir,
+  config.photoStoreMaxMb * 1024 * 1024
+);
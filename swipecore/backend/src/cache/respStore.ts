@@ -0,0 +1,250 @@
+import net from 'net';
+import tls from 'tls';
+import { SharedCacheStore } from './sharedStore';
+
+export type RespValue = string | number | null | RespError | RespValue[];
+
+export class RespError extends Error {}
+
+interface PendingReply {
+  resolve: (value: RespValue) => void;
+  reject: (error: Error) => void;
+  settled: boolean;
+  timer?: NodeJS.Timeout;
+}
+
+interface RespStoreOptions {
+  commandTimeoutMs?: number;
+  // Timeouts in a row after which the connection is presumed dead
+  maxConsecutiveTimeouts?: number;
+  keyPrefix?: string;
+}
+
+// Probe idle connections so a peer that vanished is noticed
+const KEEP_ALIVE_DELAY_MS = 10000;
+
+/**
+ * Encode a command as a RESP array of bulk strings
+ */
+export function encodeCommand(args: string[]): string {
+  let out = `*${args.length}\r\n`;
+  for (const arg of args) {
+    out += `$${Buffer.byteLength(arg)}\r\n${arg}\r\n`;
+  }
+  return out;
+}
+
+/**
+ * Parse one RESP2 reply starting at offset, or return null if the buffer
+ * does not hold a complete reply yet
+ */
+export function parseReply(
+  buf: Buffer,
+  offset: number
+): { value: RespValue; next: number } | null {
+  const lineEnd = buf.indexOf('\r\n', offset);
+  if (lineEnd === -1) return null;
+
+  const type = String.fromCharCode(buf[offset]);
+  const line = buf.toString('utf8', offset + 1, lineEnd);
+  const next = lineEnd + 2;
+
+  switch (type) {
+    case '+':
+      return { value: line, next };
+    case '-':
+      return { value: new RespError(line), next };
+    case ':':
+      return { value: Number(line), next };
+    case '$': {
+      const length = Number(line);
+      if (length === -1) return { value: null, next };
+      if (buf.length < next + length + 2) return null;
+      return {
+        value: buf.toString('utf8', next, next + length),
+        next: next + length + 2,
+      };
+    }
+    case '*': {
+      const count = Number(line);
+      if (count === -1) return { value: null, next };
+
+      const items: RespValue[] = [];
+      let cursor = next;
+      for (let i = 0; i < count; i++) {
+        const item = parseReply(buf, cursor);
+        if (!item) return null;
+        items.push(item.value);
+        cursor = item.next;
+      }
+      return { value: items, next: cursor };
+    }
+    default:
+      throw new RespError(`Unexpected RESP reply type: ${type}`);
+  }
+}
+
+/**
+ * Shared cache store speaking the Redis protocol (RESP2) over a single
+ * pipelined connection. Works against Redis, Valkey, KeyDB or any other
+ * RESP-compatible server. The connection is opened lazily and re-opened on
+ * the next command after a failure. Several timeouts in a row (a half-open
+ * connection that never answers) count as a failure too. `redis://` URLs
+ * connect in plain TCP and `rediss://` URLs over TLS.
+ */
+export class RespSharedStore implements SharedCacheStore {
+  private readonly url: URL;
+  private readonly commandTimeoutMs: number;
+  private readonly maxConsecutiveTimeouts: number;
+  private readonly keyPrefix: string;
+
+  private socket: net.Socket | null = null;
+  private pending: PendingReply[] = [];
+  private buffer = Buffer.alloc(0);
+  private consecutiveTimeouts = 0;
+
+  constructor(url: string, options: RespStoreOptions = {}) {
+    this.url = new URL(url);
+    if (this.url.protocol !== 'redis:' && this.url.protocol !== 'rediss:') {
+      throw new Error(`Unsupported shared cache URL scheme: ${this.url.protocol}`);
+    }
+    this.commandTimeoutMs = options.commandTimeoutMs ?? 100;
+    this.maxConsecutiveTimeouts = options.maxConsecutiveTimeouts ?? 3;
+    this.keyPrefix = options.keyPrefix ?? 'nomnom:';
+  }
+
+  async get(key: string): Promise<string | null> {
+    const reply = await this.command(['GET', this.keyPrefix + key]);
+    return typeof reply === 'string' ? reply : null;
+  }
+
+  async set(key: string, value: string, ttlSecs: number): Promise<void> {
+    const args = ['SET', this.keyPrefix + key, value];
+    if (ttlSecs > 0) {
+      args.push('EX', String(Math.ceil(ttlSecs)));
+    }
+    await this.command(args);
+  }
+
+  async close(): Promise<void> {
+    const socket = this.socket;
+    if (!socket) return;
+
+    this.socket = null;
+    await new Promise<void>((resolve) => {
+      socket.end(() => resolve());
+    });
+  }
+
+  command(args: string[]): Promise<RespValue> {
+    const socket = this.connect();
+
+    return new Promise<RespValue>((resolve, reject) => {
+      const reply: PendingReply = { resolve, reject, settled: false };
+
+      // The slot stays queued after a timeout so the late reply is still
+      // matched to it and the pipeline stays in order. If replies stop
+      // coming altogether, the connection is dropped and the queue with it.
+      reply.timer = setTimeout(() => {
+        if (reply.settled) return;
+        reply.settled = true;
+        reject(new Error(`Shared cache command timed out: ${args[0]}`));
+
+        if (
+          this.socket === socket &&
+          ++this.consecutiveTimeouts >= this.maxConsecutiveTimeouts
+        ) {
+          this.teardown(socket, new Error('Shared cache connection stopped responding'));
+        }
+      }, this.commandTimeoutMs);
+
+      this.pending.push(reply);
+      socket.write(encodeCommand(args));
+    });
+  }
+
+  private connect(): net.Socket {
+    if (this.socket) return this.socket;
+
+    const host = this.url.hostname || 'localhost';
+    const port = Number(this.url.port) || 6379;
+    // Commands written before the TLS handshake completes are buffered by the socket
+    const socket =
+      this.url.protocol === 'rediss:'
+        ? tls.connect({ host, port, servername: net.isIP(host) ? undefined : host })
+        : net.createConnection({ host, port });
+    socket.setNoDelay(true);
+    socket.setKeepAlive(true, KEEP_ALIVE_DELAY_MS);
+    socket.unref();
+
+    socket.on('data', (chunk) => this.onData(chunk));
+    socket.on('error', (error) => this.teardown(socket, error));
+    socket.on('close', () =>
+      this.teardown(socket, new Error('Shared cache connection closed'))
+    );
+
+    this.socket = socket;
+    this.buffer = Buffer.alloc(0);
+    this.consecutiveTimeouts = 0;
+
+    // Handshake commands are pipelined ahead of the caller's command
+    if (this.url.password) {
+      const user = decodeURIComponent(this.url.username);
+      const password = decodeURIComponent(this.url.password);
+      this.command(user ? ['AUTH', user, password] : ['AUTH', password]).catch(
+        () => undefined
+      );
+    }
+    const db = this.url.pathname.replace('/', '');
+    if (db) {
+      this.command(['SELECT', db]).catch(() => undefined);
+    }
+
+    return socket;
+  }
+
+  private onData(chunk: Buffer): void {
+    this.buffer = this.buffer.length ? Buffer.concat([this.buffer, chunk]) : chunk;
+
+    let offset = 0;
+    while (offset < this.buffer.length) {
+      const parsed = parseReply(this.buffer, offset);
+      if (!parsed) break;
+      offset = parsed.next;
+
+      const reply = this.pending.shift();
+      if (!reply) continue;
+      this.consecutiveTimeouts = 0;
+
+      clearTimeout(reply.timer);
+      if (reply.settled) continue;
+      reply.settled = true;
+
+      if (parsed.value instanceof RespError) {
+        reply.reject(parsed.value);
+      } else {
+        reply.resolve(parsed.value);
+      }
+    }
+
+    this.buffer = this.buffer.subarray(offset);
+  }
+
+  private teardown(socket: net.Socket, error: Error): void {
+    socket.destroy();
+
+    // A late event from a connection that was already replaced
+    if (this.socket !== socket && this.socket !== null) return;
+    this.socket = null;
+
+    const pending = this.pending;
+    this.pending = [];
+    for (const reply of pending) {
+      clearTimeout(reply.timer);
+      if (!reply.settled) {
+        reply.settled = true;
+        reply.reject(error);
+      }
+    }
+  }
+}
@@ -0,0 +1,11 @@
+/**
+ * Adapter for the shared (L2) cache tier that sits behind each instance's
+ * in-process cache. Values are opaque strings; UnifiedCache handles
+ * serialisation. Implementations should fail fast: an error or a slow reply
+ * is treated as a miss, never as a failed request.
+ */
+export interface SharedCacheStore {
+  get(key: string): Promise<string | null>;
+  set(key: string, value: string, ttlSecs: number): Promise<void>;
+  close(): Promise<void>;
+}
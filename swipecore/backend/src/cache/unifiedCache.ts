@@ -3,6 +3,16 @@ import path from 'path';
 import { config } from '../config';
 import NodeCache from 'node-cache';
 import { local } from './local';
+import { DevCacheLog } from './devCacheLog';
+import { SharedCacheStore } from './sharedStore';
+import { RespSharedStore } from './respStore';
+import { CustomError } from '../middleware/errorHandler';
+import { cacheLookups } from '../metrics';
+import { sectionFor } from './boundedCache';
+import { logger } from '../lib/logger';
+import type { EncodedBody } from '../lib/encodedBody';
+
+const log = logger.child('cache');
 
 interface CachedEntry {
   data: any;
@@ -10,6 +20,57 @@ interface CachedEntry {
   ttlSecs: number;
 }
 
+interface CacheHit<T> {
+  data: T;
+  storedAt: number;
+}
+
+export interface CacheOptions {
+  // Seconds after which an entry is stale: it is still served, but a single
+  // background refresh is started. ttlSecs remains the hard expiry.
+  softTtlSecs?: number;
+}
+
+// Stored in place of data when upstream reported the resource does not exist
+interface NegativeEntry {
+  __negative: true;
+  statusCode: number;
+}
+
+interface FetchStats {
+  originated: number;
+  coalesced: number;
+  staleServed: number;
+  revalidated: number;
+  revalidateFailed: number;
+  sharedHits: number;
+  sharedMisses: number;
+  sharedErrors: number;
+  negativeHits: number;
+  encodedReused: number;
+  encodedBuilt: number;
+}
+
+const emptyFetchStats = (): FetchStats => ({
+  originated: 0,
+  coalesced: 0,
+  staleServed: 0,
+  revalidated: 0,
+  revalidateFailed: 0,
+  sharedHits: 0,
+  sharedMisses: 0,
+  sharedErrors: 0,
+  negativeHits: 0,
+  encodedReused: 0,
+  encodedBuilt: 0,
+});
+
+const isNegativeEntry = (data: unknown): data is NegativeEntry =>
+  typeof data === 'object' && data !== null && (data as NegativeEntry).__negative === true;
+
+const isNotFoundError = (error: any): boolean =>
+  error?.response?.status === 404 || error?.statusCode === 404;
+
 interface DevCacheStructure {
   nearby: { [key: string]: CachedEntry };
   details: { [placeId: string]: CachedEntry };
@@ -17,7 +78,8 @@ interface DevCacheStructure {
 }
 
 class UnifiedCache {
-  private devCacheFilePath: string;
+  private legacyDevCacheFilePath: string;
+  private devCacheLog: DevCacheLog<CachedEntry>;
   private devCacheData: DevCacheStructure = {
     nearby: {},
     details: {},
@@ -27,10 +89,30 @@ class UnifiedCache {
   private cleanupInterval: NodeJS.Timeout | null = null;
   private readonly CLEANUP_INTERVAL_MS = 60000; // Run cleanup every minute
 
+  // Upstream fetches currently in progress, keyed by cache key, so that
+  // concurrent misses for the same key share a single fetcher call
+  private inFlight = new Map<string, Promise<unknown>>();
+  // Cumulative since startup; resetFetchStats only moves the baseline, so
+  // the metrics collector always reads monotonic counters
+  private fetchStats: FetchStats = emptyFetchStats();
+  private fetchStatsBaseline: FetchStats = emptyFetchStats();
+
+  // Optional shared (L2) tier consulted after the in-process cache misses
+  private sharedStore: SharedCacheStore | null = null;
+
+  // Serialised response bodies keyed by the cached object they were built
+  // from; hits return that same object, and the body goes when it does
+  private encodings = new WeakMap<object, EncodedBody>();
+
   constructor() {
-    this.devCacheFilePath = path.join(process.cwd(), 'dev-cache-nearby.json');
+    this.legacyDevCacheFilePath = path.join(process.cwd(), 'dev-cache-nearby.json');
+    this.devCacheLog = new DevCacheLog<CachedEntry>(
+      path.join(process.cwd(), 'dev-cache'),
+      () => this.devCacheEntries()
+    );
     if (this.shouldUseDevCache()) {
       this.loadDevCache();
+      process.once('exit', () => this.devCacheLog.flushSync());
     }
 
     // Initialize the async cache cleanup
@@ -38,6 +120,18 @@ class UnifiedCache {
 
     // Configure NodeCache for proper TTL handling
     this.configureProdCache();
+
+    if (config.sharedCacheUrl) {
+      this.sharedStore = new RespSharedStore(config.sharedCacheUrl);
+      log.info('Shared cache tier enabled');
+    }
+  }
+
+  /**
+   * Swap the shared (L2) cache adapter, or pass null to run with L1 only
+   */
+  setSharedStore(store: SharedCacheStore | null): void {
+    this.sharedStore = store;
   }
 
   private shouldUseDevCache(): boolean {
@@ -50,44 +144,54 @@ class UnifiedCache {
 
   private loadDevCache(): void {
     try {
-      if (fs.existsSync(this.devCacheFilePath)) {
-        const fileContent = fs.readFileSync(this.devCacheFilePath, 'utf-8');
-        const loaded = JSON.parse(fileContent);
-
-        if (loaded.nearby && loaded.details && loaded.photos) {
-          this.devCacheData = loaded;
-        } else {
-          this.devCacheData = { nearby: {}, details: {}, photos: {} };
-        }
+      const hasLog = this.devCacheLog.hasSegments();
+      const entries = this.devCacheLog.load();
 
-        const totalEntries =
-          Object.keys(this.devCacheData.nearby).length +
-          Object.keys(this.devCacheData.details).length +
-          Object.keys(this.devCacheData.photos).length;
+      entries.forEach((entry, key) => {
+        this.devCacheData[this.getDevCacheSection(key)][key] = entry;
+      });
 
-        console.log('📁 Dev cache loaded:', totalEntries, 'entries');
-      } else {
-        console.log('📁 Dev cache will be created on first write');
+      if (!hasLog) {
+        this.importLegacyDevCache();
       }
+
+      const totalEntries =
+        Object.keys(this.devCacheData.nearby).length +
+        Object.keys(this.devCacheData.details).length +
+        Object.keys(this.devCacheData.photos).length;
+
+      log.info('Dev cache loaded', { entries: totalEntries });
       this.isDevCacheLoaded = true;
     } catch (error) {
-      console.error('❌ Error loading dev cache:', error);
+      log.error('Error loading dev cache', { error });
       this.devCacheData = { nearby: {}, details: {}, photos: {} };
       this.isDevCacheLoaded = true;
     }
   }
 
-  private saveDevCache(): void {
-    if (!this.shouldUseDevCache()) return;
+  /**
+   * One-time migration from the old single-file JSON dev cache into the log
+   */
+  private importLegacyDevCache(): void {
+    if (!fs.existsSync(this.legacyDevCacheFilePath)) return;
+
+    const loaded = JSON.parse(
+      fs.readFileSync(this.legacyDevCacheFilePath, 'utf-8')
+    ) as Partial<DevCacheStructure>;
 
-    try {
-      fs.writeFileSync(
-        this.devCacheFilePath,
-        JSON.stringify(this.devCacheData, null, 2)
-      );
-      console.log('💾 Dev cache saved');
-    } catch (error) {
-      console.error('❌ Error saving dev cache:', error);
+    (['nearby', 'details', 'photos'] as const).forEach((section) => {
+      Object.entries(loaded[section] || {}).forEach(([key, entry]) => {
+        this.devCacheData[section][key] = entry;
+        this.devCacheLog.set(key, entry, true);
+      });
+    });
+
+    log.info('Imported legacy dev cache file into log');
+  }
+
+  private *devCacheEntries(): Iterable<[string, CachedEntry]> {
+    for (const section of ['nearby', 'details', 'photos'] as const) {
+      yield* Object.entries(this.devCacheData[section]);
     }
   }
 
@@ -98,46 +202,55 @@ class UnifiedCache {
     return 'nearby';
   }
 
-  private getFromDevCache<T>(key: string): T | null {
+  private getFromDevCache<T>(
+    key: string,
+    extendTtl: boolean
+  ): CacheHit<T> | null {
     if (!this.shouldUseDevCache() || !this.isDevCacheLoaded) return null;
 
     const section = this.getDevCacheSection(key);
     const entry = this.devCacheData[section][key];
     if (!entry) return null;
 
+    const hit = { data: entry.data as T, storedAt: entry.timestamp };
+
     // update expire time as this is still relevant data..
-    this.setInDevCache(key, entry.data, entry.ttlSecs);
+    // (entries with a soft TTL are refreshed by revalidation instead)
+    if (extendTtl) {
+      this.setInDevCache(key, entry.data, entry.ttlSecs);
+    }
 
-    console.log('📦 Dev cache hit:', key);
-    return entry.data as T;
+    log.debug('Dev cache hit', { key });
+    return hit;
   }
 
   private setInDevCache<T>(key: string, data: T, ttlSecs: number): void {
     if (!this.shouldUseDevCache() || !this.isDevCacheLoaded) return;
 
     const section = this.getDevCacheSection(key);
-    this.devCacheData[section][key] = {
-      data,
-      timestamp: Date.now(),
-      ttlSecs,
-    };
+    const isNew = !(key in this.devCacheData[section]);
+    const entry = { data, timestamp: Date.now(), ttlSecs };
+    this.devCacheData[section][key] = entry;
 
-    console.log('💾 Dev cache set:', key);
-    this.saveDevCache();
+    log.debug('Dev cache set', { key });
+    this.devCacheLog.set(key, entry, isNew);
   }
 
-  private getFromProdCache<T>(key: string): T | null {
+  private getFromProdCache<T>(key: string, ttlSecs: number): CacheHit<T> | null {
     const cached = local.get<T>(key);
     if (cached) {
-      console.log('📦 Production cache hit:', key);
-      return cached;
+      log.debug('Production cache hit', { key });
+      // NodeCache only tracks the expiry time, so derive when it was stored
+      const expiresAt = local.getTtl(key);
+      const storedAt = expiresAt ? expiresAt - ttlSecs * 1000 : Date.now();
+      return { data: cached, storedAt };
     }
     return null;
   }
 
   private setInProdCache<T>(key: string, data: T, ttlSecs: number): void {
     local.set(key, data, ttlSecs);
-    console.log('💾 Production cache set:', key);
+    log.debug('Production cache set', { key });
   }
 
   /**
@@ -148,7 +261,7 @@ class UnifiedCache {
     // This is just to ensure it's properly configured
     if (local.options && local.options.checkperiod === undefined) {
       // If checkperiod isn't set, we'll recreate the cache with proper settings
-      console.log('⚙️ Configuring production cache TTL settings');
+      log.info('Configuring production cache TTL settings');
 
       // NodeCache's checkperiod is in seconds
       // Default to checking every 10 seconds if not already configured
@@ -156,9 +269,7 @@ class UnifiedCache {
 
       // We can't modify the existing NodeCache instance directly,
       // but we can ensure it's properly configured in local.ts
-      console.log(
-        `ℹ️ Production cache will check for expired items every ${checkPeriod} seconds`
-      );
+      log.info('Production cache will check for expired items periodically', { checkPeriodSecs: checkPeriod });
     }
   }
 
@@ -168,7 +279,7 @@ class UnifiedCache {
   private async cleanupExpiredDevCache(): Promise<void> {
     if (!this.shouldUseDevCache() || !this.isDevCacheLoaded) return;
 
-    console.log('Cleaning up expired dev cache...');
+    log.debug('Cleaning up expired dev cache');
 
     const now = Date.now();
     let expiredCount = 0;
@@ -182,22 +293,18 @@ class UnifiedCache {
 
         if (now > expiresAt) {
           delete this.devCacheData[section][key];
+          this.devCacheLog.delete(key);
           expiredCount++;
           hasChanges = true;
         }
       });
     });
 
-    // Only save if we actually removed something
+    // Deletes are already queued on the log; flush them with this batch
     if (hasChanges) {
-      console.log(
-        `🧹 Async cleanup removed ${expiredCount} expired entries from dev cache`
-      );
-
-      // Use setTimeout to make the file write non-blocking
-      setTimeout(() => {
-        this.saveDevCache();
-      }, 0);
+      log.info('Removed expired dev cache entries', { expired: expiredCount });
+
+      await this.devCacheLog.flush();
     }
   }
 
@@ -213,62 +320,281 @@ class UnifiedCache {
     // Set up the new interval
     this.cleanupInterval = setInterval(() => {
       this.cleanupExpiredDevCache().catch((err) => {
-        console.error('❌ Error during async cache cleanup:', err);
+        log.error('Error during async cache cleanup', { error: err });
       });
     }, this.CLEANUP_INTERVAL_MS);
 
-    console.log(
-      `🔄 Started periodic cache cleanup (every ${this.CLEANUP_INTERVAL_MS / 1000} seconds)`
-    );
+    log.info('Started periodic cache cleanup', { intervalMs: this.CLEANUP_INTERVAL_MS });
   }
 
   async get<T>(
     key: string,
     ttlSecs: number,
-    fetcher: () => Promise<T>
+    fetcher: () => Promise<T>,
+    options: CacheOptions = {}
   ): Promise<T> {
     if (!this.isCachingEnabled()) {
       const data = await fetcher();
       return data;
     }
 
+    const { softTtlSecs } = options;
+    const section = sectionFor(key);
+
     // 1️⃣ Try appropriate cache first
-    let cached: T | null = null;
+    let cached: CacheHit<T> | null = null;
 
     if (this.shouldUseDevCache()) {
-      cached = this.getFromDevCache<T>(key);
+      cached = this.getFromDevCache<T>(key, softTtlSecs === undefined);
     } else {
-      cached = this.getFromProdCache<T>(key);
+      cached = this.getFromProdCache<T>(key, ttlSecs);
+    }
+
+    if (cached) {
+      if (isNegativeEntry(cached.data)) {
+        this.fetchStats.negativeHits++;
+        cacheLookups.inc({ section, result: 'negative' });
+        throw this.notFound(key, cached.data.statusCode);
+      }
+
+      // Past the soft TTL: serve the stale value now and refresh it behind the response
+      if (
+        softTtlSecs !== undefined &&
+        Date.now() - cached.storedAt > softTtlSecs * 1000
+      ) {
+        this.fetchStats.staleServed++;
+        cacheLookups.inc({ section, result: 'stale' });
+        this.revalidate(key, ttlSecs, fetcher, softTtlSecs);
+      } else {
+        cacheLookups.inc({ section, result: 'hit' });
+      }
+      return cached.data;
+    }
+
+    // 2️⃣ Cache miss - join an in-flight fetch for this key if there is one
+    const pending = this.inFlight.get(key) as Promise<T> | undefined;
+    if (pending) {
+      this.fetchStats.coalesced++;
+      cacheLookups.inc({ section, result: 'coalesced' });
+      log.debug('Joining in-flight fetch', { key });
+      return pending;
     }
 
-    if (cached) return cached;
+    this.fetchStats.originated++;
+    cacheLookups.inc({ section, result: 'miss' });
+    return this.startFetch(key, ttlSecs, fetcher);
+  }
+
+  private notFound(key: string, statusCode: number): CustomError {
+    return new CustomError(`Not found upstream: ${key}`, statusCode);
+  }
+
+  /**
+   * Refresh a stale entry in the background. At most one refresh runs per key;
+   * on failure the stale value stays in place until its hard TTL.
+   */
+  private revalidate<T>(
+    key: string,
+    ttlSecs: number,
+    fetcher: () => Promise<T>,
+    softTtlSecs: number
+  ): void {
+    if (this.inFlight.has(key)) return;
+
+    log.debug('Serving stale entry, revalidating', { key });
+    // Another instance may already have refreshed it in the shared tier
+    this.startFetch(key, ttlSecs, fetcher, softTtlSecs).then(
+      () => {
+        this.fetchStats.revalidated++;
+      },
+      (error) => {
+        this.fetchStats.revalidateFailed++;
+        log.warn('Background revalidation failed', { key, error });
+      }
+    );
+  }
+
+  private startFetch<T>(
+    key: string,
+    ttlSecs: number,
+    fetcher: () => Promise<T>,
+    sharedMaxAgeSecs?: number
+  ): Promise<T> {
+    const request = this.fetchAndStore(key, ttlSecs, fetcher, sharedMaxAgeSecs).finally(() => {
+      this.inFlight.delete(key);
+    });
+    this.inFlight.set(key, request);
+    return request;
+  }
+
+  private async fetchAndStore<T>(
+    key: string,
+    ttlSecs: number,
+    fetcher: () => Promise<T>,
+    sharedMaxAgeSecs?: number
+  ): Promise<T> {
+    // 2️⃣ Shared tier before going upstream
+    const shared = await this.getFromSharedCache<T | NegativeEntry>(key);
+    if (
+      shared &&
+      (sharedMaxAgeSecs === undefined ||
+        Date.now() - shared.storedAt <= sharedMaxAgeSecs * 1000)
+    ) {
+      const remainingSecs = ttlSecs - (Date.now() - shared.storedAt) / 1000;
+      this.storeLocally(key, shared.data, Math.max(1, Math.floor(remainingSecs)));
+
+      if (isNegativeEntry(shared.data)) {
+        this.fetchStats.negativeHits++;
+        throw this.notFound(key, shared.data.statusCode);
+      }
+      return shared.data;
+    }
 
-    // 2️⃣ Cache miss - fetch fresh data
     const cacheType = this.shouldUseDevCache() ? 'dev' : 'production';
-    console.log(`🌐 ${cacheType} cache miss, fetching:`, key);
+    log.debug('Cache miss, fetching upstream', { key, cache: cacheType });
+
+    let data: T;
+    try {
+      data = await fetcher();
+    } catch (error) {
+      // Remember misses for resources that do not exist upstream
+      if (isNotFoundError(error)) {
+        const negative: NegativeEntry = { __negative: true, statusCode: 404 };
+        this.storeLocally(key, negative, config.negativeCacheTtlSecs);
+        this.setInSharedCache(key, negative, config.negativeCacheTtlSecs);
+        throw this.notFound(key, negative.statusCode);
+      }
+      throw error;
+    }
+
+    // 3️⃣ Store in appropriate cache, writing through to the shared tier
+    this.storeLocally(key, data, ttlSecs);
+    this.setInSharedCache(key, data, ttlSecs);
+
+    return data;
+  }
+
+  /**
+   * Value held locally for a key, without fetching, counting a lookup or
+   * extending its TTL (undefined when absent or remembered as not found)
+   */
+  peek<T>(key: string): T | undefined {
+    if (!this.isCachingEnabled()) return undefined;
+
+    const data = this.shouldUseDevCache()
+      ? this.getFromDevCache<T>(key, false)?.data
+      : local.get<T>(key);
+    return data === undefined || isNegativeEntry(data) ? undefined : data;
+  }
+
+  /**
+   * Replace a cached value directly, e.g. after merging a partial upgrade
+   * into an existing entry. Writes through to the shared tier.
+   */
+  set<T>(key: string, data: T, ttlSecs: number): void {
+    if (!this.isCachingEnabled()) return;
+
+    this.storeLocally(key, data, ttlSecs);
+    this.setInSharedCache(key, data, ttlSecs);
+  }
+
+  /**
+   * Serialised (and lazily compressed) response body for a value returned by
+   * the cache. Built once per cached object, so repeat hits write the stored
+   * bytes instead of stringifying the payload again. A replaced entry is a new
+   * object and gets a new body.
+   */
+  encoded<T>(data: T, encode: (data: T) => EncodedBody): EncodedBody {
+    if (!config.cacheEncodedBodies || typeof data !== 'object' || data === null) {
+      return encode(data);
+    }
+
+    let body = this.encodings.get(data);
+    if (body) {
+      this.fetchStats.encodedReused++;
+      return body;
+    }
 
-    const data = await fetcher();
+    body = encode(data);
+    this.encodings.set(data, body);
+    this.fetchStats.encodedBuilt++;
+    return body;
+  }
 
-    // 3️⃣ Store in appropriate cache
+  private storeLocally<T>(key: string, data: T, ttlSecs: number): void {
     if (this.shouldUseDevCache()) {
       this.setInDevCache(key, data, ttlSecs);
     } else {
       this.setInProdCache(key, data, ttlSecs);
     }
+  }
 
-    return data;
+  private async getFromSharedCache<T>(key: string): Promise<CacheHit<T> | null> {
+    if (!this.sharedStore) return null;
+
+    try {
+      const raw = await this.sharedStore.get(key);
+      if (raw === null) {
+        this.fetchStats.sharedMisses++;
+        return null;
+      }
+
+      this.fetchStats.sharedHits++;
+      log.debug('Shared cache hit', { key });
+      return JSON.parse(raw) as CacheHit<T>;
+    } catch (error) {
+      // A slow or unavailable shared tier is treated as a miss
+      this.fetchStats.sharedErrors++;
+      log.warn('Shared cache read failed', { key, error });
+      return null;
+    }
+  }
+
+  private setInSharedCache<T>(key: string, data: T, ttlSecs: number): void {
+    if (!this.sharedStore) return;
+
+    const entry: CacheHit<T> = { data, storedAt: Date.now() };
+    this.sharedStore.set(key, JSON.stringify(entry), ttlSecs).catch((error) => {
+      this.fetchStats.sharedErrors++;
+      log.warn('Shared cache write failed', { key, error });
+    });
+  }
+
+  /**
+   * Counters for upstream fetches: how many were started by a cache miss,
+   * how many misses joined one already in flight, how stale hits were
+   * revalidated in the background, and shared tier / negative cache hits
+   */
+  getFetchStats(): FetchStats & { inFlight: number } {
+    const stats = { ...this.fetchStats };
+    for (const name of Object.keys(stats) as Array<keyof FetchStats>) {
+      stats[name] -= this.fetchStatsBaseline[name];
+    }
+    return { ...stats, inFlight: this.inFlight.size };
+  }
+
+  /**
+   * Fetch counters since startup, unaffected by resetFetchStats
+   */
+  getFetchTotals(): FetchStats {
+    return { ...this.fetchStats };
+  }
+
+  resetFetchStats(): void {
+    this.fetchStatsBaseline = { ...this.fetchStats };
   }
 
   // Dev cache management methods
-  clearDevCache(): void {
+  async clearDevCache(): Promise<void> {
     this.devCacheData = { nearby: {}, details: {}, photos: {} };
     try {
-      if (fs.existsSync(this.devCacheFilePath)) {
-        fs.unlinkSync(this.devCacheFilePath);
-        console.log('🗑️ Dev cache cleared');
+      await this.devCacheLog.clear();
+      if (fs.existsSync(this.legacyDevCacheFilePath)) {
+        await fs.promises.unlink(this.legacyDevCacheFilePath);
       }
+      log.info('Dev cache cleared');
     } catch (error) {
-      console.error('❌ Error clearing dev cache:', error);
+      log.error('Error clearing dev cache', { error });
     }
   }
 
@@ -305,7 +631,7 @@ class UnifiedCache {
       validEntries: totalValid,
       expiredEntries: totalExpired,
       breakdown,
-      filePath: this.devCacheFilePath,
+      directory: this.devCacheLog.directory,
     };
   }
 
@@ -317,7 +643,7 @@ class UnifiedCache {
     if (this.cleanupInterval) {
       clearInterval(this.cleanupInterval);
       this.cleanupInterval = null;
-      console.log('⏹️ Stopped periodic cache cleanup');
+      log.info('Stopped periodic cache cleanup');
     }
   }
 
@@ -332,18 +658,18 @@ class UnifiedCache {
   }> {
     // Only run in development mode
     if (!this.shouldUseDevCache()) {
-      console.log('⚠️ Cache cleanup test can only run in development mode');
+      log.warn('Cache cleanup test can only run in development mode');
       return { added: 0, expired: 0, remaining: 0 };
     }
 
-    console.log('🧪 Testing async cache cleanup...');
+    log.info('Testing async cache cleanup');
 
     // Add some test entries with different TTLs
     const testEntries = 10;
     const expiredEntries = 5;
 
     // Clear existing entries first
-    this.devCacheData = { nearby: {}, details: {}, photos: {} };
+    await this.clearDevCache();
 
     // Add test entries - half of them with expired TTL
     for (let i = 0; i < testEntries; i++) {
@@ -355,24 +681,24 @@ class UnifiedCache {
         i % 3 === 0 ? 'nearby' : i % 3 === 1 ? 'details' : 'photos';
       const key = `test:${section}:${i}`;
 
-      this.devCacheData[section][key] = {
+      const entry = {
         data: { testId: i, value: `Test value ${i}` },
         timestamp: timestamp,
         ttlSecs: ttl,
       };
+      this.devCacheData[section][key] = entry;
+      this.devCacheLog.set(key, entry, true);
     }
 
-    console.log(
-      `🧪 Added ${testEntries} test entries (${expiredEntries} expired)`
-    );
+    log.info('Added test entries', { added: testEntries, expired: expiredEntries });
 
     // Save the test data
-    this.saveDevCache();
+    await this.devCacheLog.flush();
 
     // Run the cleanup process manually
-    console.time('Cleanup Duration');
+    const cleanupStartedAt = Date.now();
     await this.cleanupExpiredDevCache();
-    console.timeEnd('Cleanup Duration');
+    log.info('Cleanup finished', { durationMs: Date.now() - cleanupStartedAt });
 
     // Count remaining entries
     let remainingEntries = 0;
@@ -386,9 +712,7 @@ class UnifiedCache {
       remaining: remainingEntries,
     };
 
-    console.log(
-      `🧪 Test results: ${result.expired} entries expired, ${result.remaining} entries remaining`
-    );
+    log.info('Cache cleanup test results', result);
 
     return result;
   }
@@ -401,7 +725,8 @@ export const cache = new UnifiedCache();
 export async function withCache<T>(
   key: string,
   ttlSecs: number,
-  fetcher: () => Promise<T>
+  fetcher: () => Promise<T>,
+  options?: CacheOptions
 ): Promise<T> {
-  return cache.get(key, ttlSecs, fetcher);
+  return cache.get(key, ttlSecs, fetcher, options);
 }
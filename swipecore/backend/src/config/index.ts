@@ -4,6 +4,8 @@ load();
 
 export const config = {
   cacheTtlDays: Number(process.env.CACHE_TTL_DAYS) || 1,
+  // Entries older than this are served stale while refreshed in the background
+  cacheSoftTtlHours: Number(process.env.CACHE_SOFT_TTL_HOURS) || 6,
 
   // Server config
   port: Number(process.env.PORT) || 4000,
@@ -14,6 +16,59 @@ export const config = {
   // Dev cache settings (file-based caching for development)
   useDevCache: process.env.USE_DEV_CACHE !== 'false', // Enabled by default in dev
   cacheFeatureEnabled: process.env.ENABLE_CACHE_FEATURE !== 'false',
+  // Keep the serialised response body next to cached payloads
+  cacheEncodedBodies: process.env.CACHE_ENCODED_BODIES !== 'false',
+  // Snap nearby searches onto geohash tiles so nearby users share cache entries
+  nearbyTilesEnabled: process.env.ENABLE_NEARBY_TILES !== 'false',
+
+  // Shared L2 cache (any Redis-protocol server), e.g. redis://host:6379/0
+  sharedCacheUrl: process.env.SHARED_CACHE_URL || '',
+  // How long "not found" upstream responses are remembered
+  negativeCacheTtlSecs: Number(process.env.NEGATIVE_CACHE_TTL_SECS) || 300,
+
+  // Places API client: one keep-alive pool and concurrency cap shared by all calls
+  upstreamMaxConcurrency: Number(process.env.UPSTREAM_MAX_CONCURRENCY) || 32,
+  upstreamMaxQueue: Number(process.env.UPSTREAM_MAX_QUEUE) || 200,
+  upstreamIdleTimeoutMs: Number(process.env.UPSTREAM_IDLE_TIMEOUT_MS) || 30000,
+  upstreamTimeoutsMs: {
+    search: Number(process.env.UPSTREAM_TIMEOUT_SEARCH_MS) || 5000,
+    details: Number(process.env.UPSTREAM_TIMEOUT_DETAILS_MS) || 3000,
+    photo: Number(process.env.UPSTREAM_TIMEOUT_PHOTO_MS) || 8000,
+  },
+  // Per-endpoint breakers trip when this share of recent calls failed or ran slow
+  upstreamBreaker: {
+    failureRatio: Number(process.env.UPSTREAM_BREAKER_FAILURE_RATIO) || 0.5,
+    openMs: Number(process.env.UPSTREAM_BREAKER_OPEN_MS) || 10000,
+  },
+  // Send a second copy of requests still running past the endpoint's p95 latency
+  upstreamHedgingEnabled: process.env.UPSTREAM_HEDGING_ENABLED === 'true',
+
+  // Upstream fetches in flight at once for a single details batch request
+  detailsBatchConcurrency: Number(process.env.DETAILS_BATCH_CONCURRENCY) || 4,
+
+  // On-disk store for proxied photo bytes
+  photoStoreDir: process.env.PHOTO_STORE_DIR || 'photo-cache',
+  photoStoreMaxMb: Number(process.env.PHOTO_STORE_MAX_MB) || 512,
+  // ThumbHash placeholders returned with place lists (needs sharp + thumbhash)
+  photoPlaceholders: process.env.PHOTO_PLACEHOLDERS !== 'false',
+  photoPlaceholdersPerPlace: Number(process.env.PHOTO_PLACEHOLDERS_PER_PLACE) || 1,
+
+  // Production in-memory cache budgets per key section, in MB
+  localCacheBudgetMb: {
+    nearby: Number(process.env.LOCAL_CACHE_NEARBY_MB) || 64,
+    details: Number(process.env.LOCAL_CACHE_DETAILS_MB) || 128,
+    photo: Number(process.env.LOCAL_CACHE_PHOTO_MB) || 16,
+    other: Number(process.env.LOCAL_CACHE_OTHER_MB) || 16,
+  },
+
+  // When set, /metrics requires `Authorization: Bearer <token>`
+  metricsToken: process.env.METRICS_TOKEN || '',
+
+  // Logging: debug | info | warn | error | silent; json or pretty output;
+  // LOG_SAMPLE keeps a share of debug/info records per category, e.g. cache=0.01
+  logLevel: process.env.LOG_LEVEL || (process.env.NODE_ENV === 'test' ? 'silent' : 'info'),
+  logFormat: process.env.LOG_FORMAT || (process.env.NODE_ENV === 'development' ? 'pretty' : 'json'),
+  logSample: process.env.LOG_SAMPLE || '',
 
   // Rate limiting
   rateLimitWindowMs: Number(process.env.RATE_LIMIT_WINDOW_MS) || 600000,
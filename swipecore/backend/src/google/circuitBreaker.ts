@@ -0,0 +1,143 @@
+import { CustomError } from '../middleware/errorHandler';
+import { logger } from '../lib/logger';
+
+const log = logger.child('google');
+
+export type CircuitState = 'closed' | 'open' | 'half-open';
+
+export interface CircuitBreakerOptions {
+  // Number of recent calls the trip decision is based on
+  windowSize: number;
+  // Calls needed in the window before the breaker may trip
+  minCalls: number;
+  // Share of failed or slow calls in the window that trips the breaker
+  failureRatio: number;
+  // Calls slower than this count against the breaker even if they succeed
+  slowCallMs: number;
+  // How long the breaker stays open before letting a probe call through
+  openMs: number;
+}
+
+export class CircuitOpenError extends CustomError {
+  constructor(name: string) {
+    super(`Upstream ${name} is unavailable, try again shortly`, 503);
+  }
+}
+
+/**
+ * Sliding window of recent call latencies, used for the hedging delay
+ */
+export class LatencyWindow {
+  private samples: number[] = [];
+  private next = 0;
+
+  constructor(private readonly size: number) {}
+
+  get count(): number {
+    return this.samples.length;
+  }
+
+  record(ms: number): void {
+    if (this.samples.length < this.size) {
+      this.samples.push(ms);
+    } else {
+      this.samples[this.next] = ms;
+    }
+    this.next = (this.next + 1) % this.size;
+  }
+
+  percentile(p: number): number {
+    if (!this.samples.length) return 0;
+    const sorted = [...this.samples].sort((a, b) => a - b);
+    return sorted[Math.min(sorted.length - 1, Math.floor((p / 100) * sorted.length))];
+  }
+}
+
+/**
+ * Count-based circuit breaker that trips on errors and on latency. Once the
+ * share of failed or slow calls among the last `windowSize` calls reaches
+ * `failureRatio`, the breaker opens and calls fail fast for `openMs`. After
+ * that a single probe is let through: if it is good the breaker closes,
+ * otherwise it opens again.
+ */
+export class CircuitBreaker {
+  private state: CircuitState = 'closed';
+  private outcomes: boolean[] = [];
+  private openedAt = 0;
+  private probeInFlight = false;
+  private stats = { opened: 0, rejected: 0 };
+
+  constructor(
+    readonly name: string,
+    private readonly options: CircuitBreakerOptions
+  ) {}
+
+  /**
+   * Reserve a call, or throw CircuitOpenError if the breaker is open
+   */
+  acquire(): void {
+    if (this.state === 'open' && Date.now() - this.openedAt >= this.options.openMs) {
+      this.state = 'half-open';
+    }
+
+    if (this.state === 'closed') return;
+
+    if (this.state === 'half-open' && !this.probeInFlight) {
+      this.probeInFlight = true;
+      return;
+    }
+
+    this.stats.rejected++;
+    throw new CircuitOpenError(this.name);
+  }
+
+  /**
+   * Record the outcome of a call made after acquire()
+   */
+  record(durationMs: number, failed: boolean): void {
+    const bad = failed || durationMs >= this.options.slowCallMs;
+
+    if (this.state === 'half-open') {
+      this.probeInFlight = false;
+      if (bad) {
+        this.open();
+      } else {
+        this.state = 'closed';
+        this.outcomes = [];
+      }
+      return;
+    }
+
+    // Late results from calls started before the breaker opened
+    if (this.state === 'open') return;
+
+    this.outcomes.push(bad);
+    if (this.outcomes.length > this.options.windowSize) {
+      this.outcomes.shift();
+    }
+
+    if (this.outcomes.length >= this.options.minCalls) {
+      const badCalls = this.outcomes.filter(Boolean).length;
+      if (badCalls / this.outcomes.length >= this.options.failureRatio) {
+        this.open();
+      }
+    }
+  }
+
+  getStats() {
+    return {
+      state: this.state,
+      windowCalls: this.outcomes.length,
+      windowBadCalls: this.outcomes.filter(Boolean).length,
+      ...this.stats,
+    };
+  }
+
+  private open(): void {
+    log.warn('Circuit opened for upstream endpoint', { endpoint: this.name });
+    this.state = 'open';
+    this.openedAt = Date.now();
+    this.outcomes = [];
+    this.stats.opened++;
+  }
+}
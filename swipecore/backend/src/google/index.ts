@@ -1,2 +1,2 @@
 // Export the live client directly - dev caching is handled internally
-export { nearby, details, photo, nearbyAdvanced as textSearch } from './liveClient';
\ No newline at end of file
+export { nearby, details, photo, photoMedia, nearbyAdvanced as textSearch } from './liveClient';
\ No newline at end of file
@@ -5,6 +5,10 @@ export const hash = (s: string) => crypto.createHash('sha1').update(s).digest('h
 
 export const nearbyKey = (p: NearbySearchParams) => `nearby:${hash(JSON.stringify(p))}`;
 
+// Nearby results cached per geohash tile, shared by every request the tile covers
+export const nearbyTileKey = (geohash: string, type?: string) =>
+  `nearby:tile:${geohash}:${type || 'all'}`;
+
 export const textSearchKey = (p: TextSearchParams) => `textSearch:${hash(JSON.stringify(p))}`;
 
 export const detailsKey = (id: string) => `details:${id}`;
\ No newline at end of file
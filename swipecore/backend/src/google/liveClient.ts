@@ -1,57 +1,262 @@
-import axios from 'axios';
-import { withCache } from '../cache';
-import { nearbyKey, detailsKey, textSearchKey } from './key';
+import { withCache, cache, photoStore, StoredPhoto } from '../cache';
+import { nearbyKey, nearbyTileKey, detailsKey, textSearchKey } from './key';
+import { coveringTiles, distanceMeters, NEARBY_RESULT_COUNT } from './tiles';
+import { upstreamRequest } from './upstream';
 import { config } from '../config';
-import { NearbySearchParams, TextSearchParams } from '../types/places';
+import {
+  DetailsTier,
+  NearbySearchParams,
+  PlaceBasic,
+  PlaceDetails,
+  TextSearchParams,
+} from '../types/places';
 
-const base = 'https://places.googleapis.com/v1';
+// Hot entries are served from cache past the soft TTL while refreshed in the background
+const cacheOptions = { softTtlSecs: config.cacheSoftTtlHours * 3600 };
 
-export async function nearby(p: NearbySearchParams) {
-  return withCache(nearbyKey(p), config.cacheTtlDays * 86400, async () => {
-    const requestBody = {
-      includedTypes: p.type ? [p.type] : undefined,
-      maxResultCount: 20,
-      locationRestriction: {
-        circle: {
-          center: {
-            latitude: p.lat,
-            longitude: p.lng,
-          },
-          radius: p.radius,
+interface NearbyResponse {
+  places?: PlaceBasic[];
+}
+
+async function searchNearby(
+  center: { lat: number; lng: number },
+  radius: number,
+  type?: string
+): Promise<NearbyResponse> {
+  const requestBody = {
+    includedTypes: type ? [type] : undefined,
+    maxResultCount: NEARBY_RESULT_COUNT,
+    locationRestriction: {
+      circle: {
+        center: {
+          latitude: center.lat,
+          longitude: center.lng,
         },
+        radius,
       },
-      languageCode: 'en',
-    };
+    },
+    languageCode: 'en',
+  };
 
-    const response = await axios.post(
-      `${base}/places:searchNearby`,
-      requestBody,
-      {
-        headers: {
-          'Content-Type': 'application/json',
-          'X-Goog-Api-Key': config.googlePlacesApiKey,
-          'X-Goog-FieldMask':
-            'places.id,places.displayName,places.formattedAddress,places.rating,places.priceLevel,places.photos,places.types,places.location,places.regularOpeningHours.openNow',
-        },
-      }
+  const response = await upstreamRequest<NearbyResponse>('nearby', {
+    method: 'POST',
+    url: '/places:searchNearby',
+    data: requestBody,
+    headers: {
+      'Content-Type': 'application/json',
+      'X-Goog-FieldMask':
+        'places.id,places.displayName,places.formattedAddress,places.rating,places.priceLevel,places.photos,places.types,places.location,places.regularOpeningHours.openNow',
+    },
+  });
+
+  return response.data;
+}
+
+export async function nearby(p: NearbySearchParams): Promise<NearbyResponse> {
+  const ttlSecs = config.cacheTtlDays * 86400;
+  const tiles = config.nearbyTilesEnabled
+    ? coveringTiles(p.lat, p.lng, p.radius)
+    : null;
+
+  // Circles that tile poorly are cached per exact request, as before
+  if (!tiles) {
+    return withCache(
+      nearbyKey(p),
+      ttlSecs,
+      () => searchNearby({ lat: p.lat, lng: p.lng }, p.radius, p.type),
+      cacheOptions
     );
+  }
 
-    return response.data;
-  });
+  const tileResults = await Promise.all(
+    tiles.map((tile) =>
+      withCache(
+        nearbyTileKey(tile.geohash, p.type),
+        ttlSecs,
+        () => searchNearby(tile.center, tile.radius, p.type),
+        cacheOptions
+      )
+    )
+  );
+
+  return mergedNearby(tileResults, p);
 }
 
-export async function details(id: string) {
-  return withCache(detailsKey(id), config.cacheTtlDays * 86400, async () => {
-    const response = await axios.get(`${base}/places/${id}`, {
-      headers: {
-        'X-Goog-Api-Key': config.googlePlacesApiKey,
-        'X-Goog-FieldMask':
-          'id,displayName,formattedAddress,rating,priceLevel,photos,types,location,nationalPhoneNumber,internationalPhoneNumber,websiteUri,regularOpeningHours,reviews,editorialSummary',
+// Merged results per request, remembered against the tile entries they came
+// from so repeat searches return the same object (and its encoded body)
+const mergesByTile = new WeakMap<NearbyResponse, Map<string, { tiles: NearbyResponse[]; merged: NearbyResponse }>>();
+const MAX_MERGES_PER_TILE = 64;
+
+function mergedNearby(tileResults: NearbyResponse[], p: NearbySearchParams): NearbyResponse {
+  const anchor = tileResults[0];
+  if (typeof anchor !== 'object' || anchor === null) {
+    return { places: mergeTilePlaces(tileResults, p) };
+  }
+
+  let merges = mergesByTile.get(anchor);
+  if (!merges) {
+    merges = new Map();
+    mergesByTile.set(anchor, merges);
+  }
+
+  const requestKey = nearbyKey(p);
+  const memo = merges.get(requestKey);
+  if (memo && memo.tiles.every((tile, i) => tile === tileResults[i])) {
+    return memo.merged;
+  }
+
+  const merged = { places: mergeTilePlaces(tileResults, p) };
+  merges.delete(requestKey);
+  merges.set(requestKey, { tiles: tileResults, merged });
+  if (merges.size > MAX_MERGES_PER_TILE) {
+    merges.delete(merges.keys().next().value as string);
+  }
+  return merged;
+}
+
+/**
+ * Merge the places of the covering tiles, dropping duplicates and anything
+ * outside the requested circle. Tiles are interleaved by upstream rank, so
+ * the result keeps the relevance order of the searches it came from.
+ */
+function mergeTilePlaces(
+  tileResults: NearbyResponse[],
+  p: NearbySearchParams
+): PlaceBasic[] {
+  const center = { lat: p.lat, lng: p.lng };
+  const seen = new Set<string>();
+  const merged: PlaceBasic[] = [];
+  const longest = Math.max(...tileResults.map((result) => result?.places?.length || 0));
+
+  for (let rank = 0; rank < longest; rank++) {
+    for (const result of tileResults) {
+      const place = result?.places?.[rank];
+      if (!place || seen.has(place.id) || !place.location) continue;
+      seen.add(place.id);
+
+      const distance = distanceMeters(center, {
+        lat: place.location.latitude,
+        lng: place.location.longitude,
+      });
+      if (distance <= p.radius) {
+        merged.push(place);
+      }
+    }
+  }
+
+  return merged;
+}
+
+// Field groups behind each details tier; a tier needs its own group and all below it
+const DETAILS_FIELD_GROUPS: Record<DetailsTier, string[]> = {
+  basic: ['id', 'displayName', 'formattedAddress', 'rating', 'priceLevel', 'photos', 'types', 'location'],
+  contact: ['nationalPhoneNumber', 'internationalPhoneNumber', 'websiteUri', 'regularOpeningHours'],
+  atmosphere: ['reviews', 'editorialSummary'],
+};
+
+const DETAILS_TIERS: DetailsTier[] = ['basic', 'contact', 'atmosphere'];
+
+// Cached per place: the merged fields and which groups have been fetched
+interface DetailsEntry {
+  groups: DetailsTier[];
+  place: Partial<PlaceDetails>;
+}
+
+// In-flight upgrade per place id
+const pendingUpgrades = new Map<string, Promise<DetailsEntry>>();
+
+const groupsForTier = (tier: DetailsTier) =>
+  DETAILS_TIERS.slice(0, DETAILS_TIERS.indexOf(tier) + 1);
+
+// Entries written before tiers existed hold the full place object
+const toDetailsEntry = (cached: any): DetailsEntry =>
+  Array.isArray(cached?.groups) && cached.place
+    ? cached
+    : { groups: [...DETAILS_TIERS], place: cached };
+
+async function fetchDetailsGroups(
+  id: string,
+  groups: DetailsTier[]
+): Promise<Partial<PlaceDetails>> {
+  const fields = new Set(['id']);
+  groups.forEach((group) => DETAILS_FIELD_GROUPS[group].forEach((field) => fields.add(field)));
+
+  // Google bills a details call by the richest field group in its mask
+  const sku = `details_${groups[groups.length - 1]}`;
+
+  const response = await upstreamRequest<Partial<PlaceDetails>>('details', {
+    method: 'GET',
+    url: `/places/${id}`,
+    headers: {
+      'X-Goog-FieldMask': Array.from(fields).join(','),
+    },
+  }, sku);
+
+  return response.data;
+}
+
+/**
+ * Place details up to the requested tier. The cache keeps whatever groups
+ * have been fetched for a place; a request for a higher tier fetches only the
+ * missing groups (a cheaper field mask) and merges them into the entry.
+ */
+export async function details(
+  id: string,
+  tier: DetailsTier = 'atmosphere'
+): Promise<Partial<PlaceDetails>> {
+  const ttlSecs = config.cacheTtlDays * 86400;
+  const needed = groupsForTier(tier);
+  const key = detailsKey(id);
+
+  let entry = toDetailsEntry(
+    await withCache(
+      key,
+      ttlSecs,
+      async (): Promise<DetailsEntry> => {
+        // A background refresh keeps every group the stale entry has
+        const current = cache.peek<DetailsEntry>(key);
+        const groups = current
+          ? DETAILS_TIERS.filter(
+              (group) => needed.includes(group) || toDetailsEntry(current).groups.includes(group)
+            )
+          : needed;
+        return { groups, place: await fetchDetailsGroups(id, groups) };
       },
-    });
+      cacheOptions
+    )
+  );
 
-    return response.data;
-  });
+  // Upgrades of a place run one at a time, so each merges into the entry
+  // the previous one left; callers needing more start their own after it
+  for (;;) {
+    const missing = needed.filter((group) => !entry.groups.includes(group));
+    if (!missing.length) {
+      return entry.place;
+    }
+
+    const pending = pendingUpgrades.get(id);
+    if (pending) {
+      entry = await pending;
+      continue;
+    }
+
+    const base = entry;
+    const upgrade = fetchDetailsGroups(id, missing)
+      .then((fields) => {
+        const current = toDetailsEntry(cache.peek<DetailsEntry>(key) ?? base);
+        const merged: DetailsEntry = {
+          groups: DETAILS_TIERS.filter(
+            (group) => current.groups.includes(group) || missing.includes(group)
+          ),
+          place: { ...current.place, ...fields },
+        };
+        cache.set(key, merged, ttlSecs);
+        return merged;
+      })
+      .finally(() => pendingUpgrades.delete(id));
+    pendingUpgrades.set(id, upgrade);
+    entry = await upgrade;
+  }
 }
 
 export async function photo(
@@ -64,12 +269,9 @@ export async function photo(
   return withCache(photoKey, config.cacheTtlDays * 86400, async () => {
     // photoReference is the full path like "places/{place_id}/photos/{photo_name}"
     // Google Places API (New) format: https://places.googleapis.com/v1/{name=places/*/photos/*}/media
-    const photoUrl = `${base}/${photoReference}/media`;
-
-    const response = await axios.get(photoUrl, {
-      headers: {
-        'X-Goog-Api-Key': config.googlePlacesApiKey,
-      },
+    const response = await upstreamRequest('photo', {
+      method: 'GET',
+      url: `/${photoReference}/media`,
       params: {
         maxHeightPx: maxHeight,
         maxWidthPx: maxWidth,
@@ -79,7 +281,60 @@ export async function photo(
 
     // The response should contain the photoUri
     return response.data.photoUri || response.request.res.responseUrl;
-  });
+  }, cacheOptions);
+}
+
+// Refetches of evicted photo blobs in flight, by media key
+const pendingRefetches = new Map<string, Promise<StoredPhoto>>();
+
+/**
+ * Photo bytes proxied through the backend. The bytes are fetched from Google
+ * once and kept in the on-disk photo store; the cache maps the photo
+ * reference and size to the stored blob. If the blob was evicted from disk
+ * since, it is fetched again.
+ */
+export async function photoMedia(
+  photoReference: string,
+  maxWidth: number = 400,
+  maxHeight: number = 400
+): Promise<StoredPhoto> {
+  const mediaKey = `photo:media:${photoReference}:${maxWidth}:${maxHeight}`;
+  const ttlSecs = config.cacheTtlDays * 86400;
+
+  const fetchBytes = async (): Promise<StoredPhoto> => {
+    const response = await upstreamRequest<ArrayBuffer>('photoMedia', {
+      method: 'GET',
+      url: `/${photoReference}/media`,
+      params: {
+        maxHeightPx: maxHeight,
+        maxWidthPx: maxWidth,
+      },
+      responseType: 'arraybuffer',
+    });
+
+    return photoStore.put(
+      Buffer.from(response.data),
+      response.headers['content-type'] || 'image/jpeg'
+    );
+  };
+
+  const stored = await withCache(mediaKey, ttlSecs, fetchBytes);
+  if (photoStore.has(stored.hash)) {
+    return stored;
+  }
+
+  // Requests finding the same evicted blob share one refetch
+  let refetch = pendingRefetches.get(mediaKey);
+  if (!refetch) {
+    refetch = fetchBytes()
+      .then((refetched) => {
+        cache.set(mediaKey, refetched, ttlSecs);
+        return refetched;
+      })
+      .finally(() => pendingRefetches.delete(mediaKey));
+    pendingRefetches.set(mediaKey, refetch);
+  }
+  return refetch;
 }
 
 export async function nearbyAdvanced(p: TextSearchParams) {
@@ -104,19 +359,17 @@ export async function nearbyAdvanced(p: TextSearchParams) {
       };
     }
 
-    const response = await axios.post(
-      `${base}/places:searchText`,
-      requestBody,
-      {
-        headers: {
-          'Content-Type': 'application/json',
-          'X-Goog-Api-Key': config.googlePlacesApiKey,
-          'X-Goog-FieldMask':
-            'places.id,places.displayName,places.formattedAddress,places.rating,places.priceLevel,places.photos,places.types,places.location,places.regularOpeningHours.openNow',
-        },
-      }
-    );
+    const response = await upstreamRequest('textSearch', {
+      method: 'POST',
+      url: '/places:searchText',
+      data: requestBody,
+      headers: {
+        'Content-Type': 'application/json',
+        'X-Goog-FieldMask':
+          'places.id,places.displayName,places.formattedAddress,places.rating,places.priceLevel,places.photos,places.types,places.location,places.regularOpeningHours.openNow',
+      },
+    });
 
     return response.data;
-  });
+  }, cacheOptions);
 }
@@ -0,0 +1,200 @@
+// Geohash tiling for nearby searches.
+//
+// A nearby request is snapped onto the geohash grid: we pick the finest
+// precision that covers the search circle with at most MAX_TILES cells. Each
+// cell is fetched (and cached) as a circle circumscribing it, and the request
+// is answered by merging the covering cells and filtering by true distance.
+//
+// A tile search returns at most NEARBY_RESULT_COUNT places from its whole
+// circle, so tiles much larger than the search leave few places inside it.
+// Tiling is only used when the covering tiles are expected to yield at least
+// as many places as one exact search; otherwise the caller searches the
+// exact circle.
+
+const BASE32 = '0123456789bcdefghjkmnpqrstuvwxyz';
+const METERS_PER_DEGREE = 111320;
+const EARTH_RADIUS_METERS = 6371000;
+
+// Google Places caps a nearby search circle at 50km
+export const MAX_TILE_RADIUS_METERS = 50000;
+// Places returned by one upstream nearby search (its maxResultCount)
+export const NEARBY_RESULT_COUNT = 20;
+// Upstream searches a cold tiled request may cost
+export const MAX_TILES = 4;
+
+export interface Tile {
+  geohash: string;
+  center: { lat: number; lng: number };
+  // Radius of the circle circumscribing the cell
+  radius: number;
+}
+
+export function encodeGeohash(lat: number, lng: number, precision: number): string {
+  let latMin = -90;
+  let latMax = 90;
+  let lngMin = -180;
+  let lngMax = 180;
+  let hash = '';
+  let bits = 0;
+  let ch = 0;
+  let evenBit = true;
+
+  while (hash.length < precision) {
+    if (evenBit) {
+      const mid = (lngMin + lngMax) / 2;
+      if (lng >= mid) {
+        ch = (ch << 1) | 1;
+        lngMin = mid;
+      } else {
+        ch = ch << 1;
+        lngMax = mid;
+      }
+    } else {
+      const mid = (latMin + latMax) / 2;
+      if (lat >= mid) {
+        ch = (ch << 1) | 1;
+        latMin = mid;
+      } else {
+        ch = ch << 1;
+        latMax = mid;
+      }
+    }
+
+    evenBit = !evenBit;
+    if (++bits === 5) {
+      hash += BASE32[ch];
+      bits = 0;
+      ch = 0;
+    }
+  }
+
+  return hash;
+}
+
+/**
+ * Cell size in degrees at a given geohash precision
+ */
+export function cellSize(precision: number): { latDeg: number; lngDeg: number } {
+  const totalBits = precision * 5;
+  const lngBits = Math.ceil(totalBits / 2);
+  const latBits = Math.floor(totalBits / 2);
+  return {
+    latDeg: 180 / Math.pow(2, latBits),
+    lngDeg: 360 / Math.pow(2, lngBits),
+  };
+}
+
+export function distanceMeters(
+  a: { lat: number; lng: number },
+  b: { lat: number; lng: number }
+): number {
+  const toRad = (deg: number) => (deg * Math.PI) / 180;
+  const dLat = toRad(b.lat - a.lat);
+  const dLng = toRad(b.lng - a.lng);
+  const h =
+    Math.sin(dLat / 2) ** 2 +
+    Math.cos(toRad(a.lat)) * Math.cos(toRad(b.lat)) * Math.sin(dLng / 2) ** 2;
+  return 2 * EARTH_RADIUS_METERS * Math.asin(Math.sqrt(h));
+}
+
+const metersPerLngDegree = (lat: number) =>
+  METERS_PER_DEGREE * Math.max(Math.cos((lat * Math.PI) / 180), 0.01);
+
+// Area shared by two circles whose centers are `d` apart
+function circleOverlapArea(r1: number, r2: number, d: number): number {
+  if (d >= r1 + r2) return 0;
+  if (d <= Math.abs(r1 - r2)) return Math.PI * Math.min(r1, r2) ** 2;
+
+  const a = r1 * r1 * Math.acos((d * d + r1 * r1 - r2 * r2) / (2 * d * r1));
+  const b = r2 * r2 * Math.acos((d * d + r2 * r2 - r1 * r1) / (2 * d * r2));
+  const c = 0.5 * Math.sqrt((-d + r1 + r2) * (d + r1 - r2) * (d - r1 + r2) * (d + r1 + r2));
+  return a + b - c;
+}
+
+/**
+ * Places the tiles are expected to return inside the search circle when
+ * every tile is saturated: each contributes its result count times the share
+ * of its circle that overlaps the search
+ */
+export function expectedTileYield(
+  tiles: Tile[],
+  center: { lat: number; lng: number },
+  radius: number
+): number {
+  return tiles.reduce(
+    (sum, tile) =>
+      sum +
+      (NEARBY_RESULT_COUNT *
+        circleOverlapArea(tile.radius, radius, distanceMeters(tile.center, center))) /
+        (Math.PI * tile.radius ** 2),
+    0
+  );
+}
+
+// Cell index ranges spanned by the circle's bounding box at a precision
+function cellRange(lat: number, lng: number, radius: number, precision: number) {
+  const { latDeg, lngDeg } = cellSize(precision);
+  const latDelta = radius / METERS_PER_DEGREE;
+  const lngDelta = radius / metersPerLngDegree(lat);
+
+  return {
+    latDeg,
+    lngDeg,
+    latStart: Math.floor((lat - latDelta + 90) / latDeg),
+    latEnd: Math.floor((lat + latDelta + 90) / latDeg),
+    lngStart: Math.floor((lng - lngDelta + 180) / lngDeg),
+    lngEnd: Math.floor((lng + lngDelta + 180) / lngDeg),
+  };
+}
+
+/**
+ * Finest geohash precision covering the circle with at most MAX_TILES cells
+ */
+export function precisionForRadius(lat: number, lng: number, radius: number): number {
+  for (let precision = 9; precision > 1; precision--) {
+    const { latStart, latEnd, lngStart, lngEnd } = cellRange(lat, lng, radius, precision);
+    if ((latEnd - latStart + 1) * (lngEnd - lngStart + 1) <= MAX_TILES) return precision;
+  }
+  return 1;
+}
+
+/**
+ * Geohash cells covering the circle, or null when the circle should be
+ * searched exactly instead: a cell would be too large for a single upstream
+ * search, or the tiles would return fewer places inside the circle than an
+ * exact search does
+ */
+export function coveringTiles(lat: number, lng: number, radius: number): Tile[] | null {
+  const latDelta = radius / METERS_PER_DEGREE;
+  const lngDelta = radius / metersPerLngDegree(lat);
+
+  // Circles crossing a pole or the antimeridian are not worth tiling
+  if (lat - latDelta < -90 || lat + latDelta > 90) return null;
+  if (lng - lngDelta < -180 || lng + lngDelta >= 180) return null;
+
+  const precision = precisionForRadius(lat, lng, radius);
+  const { latDeg, lngDeg, latStart, latEnd, lngStart, lngEnd } = cellRange(lat, lng, radius, precision);
+
+  const tiles: Tile[] = [];
+  for (let y = latStart; y <= latEnd; y++) {
+    for (let x = lngStart; x <= lngEnd; x++) {
+      const center = {
+        lat: (y + 0.5) * latDeg - 90,
+        lng: (x + 0.5) * lngDeg - 180,
+      };
+      const corner = { lat: y * latDeg - 90, lng: x * lngDeg - 180 };
+      const tileRadius = Math.ceil(distanceMeters(center, corner));
+      if (tileRadius > MAX_TILE_RADIUS_METERS) return null;
+
+      tiles.push({
+        geohash: encodeGeohash(center.lat, center.lng, precision),
+        center,
+        radius: tileRadius,
+      });
+    }
+  }
+
+  if (expectedTileYield(tiles, { lat, lng }, radius) < NEARBY_RESULT_COUNT) return null;
+
+  return tiles;
+}
@@ -0,0 +1,311 @@
+import https from 'https';
+import axios, { AxiosRequestConfig, AxiosResponse } from 'axios';
+import { config } from '../config';
+import { CustomError } from '../middleware/errorHandler';
+import { CircuitBreaker, CircuitOpenError, LatencyWindow } from './circuitBreaker';
+import { upstreamDuration, upstreamRejected } from '../metrics';
+import { logger } from '../lib/logger';
+
+const log = logger.child('google');
+
+export type UpstreamEndpoint = 'nearby' | 'textSearch' | 'details' | 'photo' | 'photoMedia';
+
+interface EndpointStats {
+  calls: number;
+  errors: number;
+  timeouts: number;
+  totalMs: number;
+  hedges: number;
+  hedgeWins: number;
+}
+
+// Hedging waits for enough samples to know the endpoint's p95
+const HEDGE_MIN_SAMPLES = 20;
+const HEDGE_MIN_DELAY_MS = 20;
+
+// Photo media responses are large image bodies, so they are never hedged
+const HEDGED_ENDPOINTS: UpstreamEndpoint[] = ['nearby', 'textSearch', 'details', 'photo'];
+
+/**
+ * Caps how many upstream calls run at once. Callers beyond the cap wait in a
+ * FIFO queue; once the queue is full too, calls are rejected straight away
+ * rather than piling up behind a slow upstream.
+ */
+export class ConcurrencyLimiter {
+  private active = 0;
+  private queue: Array<() => void> = [];
+  private stats = { peakActive: 0, queued: 0, rejected: 0, totalWaitMs: 0 };
+
+  constructor(
+    private readonly maxConcurrent: number,
+    private readonly maxQueue: number
+  ) {}
+
+  async run<T>(task: () => Promise<T>): Promise<T> {
+    if (this.active < this.maxConcurrent) {
+      this.active++;
+      this.stats.peakActive = Math.max(this.stats.peakActive, this.active);
+    } else {
+      if (this.queue.length >= this.maxQueue) {
+        this.stats.rejected++;
+        throw new CustomError('Upstream is busy, try again shortly', 503);
+      }
+
+      // The finishing task hands its slot over, so `active` is unchanged
+      const queuedAt = Date.now();
+      this.stats.queued++;
+      await new Promise<void>((resolve) => this.queue.push(resolve));
+      this.stats.totalWaitMs += Date.now() - queuedAt;
+    }
+
+    try {
+      return await task();
+    } finally {
+      const next = this.queue.shift();
+      if (next) {
+        next();
+      } else {
+        this.active--;
+      }
+    }
+  }
+
+  get hasCapacity(): boolean {
+    return this.active < this.maxConcurrent;
+  }
+
+  getStats() {
+    return {
+      active: this.active,
+      waiting: this.queue.length,
+      maxConcurrent: this.maxConcurrent,
+      maxQueue: this.maxQueue,
+      ...this.stats,
+    };
+  }
+}
+
+/**
+ * Keep-alive agent shared by every Places call, so requests reuse warm TLS
+ * connections to places.googleapis.com instead of handshaking per miss.
+ * LIFO scheduling keeps traffic on the most recently used sockets and lets
+ * the rest idle out.
+ */
+export const upstreamAgent = new https.Agent({
+  keepAlive: true,
+  keepAliveMsecs: 1000,
+  maxSockets: config.upstreamMaxConcurrency,
+  maxFreeSockets: Math.ceil(config.upstreamMaxConcurrency / 2),
+  timeout: config.upstreamIdleTimeoutMs,
+  scheduling: 'lifo',
+});
+
+const client = axios.create({
+  baseURL: config.placesBaseUrl,
+  httpsAgent: upstreamAgent,
+  headers: {
+    'X-Goog-Api-Key': config.googlePlacesApiKey,
+  },
+});
+
+const limiter = new ConcurrencyLimiter(
+  config.upstreamMaxConcurrency,
+  config.upstreamMaxQueue
+);
+
+const ENDPOINT_TIMEOUTS_MS: Record<UpstreamEndpoint, number> = {
+  nearby: config.upstreamTimeoutsMs.search,
+  textSearch: config.upstreamTimeoutsMs.search,
+  details: config.upstreamTimeoutsMs.details,
+  photo: config.upstreamTimeoutsMs.details,
+  photoMedia: config.upstreamTimeoutsMs.photo,
+};
+
+const endpointStats = {} as Record<UpstreamEndpoint, EndpointStats>;
+const breakers = {} as Record<UpstreamEndpoint, CircuitBreaker>;
+const latencies = {} as Record<UpstreamEndpoint, LatencyWindow>;
+
+(Object.keys(ENDPOINT_TIMEOUTS_MS) as UpstreamEndpoint[]).forEach((endpoint) => {
+  endpointStats[endpoint] = { calls: 0, errors: 0, timeouts: 0, totalMs: 0, hedges: 0, hedgeWins: 0 };
+  // A call taking half its timeout already counts as slow
+  breakers[endpoint] = new CircuitBreaker(endpoint, {
+    windowSize: 50,
+    minCalls: 20,
+    failureRatio: config.upstreamBreaker.failureRatio,
+    slowCallMs: ENDPOINT_TIMEOUTS_MS[endpoint] / 2,
+    openMs: config.upstreamBreaker.openMs,
+  });
+  latencies[endpoint] = new LatencyWindow(200);
+});
+
+// 4xx answers mean the upstream is healthy, so they do not count against the
+// breaker; 429 is Google shedding load and does
+const isUpstreamFailure = (error: unknown): boolean => {
+  const status = axios.isAxiosError(error) ? error.response?.status : undefined;
+  return !status || status >= 500 || status === 429;
+};
+
+/**
+ * Send a request to the Places API through the shared keep-alive client.
+ * `url` is relative to PLACES_BASE_URL; the API key header is added here.
+ * Each endpoint gets its own timeout and circuit breaker, and all endpoints
+ * share one limiter. With hedging enabled, a request still running after the
+ * endpoint's p95 latency is raced against a second copy.
+ */
+export async function upstreamRequest<T = any>(
+  endpoint: UpstreamEndpoint,
+  request: AxiosRequestConfig,
+  sku: string = endpoint
+): Promise<AxiosResponse<T>> {
+  try {
+    const hedgeDelayMs = hedgeDelayFor(endpoint);
+    if (hedgeDelayMs === null) {
+      return await attempt<T>(endpoint, request, sku);
+    }
+    return await hedged<T>(endpoint, request, sku, hedgeDelayMs);
+  } catch (error) {
+    if (error instanceof CircuitOpenError) {
+      upstreamRejected.inc({ endpoint, reason: 'circuit_open' });
+    } else if (error instanceof CustomError && error.statusCode === 503) {
+      upstreamRejected.inc({ endpoint, reason: 'busy' });
+    }
+    throw error;
+  }
+}
+
+function hedgeDelayFor(endpoint: UpstreamEndpoint): number | null {
+  if (!config.upstreamHedgingEnabled || !HEDGED_ENDPOINTS.includes(endpoint)) return null;
+
+  const window = latencies[endpoint];
+  if (window.count < HEDGE_MIN_SAMPLES) return null;
+  return Math.max(HEDGE_MIN_DELAY_MS, window.percentile(95));
+}
+
+function attempt<T>(
+  endpoint: UpstreamEndpoint,
+  request: AxiosRequestConfig,
+  sku: string
+): Promise<AxiosResponse<T>> {
+  const stats = endpointStats[endpoint];
+  const breaker = breakers[endpoint];
+
+  return limiter.run(async () => {
+    // Throws straight away while the circuit is open
+    breaker.acquire();
+
+    const startedAt = Date.now();
+    let outcome = 'ok';
+    stats.calls++;
+    try {
+      const response = await client.request<T>({
+        timeout: ENDPOINT_TIMEOUTS_MS[endpoint],
+        ...request,
+      });
+      latencies[endpoint].record(Date.now() - startedAt);
+      breaker.record(Date.now() - startedAt, false);
+      return response;
+    } catch (error) {
+      // A hedged copy we cancelled ourselves says nothing about upstream health
+      const cancelled = axios.isCancel(error);
+      breaker.record(Date.now() - startedAt, !cancelled && isUpstreamFailure(error));
+
+      outcome = cancelled ? 'cancelled' : 'error';
+      if (!cancelled) {
+        stats.errors++;
+        if (axios.isAxiosError(error) && error.code === 'ECONNABORTED') {
+          stats.timeouts++;
+          outcome = 'timeout';
+        }
+      }
+      throw error;
+    } finally {
+      const durationMs = Date.now() - startedAt;
+      stats.totalMs += durationMs;
+      upstreamDuration.observe({ endpoint, sku, outcome }, durationMs / 1000);
+      log.debug('Upstream request', { endpoint, sku, outcome, durationMs });
+    }
+  });
+}
+
+/**
+ * Race the request against a second copy sent after `delayMs`. The first
+ * success wins and the other copy is aborted; the call only fails once every
+ * copy that was sent has failed. No copy is sent if the limiter is saturated.
+ */
+function hedged<T>(
+  endpoint: UpstreamEndpoint,
+  request: AxiosRequestConfig,
+  sku: string,
+  delayMs: number
+): Promise<AxiosResponse<T>> {
+  const stats = endpointStats[endpoint];
+
+  return new Promise((resolve, reject) => {
+    const controllers: AbortController[] = [];
+    let settled = false;
+    let failures = 0;
+    let firstError: unknown;
+    let hedgeTimer: NodeJS.Timeout | undefined;
+
+    const launch = (isHedge: boolean) => {
+      const controller = new AbortController();
+      controllers.push(controller);
+
+      attempt<T>(endpoint, { ...request, signal: controller.signal }, sku).then(
+        (response) => {
+          if (settled) return;
+          settled = true;
+          clearTimeout(hedgeTimer);
+          if (isHedge) stats.hedgeWins++;
+          controllers.forEach((other) => other !== controller && other.abort());
+          resolve(response);
+        },
+        (error) => {
+          if (settled) return;
+          failures++;
+          firstError = firstError ?? error;
+
+          // Fail once nothing else is in flight or still to be sent
+          if (failures === controllers.length) {
+            settled = true;
+            clearTimeout(hedgeTimer);
+            reject(firstError);
+          }
+        }
+      );
+    };
+
+    launch(false);
+
+    hedgeTimer = setTimeout(() => {
+      if (settled || !limiter.hasCapacity) return;
+      stats.hedges++;
+      launch(true);
+    }, delayMs);
+  });
+}
+
+const countSockets = (sockets: NodeJS.ReadOnlyDict<unknown[]>) =>
+  Object.values(sockets).reduce((sum, list) => sum + (list?.length ?? 0), 0);
+
+export function getUpstreamStats() {
+  const inUse = countSockets(upstreamAgent.sockets);
+
+  return {
+    pool: {
+      inUse,
+      idle: countSockets(upstreamAgent.freeSockets),
+      waitingForSocket: countSockets(upstreamAgent.requests),
+      maxSockets: upstreamAgent.maxSockets,
+      utilisation: inUse / upstreamAgent.maxSockets,
+    },
+    limiter: limiter.getStats(),
+    endpoints: endpointStats,
+    breakers: Object.fromEntries(
+      Object.entries(breakers).map(([endpoint, breaker]) => [
+        endpoint,
+        { ...breaker.getStats(), p95Ms: latencies[endpoint as UpstreamEndpoint].percentile(95) },
+      ])
+    ),
+  };
+}
@@ -9,8 +9,12 @@ import { errorHandler } from './middleware/errorHandler';
 import { placesRouter } from './routes/placesRouter';
 import { otpRouter } from './routes/otpRouter';
 import userProfileRouter from './routes/userProfileRouter';
+import { metricsRouter } from './routes/metricsRouter';
+import { metricsMiddleware } from './metrics';
+import { logger, requestIdMiddleware } from './lib/logger';
+import { config } from './config';
 // Debug: Log environment loading
-console.log('🔧 Environment loaded:', {
+logger.info('Environment loaded', {
   hasApiKey: !!process.env.GOOGLE_PLACES_API_KEY,
   apiKeyLength: process.env.GOOGLE_PLACES_API_KEY?.length || 0,
   nodeEnv: process.env.NODE_ENV,
@@ -31,6 +35,18 @@ const limiter = rateLimit({
   legacyHeaders: false, // Disable the `X-RateLimit-*` headers
 });
 
+// Tag every request with an ID carried by its log records
+app.use(requestIdMiddleware);
+
+// Count and time every request, including rate-limited ones
+app.use(metricsMiddleware);
+
+// Scraped by Prometheus; mounted ahead of the rate limiter, so outside
+// development it is only served behind a bearer token
+if (config.metricsToken || config.nodeEnv === 'development') {
+  app.use('/metrics', metricsRouter);
+}
+
 // Apply rate limiting to all requests
 app.use(limiter);
 
@@ -63,7 +79,8 @@ app.use(
       callback(null, allowedOrigins.includes(origin));
     },
     methods: ['GET', 'POST', 'PUT', 'DELETE'],
-    allowedHeaders: ['Content-Type'],
+    allowedHeaders: ['Content-Type', 'X-Request-Id'],
+    exposedHeaders: ['X-Request-Id'],
     credentials: true,
   })
 );
@@ -99,9 +116,11 @@ app.use(errorHandler);
 
 // Start server
 app.listen(PORT, () => {
-  console.log(`🚀 Server running on port ${PORT}`);
-  console.log(`📊 Health check: http://localhost:${PORT}/health`);
-  console.log(`🌍 Environment: ${process.env.NODE_ENV || 'development'}`);
+  logger.info('Server running', {
+    port: PORT,
+    healthCheck: `http://localhost:${PORT}/health`,
+    environment: process.env.NODE_ENV || 'development',
+  });
 });
 
 export default app;
@@ -0,0 +1,160 @@
+import crypto from 'crypto';
+import zlib from 'zlib';
+import { promisify } from 'util';
+import { Request, Response } from 'express';
+
+const brotliCompress = promisify(zlib.brotliCompress);
+const gzip = promisify(zlib.gzip);
+
+export type ContentEncoding = 'br' | 'gzip';
+
+// Bodies smaller than this are not worth a compression round-trip
+const MIN_COMPRESS_BYTES = 1024;
+
+// Supported encodings in order of preference when the client weighs them equally
+const ENCODINGS: ContentEncoding[] = ['br', 'gzip'];
+
+// Uncompressed bytes of encoded bodies kept for reuse; compressed variants
+// add at most about as much again
+const MAX_CACHED_BYTES = 32 * 1024 * 1024;
+
+/**
+ * A JSON response body serialised once, with its content-hash ETag and
+ * compressed variants produced on first request for each encoding. Brotli
+ * uses a mid quality level: the top levels cost far more CPU than they save
+ * in bytes for dynamic responses.
+ */
+export class EncodedBody {
+  private variants = new Map<ContentEncoding, Promise<Buffer>>();
+
+  constructor(
+    readonly etag: string,
+    readonly identity: Buffer
+  ) {}
+
+  encoded(encoding: ContentEncoding): Promise<Buffer> {
+    let variant = this.variants.get(encoding);
+    if (!variant) {
+      const compressing = (encoding === 'br'
+        ? brotliCompress(this.identity, {
+            params: {
+              [zlib.constants.BROTLI_PARAM_QUALITY]: 5,
+              [zlib.constants.BROTLI_PARAM_SIZE_HINT]: this.identity.length,
+            },
+          })
+        : gzip(this.identity, { level: 6 })
+      );
+      // A failed compression is retried by the next request rather than cached
+      compressing.catch(() => {
+        if (this.variants.get(encoding) === compressing) this.variants.delete(encoding);
+      });
+      this.variants.set(encoding, compressing);
+      variant = compressing;
+    }
+    return variant;
+  }
+}
+
+export const etagFor = (bytes: Buffer | string): string =>
+  `"${crypto.createHash('sha1').update(bytes).digest('base64url')}"`;
+
+// Recently encoded bodies by ETag, least recently used first
+const recent = new Map<string, EncodedBody>();
+let recentBytes = 0;
+
+function remember(body: EncodedBody): EncodedBody {
+  const existing = recent.get(body.etag);
+  if (existing) {
+    recent.delete(body.etag);
+    recent.set(body.etag, existing);
+    return existing;
+  }
+
+  recent.set(body.etag, body);
+  recentBytes += body.identity.length;
+
+  for (const [etag, cached] of recent) {
+    if (recentBytes <= MAX_CACHED_BYTES) break;
+    recent.delete(etag);
+    recentBytes -= cached.identity.length;
+  }
+
+  return body;
+}
+
+/**
+ * Encode `{ success: true, data, ...extra, timestamp }` for the places routes.
+ * The ETag is a hash of the data alone, so identical results share one
+ * encoded body (and its compressed variants); `timestamp` is when that body
+ * was first built.
+ */
+export function encodeSuccess(data: unknown, extra: Record<string, unknown> = {}): EncodedBody {
+  const dataJson = JSON.stringify(data ?? null);
+  const etag = etagFor(dataJson + JSON.stringify(extra));
+
+  const existing = recent.get(etag);
+  if (existing) return remember(existing);
+
+  const json = `{"success":true,"data":${dataJson}${Object.entries(extra)
+    .map(([key, value]) => `,${JSON.stringify(key)}:${JSON.stringify(value)}`)
+    .join('')},"timestamp":"${new Date().toISOString()}"}`;
+
+  return remember(new EncodedBody(etag, Buffer.from(json)));
+}
+
+/**
+ * Pick a supported encoding from an Accept-Encoding header: the one with the
+ * highest q-value, preferring brotli on a tie. Encodings with q=0 are refused,
+ * and `*` covers any supported encoding not listed by name.
+ */
+export function negotiateEncoding(accept: string | undefined): ContentEncoding | null {
+  if (!accept) return null;
+
+  const weights = new Map<string, number>();
+  for (const item of accept.split(',')) {
+    const [coding, ...params] = item.split(';').map((part) => part.trim().toLowerCase());
+    if (!coding) continue;
+    const q = params.find((param) => param.startsWith('q='));
+    const weight = q ? Number(q.slice(2)) : 1;
+    weights.set(coding, Number.isNaN(weight) ? 0 : weight);
+  }
+
+  let best: ContentEncoding | null = null;
+  let bestWeight = 0;
+  for (const encoding of ENCODINGS) {
+    const weight = weights.get(encoding) ?? weights.get('*') ?? 0;
+    if (weight > bestWeight) {
+      best = encoding;
+      bestWeight = weight;
+    }
+  }
+  return best;
+}
+
+/**
+ * Send an encoded body with its ETag, answering a matching If-None-Match with
+ * 304 and compressing when the client accepts it
+ */
+export async function sendEncoded(req: Request, res: Response, body: EncodedBody): Promise<void> {
+  res.setHeader('ETag', body.etag);
+  res.setHeader('Cache-Control', 'private, no-cache');
+  res.vary('Accept-Encoding');
+
+  if (req.fresh) {
+    res.status(304).end();
+    return;
+  }
+
+  const encoding =
+    body.identity.length >= MIN_COMPRESS_BYTES
+      ? negotiateEncoding(req.headers['accept-encoding'] as string | undefined)
+      : null;
+  const bytes = encoding ? await body.encoded(encoding) : body.identity;
+
+  res.setHeader('Content-Type', 'application/json; charset=utf-8');
+  if (encoding) {
+    res.setHeader('Content-Encoding', encoding);
+  }
+  res.setHeader('Content-Length', bytes.length);
+  res.end(req.method === 'HEAD' ? undefined : bytes);
+}
@@ -0,0 +1,192 @@
+import fs from 'fs';
+import { AsyncLocalStorage } from 'async_hooks';
+import { randomUUID } from 'crypto';
+import { Request, Response, NextFunction } from 'express';
+import { config } from '../config';
+
+export type LogLevel = 'debug' | 'info' | 'warn' | 'error';
+
+type ThresholdLevel = LogLevel | 'silent';
+
+type Fields = Record<string, unknown>;
+
+const LEVELS: Record<ThresholdLevel, number> = { debug: 10, info: 20, warn: 30, error: 40, silent: 100 };
+
+// Lines are written in batches; past this many buffered lines, debug/info are dropped
+const FLUSH_INTERVAL_MS = 100;
+const FLUSH_LINES = 256;
+const MAX_BUFFERED_LINES = 10000;
+
+const requestContext = new AsyncLocalStorage<{ requestId: string }>();
+
+/**
+ * Parse "cache=0.01,google=0.1" into per-category sample rates for debug and
+ * info records. Unlisted categories log everything.
+ */
+export function parseSampleRates(spec: string): Map<string, number> {
+  const rates = new Map<string, number>();
+  for (const part of spec.split(',')) {
+    const [category, rate] = part.split('=').map((s) => s.trim());
+    const value = Number(rate);
+    if (category && rate !== undefined && !Number.isNaN(value)) {
+      rates.set(category, Math.min(1, Math.max(0, value)));
+    }
+  }
+  return rates;
+}
+
+const serialiseError = (error: Error) => ({
+  name: error.name,
+  message: error.message,
+  stack: error.stack,
+  ...((error as any).statusCode !== undefined && { statusCode: (error as any).statusCode }),
+});
+
+const replacer = (_key: string, value: unknown) =>
+  value instanceof Error ? serialiseError(value) : value;
+
+/**
+ * Buffered log sink. Records are formatted on the calling path but written
+ * to stdout in one batch per flush, off the request's critical path, and
+ * synchronously on exit so nothing buffered is lost.
+ */
+export class LogSink {
+  private lines: string[] = [];
+  private timer: NodeJS.Timeout | null = null;
+  dropped = 0;
+
+  constructor(private readonly write: (chunk: string) => void) {
+    process.once('exit', () => this.flushSync());
+  }
+
+  push(line: string, droppable: boolean): void {
+    if (droppable && this.lines.length >= MAX_BUFFERED_LINES) {
+      this.dropped++;
+      return;
+    }
+
+    this.lines.push(line);
+    if (this.lines.length === FLUSH_LINES) {
+      setImmediate(() => this.flush());
+    } else if (!this.timer) {
+      this.timer = setTimeout(() => this.flush(), FLUSH_INTERVAL_MS);
+      this.timer.unref();
+    }
+  }
+
+  flush(): void {
+    if (this.timer) {
+      clearTimeout(this.timer);
+      this.timer = null;
+    }
+    if (!this.lines.length) return;
+
+    const chunk = this.lines.join('\n') + '\n';
+    this.lines = [];
+    this.write(chunk);
+  }
+
+  flushSync(): void {
+    if (!this.lines.length) return;
+    const chunk = this.lines.join('\n') + '\n';
+    this.lines = [];
+    try {
+      fs.writeSync(1, chunk);
+    } catch {
+      // stdout is gone; nothing left to report to
+    }
+  }
+}
+
+export interface LoggerOptions {
+  level: ThresholdLevel;
+  format: 'json' | 'pretty';
+  sampleRates: Map<string, number>;
+  sink: LogSink;
+}
+
+export class Logger {
+  constructor(
+    readonly category: string,
+    private readonly options: LoggerOptions
+  ) {}
+
+  child(category: string): Logger {
+    return new Logger(category, this.options);
+  }
+
+  debug(msg: string, fields?: Fields): void {
+    this.log('debug', msg, fields);
+  }
+
+  info(msg: string, fields?: Fields): void {
+    this.log('info', msg, fields);
+  }
+
+  warn(msg: string, fields?: Fields): void {
+    this.log('warn', msg, fields);
+  }
+
+  error(msg: string, fields?: Fields): void {
+    this.log('error', msg, fields);
+  }
+
+  isEnabled(level: LogLevel): boolean {
+    return LEVELS[level] >= LEVELS[this.options.level];
+  }
+
+  private log(level: LogLevel, msg: string, fields?: Fields): void {
+    if (!this.isEnabled(level)) return;
+
+    // Warnings and errors are never sampled away
+    const droppable = LEVELS[level] < LEVELS.warn;
+    if (droppable) {
+      const rate = this.options.sampleRates.get(this.category);
+      if (rate !== undefined && Math.random() >= rate) return;
+    }
+
+    const requestId = requestContext.getStore()?.requestId;
+    this.options.sink.push(this.format(level, msg, requestId, fields), droppable);
+  }
+
+  private format(level: LogLevel, msg: string, requestId: string | undefined, fields?: Fields): string {
+    if (this.options.format === 'pretty') {
+      const time = new Date().toISOString().slice(11, 23);
+      const req = requestId ? ` (${requestId.slice(0, 8)})` : '';
+      const extra = fields ? ` ${JSON.stringify(fields, replacer)}` : '';
+      return `${time} ${level.toUpperCase().padEnd(5)} [${this.category}]${req} ${msg}${extra}`;
+    }
+
+    return JSON.stringify(
+      { time: new Date().toISOString(), level, category: this.category, msg, requestId, ...fields },
+      replacer
+    );
+  }
+}
+
+const sink = new LogSink((chunk) => {
+  process.stdout.write(chunk);
+});
+
+export const logger = new Logger('app', {
+  level: (config.logLevel in LEVELS ? config.logLevel : 'info') as ThresholdLevel,
+  format: config.logFormat === 'pretty' ? 'pretty' : 'json',
+  sampleRates: parseSampleRates(config.logSample),
+  sink,
+});
+
+export function flushLogs(): void {
+  sink.flush();
+}
+
+/**
+ * Tag each request with an ID (the caller's X-Request-Id or a new one) that
+ * every log record written while handling it carries
+ */
+export function requestIdMiddleware(req: Request, res: Response, next: NextFunction): void {
+  const incoming = req.headers['x-request-id'];
+  const requestId = typeof incoming === 'string' && incoming.length <= 128 ? incoming : randomUUID();
+
+  res.setHeader('X-Request-Id', requestId);
+  requestContext.run({ requestId }, next);
+}
@@ -0,0 +1,74 @@
+import { monitorEventLoopDelay } from 'perf_hooks';
+import { Request, Response, NextFunction } from 'express';
+import { Registry } from './registry';
+
+export { Registry } from './registry';
+export type { Labels } from './registry';
+
+export const registry = new Registry();
+
+// Seconds; request and upstream latencies share one bucket layout
+const LATENCY_BUCKETS = [0.005, 0.01, 0.025, 0.05, 0.1, 0.25, 0.5, 1, 2.5, 5, 10];
+
+export const httpRequests = registry.counter(
+  'http_requests_total',
+  'HTTP requests handled, by route and status code'
+);
+
+export const httpDuration = registry.histogram(
+  'http_request_duration_seconds',
+  'HTTP request latency, by route',
+  LATENCY_BUCKETS
+);
+
+export const cacheLookups = registry.counter(
+  'cache_lookups_total',
+  'UnifiedCache lookups by key section and result (hit, stale, negative, coalesced, miss)'
+);
+
+export const upstreamDuration = registry.histogram(
+  'upstream_request_duration_seconds',
+  'Places API call latency, by endpoint, billing SKU and outcome',
+  LATENCY_BUCKETS
+);
+
+export const upstreamRejected = registry.counter(
+  'upstream_rejected_total',
+  'Places API calls refused locally, by endpoint and reason (circuit_open, busy)'
+);
+
+// Event loop delay since the previous scrape
+const loopDelay = monitorEventLoopDelay({ resolution: 20 });
+loopDelay.enable();
+
+registry.gauge('nodejs_eventloop_lag_seconds', 'Event loop delay since the last scrape', () => {
+  const samples: Array<[{ quantile: string }, number]> = [
+    [{ quantile: '0.5' }, loopDelay.percentile(50) / 1e9],
+    [{ quantile: '0.99' }, loopDelay.percentile(99) / 1e9],
+    [{ quantile: '1' }, loopDelay.max / 1e9],
+  ];
+  loopDelay.reset();
+  return samples;
+});
+
+registry.gauge('process_resident_memory_bytes', 'Resident set size', () => [
+  [{}, process.memoryUsage.rss()],
+]);
+
+/**
+ * Count and time every request. The route label is the matched route
+ * pattern, not the URL, so place IDs do not blow up label cardinality.
+ */
+export function metricsMiddleware(req: Request, res: Response, next: NextFunction): void {
+  const startedAt = process.hrtime.bigint();
+
+  res.on('finish', () => {
+    const route = req.route ? `${req.baseUrl}${String(req.route.path)}` : 'unmatched';
+    const seconds = Number(process.hrtime.bigint() - startedAt) / 1e9;
+
+    httpRequests.inc({ method: req.method, route, status: String(res.statusCode) });
+    httpDuration.observe({ method: req.method, route }, seconds);
+  });
+
+  next();
+}
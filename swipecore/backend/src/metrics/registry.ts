@@ -0,0 +1,155 @@
+export type Labels = Record<string, string>;
+
+type Sample = [Labels, number];
+
+interface Series<V> {
+  labels: Labels;
+  value: V;
+}
+
+// Label sets are keyed by their values in a fixed name order
+const seriesKey = (labels: Labels) =>
+  Object.keys(labels)
+    .sort()
+    .map((name) => `${name}=${labels[name]}`)
+    .join(',');
+
+const escapeLabel = (value: string) =>
+  value.replace(/\\/g, '\\\\').replace(/\n/g, '\\n').replace(/"/g, '\\"');
+
+const formatLabels = (labels: Labels) => {
+  const names = Object.keys(labels);
+  if (!names.length) return '';
+  return `{${names.map((name) => `${name}="${escapeLabel(labels[name])}"`).join(',')}}`;
+};
+
+abstract class Metric {
+  constructor(
+    readonly name: string,
+    readonly help: string,
+    readonly type: 'counter' | 'gauge' | 'histogram'
+  ) {}
+
+  render(): string {
+    return [`# HELP ${this.name} ${this.help}`, `# TYPE ${this.name} ${this.type}`, ...this.lines()].join('\n');
+  }
+
+  protected abstract lines(): string[];
+}
+
+/**
+ * Counter or gauge. Values are either updated in place by the hot path or,
+ * for state that already lives elsewhere, read by `collect` at scrape time.
+ */
+class ValueMetric extends Metric {
+  private series = new Map<string, Series<number>>();
+
+  constructor(
+    name: string,
+    help: string,
+    type: 'counter' | 'gauge',
+    private readonly collect?: () => Sample[]
+  ) {
+    super(name, help, type);
+  }
+
+  inc(labels: Labels = {}, value = 1): void {
+    const key = seriesKey(labels);
+    const entry = this.series.get(key);
+    if (entry) {
+      entry.value += value;
+    } else {
+      this.series.set(key, { labels, value });
+    }
+  }
+
+  set(labels: Labels, value: number): void {
+    this.series.set(seriesKey(labels), { labels, value });
+  }
+
+  protected lines(): string[] {
+    const samples: Sample[] = this.collect
+      ? this.collect()
+      : Array.from(this.series.values(), ({ labels, value }) => [labels, value]);
+
+    return samples.map(([labels, value]) => `${this.name}${formatLabels(labels)} ${value}`);
+  }
+}
+
+export type Counter = Pick<ValueMetric, 'inc'>;
+export type Gauge = Pick<ValueMetric, 'set'>;
+
+/**
+ * Fixed-bucket histogram. An observation costs one bucket search and two
+ * additions; buckets are only made cumulative when rendered.
+ */
+export class Histogram extends Metric {
+  private series = new Map<string, Series<{ buckets: number[]; sum: number; count: number }>>();
+
+  constructor(
+    name: string,
+    help: string,
+    private readonly bounds: number[]
+  ) {
+    super(name, help, 'histogram');
+  }
+
+  observe(labels: Labels, value: number): void {
+    const key = seriesKey(labels);
+    let entry = this.series.get(key);
+    if (!entry) {
+      entry = { labels, value: { buckets: new Array(this.bounds.length).fill(0), sum: 0, count: 0 } };
+      this.series.set(key, entry);
+    }
+
+    const bucket = this.bounds.findIndex((bound) => value <= bound);
+    if (bucket !== -1) entry.value.buckets[bucket]++;
+    entry.value.sum += value;
+    entry.value.count++;
+  }
+
+  protected lines(): string[] {
+    const lines: string[] = [];
+
+    for (const { labels, value } of this.series.values()) {
+      let cumulative = 0;
+      this.bounds.forEach((bound, i) => {
+        cumulative += value.buckets[i];
+        lines.push(`${this.name}_bucket${formatLabels({ ...labels, le: String(bound) })} ${cumulative}`);
+      });
+      lines.push(`${this.name}_bucket${formatLabels({ ...labels, le: '+Inf' })} ${value.count}`);
+      lines.push(`${this.name}_sum${formatLabels(labels)} ${value.sum}`);
+      lines.push(`${this.name}_count${formatLabels(labels)} ${value.count}`);
+    }
+
+    return lines;
+  }
+}
+
+/**
+ * Minimal metrics registry rendering the Prometheus text exposition format
+ */
+export class Registry {
+  private metrics: Metric[] = [];
+
+  counter(name: string, help: string, collect?: () => Sample[]): Counter {
+    return this.register(new ValueMetric(name, help, 'counter', collect));
+  }
+
+  gauge(name: string, help: string, collect?: () => Sample[]): Gauge {
+    return this.register(new ValueMetric(name, help, 'gauge', collect));
+  }
+
+  histogram(name: string, help: string, bounds: number[]): Histogram {
+    return this.register(new Histogram(name, help, bounds));
+  }
+
+  render(): string {
+    return this.metrics.map((metric) => metric.render()).join('\n') + '\n';
+  }
+
+  private register<M extends Metric>(metric: M): M {
+    this.metrics.push(metric);
+    return metric;
+  }
+}
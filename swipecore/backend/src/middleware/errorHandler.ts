@@ -1,4 +1,7 @@
 import { Request, Response, NextFunction } from 'express';
+import { logger } from '../lib/logger';
+
+const log = logger.child('http');
 
 export interface ApiError extends Error {
   statusCode?: number;
@@ -47,15 +50,13 @@ export const errorHandler = (
     message = 'Service temporarily unavailable';
   }
 
-  // Log error details (in production, use proper logging service)
-  console.error('Error:', {
-    message: error.message,
-    stack: error.stack,
-    url: req.url,
-    method: req.method,
-    ip: req.ip,
-    timestamp: new Date().toISOString(),
-  });
+  // Client errors are expected traffic; only server errors carry the stack
+  const fields = { statusCode, url: req.url, method: req.method, ip: req.ip };
+  if (statusCode >= 500) {
+    log.error(error.message, { ...fields, stack: error.stack });
+  } else {
+    log.warn(error.message, fields);
+  }
 
   // Send error response
   res.status(statusCode).json({
@@ -0,0 +1,92 @@
+import { Router, Request, Response } from 'express';
+import { asyncHandler, CustomError } from '../middleware/errorHandler';
+import { registry } from '../metrics';
+import { cache, local, photoStore } from '../cache';
+import { getUpstreamStats } from '../google/upstream';
+import { config } from '../config';
+
+// State that already lives in the cache and upstream modules is read at scrape time
+
+registry.gauge('cache_entries', 'In-process cache entries, by key section', () =>
+  Object.entries(local.getStats()).map(([section, stats]) => [{ section }, stats.entries])
+);
+
+registry.gauge('cache_bytes', 'Approximate in-process cache size, by key section', () =>
+  Object.entries(local.getStats()).map(([section, stats]) => [{ section }, stats.bytes])
+);
+
+registry.gauge('cache_budget_bytes', 'In-process cache byte budget, by key section', () =>
+  Object.entries(local.getStats()).map(([section, stats]) => [{ section }, stats.budgetBytes])
+);
+
+registry.counter('cache_evictions_total', 'In-process cache evictions, by key section', () =>
+  Object.entries(local.getStats()).map(([section, stats]) => [{ section }, stats.evictions])
+);
+
+registry.counter('cache_fetch_events_total', 'Cache fetch path events (upstream fetches, revalidations, shared tier results)', () => {
+  const stats = cache.getFetchTotals();
+  return [
+    [{ event: 'originated' }, stats.originated],
+    [{ event: 'revalidated' }, stats.revalidated],
+    [{ event: 'revalidate_failed' }, stats.revalidateFailed],
+    [{ event: 'shared_hit' }, stats.sharedHits],
+    [{ event: 'shared_miss' }, stats.sharedMisses],
+    [{ event: 'shared_error' }, stats.sharedErrors],
+  ];
+});
+
+registry.gauge('cache_in_flight', 'Upstream fetches currently in flight through the cache', () => [
+  [{}, cache.getFetchStats().inFlight],
+]);
+
+registry.gauge('upstream_pool_sockets', 'Keep-alive sockets to the Places API, by state', () => {
+  const { pool } = getUpstreamStats();
+  return [
+    [{ state: 'in_use' }, pool.inUse],
+    [{ state: 'idle' }, pool.idle],
+    [{ state: 'waiting' }, pool.waitingForSocket],
+  ];
+});
+
+registry.gauge('upstream_limiter_calls', 'Places API calls holding or waiting for a limiter slot', () => {
+  const { limiter } = getUpstreamStats();
+  return [
+    [{ state: 'active' }, limiter.active],
+    [{ state: 'waiting' }, limiter.waiting],
+  ];
+});
+
+// 0 = closed, 1 = half-open, 2 = open
+const CIRCUIT_STATES = { closed: 0, 'half-open': 1, open: 2 };
+
+registry.gauge('upstream_circuit_state', 'Circuit breaker state per endpoint (0 closed, 1 half-open, 2 open)', () =>
+  Object.entries(getUpstreamStats().breakers).map(([endpoint, breaker]) => [
+    { endpoint },
+    CIRCUIT_STATES[breaker.state],
+  ])
+);
+
+registry.counter('upstream_hedges_total', 'Hedged Places API requests, by endpoint and result', () =>
+  Object.entries(getUpstreamStats().endpoints).flatMap(([endpoint, stats]) => [
+    [{ endpoint, result: 'sent' }, stats.hedges] as [{ endpoint: string; result: string }, number],
+    [{ endpoint, result: 'won' }, stats.hedgeWins] as [{ endpoint: string; result: string }, number],
+  ])
+);
+
+registry.gauge('photo_store_bytes', 'Bytes held in the on-disk photo store', () => [
+  [{}, photoStore.getStats().bytes],
+]);
+
+const router = Router();
+
+// GET /metrics - Prometheus text exposition
+router.get('/', asyncHandler(async (req: Request, res: Response) => {
+  if (config.metricsToken && req.headers.authorization !== `Bearer ${config.metricsToken}`) {
+    throw new CustomError('Unauthorized', 401);
+  }
+
+  res.setHeader('Content-Type', 'text/plain; version=0.0.4; charset=utf-8');
+  res.send(registry.render());
+}));
+
+export { router as metricsRouter };
@@ -8,6 +8,7 @@ import jwt from 'jsonwebtoken';
 import { REFRESH_SECRET, requireAuth, sessions, signAccessToken, signRefreshToken, cleanupExpiredSessions } from '../auth/auth';
 import bcrypt from 'bcryptjs';
 import { config as envConfig } from "../config";
+import { logger } from "../lib/logger";
 
 interface OtpStore {
     otp: string;
@@ -16,6 +17,7 @@ interface OtpStore {
 }
 
 const router = Router();
+const log = logger.child('otp');
 
 // Clean up expired sessions on startup
 cleanupExpiredSessions();
@@ -61,9 +63,7 @@ router.post(
             const smsResult = await smsService.sendOtp(phoneNumber, otp);
 
             if (smsResult.success) {
-                console.log(
-                    `✅ OTP ${otp} sent to ${phoneNumber} via ${smsResult.messageId}`
-                );
+                log.info('OTP sent', { phoneNumber, messageId: smsResult.messageId });
 
                 otpStore.set(phoneNumber, {
                     otp,
@@ -81,7 +81,7 @@ router.post(
                 throw new Error(`SMS delivery failed: ${smsResult.error}`);
             }
         } catch (error) {
-            console.error('Error sending OTP:', error);
+            log.error('Error sending OTP', { error });
             res.status(500).json({
                 success: false,
                 errorCode: 'OTP_SEND_FAILED',
@@ -163,7 +163,7 @@ router.post(
 
             res.json(response);
         } catch (error) {
-            console.error('Error verifying OTP:', error);
+            log.error('Error verifying OTP', { error });
             res.status(500).json({
                 success: false,
                 errorCode: 'OTP_VERIFICATION_FAILED',
@@ -240,7 +240,7 @@ router.post("/auth/refresh", async (req: any, res: any) => {
     if (new Date() > record.expiresAt) {
         // Clean up expired session
         sessions.delete(sessionId);
-        console.log(`Removed expired session from refresh endpoint: ${sessionId}`);
+        log.info('Removed expired session from refresh endpoint', { sessionId });
 
         const response: OtpResponse = {
             success: false,
@@ -299,7 +299,7 @@ router.get(
                     : 'AWS SNS not configured - using console fallback',
             });
         } catch (error) {
-            console.error('Error getting status:', error);
+            log.error('Error getting status', { error });
             res.status(500).json({
                 success: false,
                 message: 'Failed to get service status',
@@ -1,12 +1,22 @@
+import path from 'path';
 import { Router, Request, Response } from 'express';
 import * as places from '../google';
-import { asyncHandler } from '../middleware/errorHandler';
-import { cache } from '../cache';
+import { getUpstreamStats } from '../google/upstream';
+import { asyncHandler, CustomError } from '../middleware/errorHandler';
+import { cache, photoStore, StoredPhoto } from '../cache';
+import { photoVariant, negotiateFormat } from '../services/photoVariants';
+import { withPlaceholders, placeholderFromStored } from '../services/photoPlaceholders';
+import { searchPlaces } from '../services/placeSearch';
 import { config } from '../config';
+import { encodeSuccess, sendEncoded } from '../lib/encodedBody';
 import {
   nearbySearchSchema,
   placeIdSchema,
+  detailsQuerySchema,
+  detailsBatchSchema,
   photoReferenceSchema,
+  photoVariantSchema,
+  placeSearchSchema,
   NearbySearchParams,
   TextSearchParams,
   textSearchSchema,
@@ -14,6 +24,16 @@ import {
 
 const router = Router();
 
+const encodeList = (placesArray: unknown[]) =>
+  encodeSuccess(placesArray, { count: placesArray.length });
+
+// Multi-select query values, either comma-separated or repeated
+const listParam = (value: unknown): string[] | undefined => {
+  if (value === undefined) return undefined;
+  const values = (Array.isArray(value) ? value : [value]).flatMap((v) => String(v).split(','));
+  return values.filter((v) => v.trim().length > 0);
+};
+
 // GET /api/places/nearby - Search for nearby places
 router.get('/nearby', asyncHandler(async (req: Request, res: Response) => {
   // Validate query parameters
@@ -33,14 +53,9 @@ router.get('/nearby', asyncHandler(async (req: Request, res: Response) => {
   const validatedParams = nearbySearchSchema.parse(cleanParams);
 
   const response = await places.nearby(validatedParams);
-  const placesArray = response?.places || [];
+  const placesArray = withPlaceholders(response?.places || []);
 
-  res.json({
-    success: true,
-    data: placesArray,
-    count: placesArray.length,
-    timestamp: new Date().toISOString(),
-  });
+  await sendEncoded(req, res, cache.encoded(placesArray, encodeList));
 }));
 
 router.get('/nearbyAdvanced', asyncHandler(async (req: Request, res: Response) => {
@@ -61,27 +76,94 @@ router.get('/nearbyAdvanced', asyncHandler(async (req: Request, res: Response) =
   const validatedParams = textSearchSchema.parse(cleanParams);
 
   const response = await places.textSearch(validatedParams);
-  const placesArray = response?.places || [];
+  const placesArray = withPlaceholders(response?.places || []);
 
-  res.json({
-    success: true,
-    data: placesArray,
-    count: placesArray.length,
-    timestamp: new Date().toISOString(),
+  await sendEncoded(req, res, cache.encoded(placesArray, encodeList));
+}));
+
+// GET /api/places/search - Nearby candidates filtered and ranked server-side, paginated
+// Filters: openNow, minRating, priceLevel (1-4), keyword, cuisine, dietary, features, ambiance
+router.get('/search', asyncHandler(async (req: Request, res: Response) => {
+  const queryParams = {
+    lat: parseFloat(req.query.lat as string),
+    lng: parseFloat(req.query.lng as string),
+    radius: req.query.radius ? parseInt(req.query.radius as string) : undefined,
+    type: req.query.type as string,
+    keyword: req.query.keyword as string,
+    openNow: req.query.openNow !== undefined ? req.query.openNow === 'true' : undefined,
+    minRating: req.query.minRating ? parseFloat(req.query.minRating as string) : undefined,
+    priceLevel: req.query.priceLevel ? parseInt(req.query.priceLevel as string) : undefined,
+    cuisine: listParam(req.query.cuisine),
+    dietary: listParam(req.query.dietary),
+    features: listParam(req.query.features),
+    ambiance: listParam(req.query.ambiance),
+    cursor: req.query.cursor ? parseInt(req.query.cursor as string) : undefined,
+    pageSize: req.query.pageSize ? parseInt(req.query.pageSize as string) : undefined,
+  };
+
+  // Remove undefined values
+  const cleanParams = Object.fromEntries(
+    Object.entries(queryParams).filter(([_, value]) => value !== undefined && !Number.isNaN(value))
+  );
+
+  const validatedParams = placeSearchSchema.parse(cleanParams);
+
+  const page = await searchPlaces(validatedParams);
+  const pagePlaces = withPlaceholders(page.places);
+
+  await sendEncoded(req, res, encodeSuccess(pagePlaces, {
+    count: pagePlaces.length,
+    total: page.total,
+    nextCursor: page.nextCursor,
+  }));
+}));
+
+// POST /api/places/details:batch - Resolve many places at once, streamed back as NDJSON
+// One line per place, in completion order: { placeId, success, data } or { placeId, success, error }
+router.post(/^\/details:batch$/, asyncHandler(async (req: Request, res: Response) => {
+  const { placeIds, tier } = detailsBatchSchema.parse(req.body);
+  const queue = [...new Set(placeIds)];
+
+  let aborted = false;
+  res.on('close', () => {
+    aborted = !res.writableFinished;
   });
+
+  res.status(200);
+  res.setHeader('Content-Type', 'application/x-ndjson; charset=utf-8');
+  res.setHeader('Cache-Control', 'no-store');
+  res.flushHeaders();
+
+  // Cache hits resolve immediately; the worker count only bounds upstream fetches
+  const worker = async () => {
+    for (let placeId = queue.shift(); placeId && !aborted; placeId = queue.shift()) {
+      let line: object;
+      try {
+        line = { placeId, success: true, data: await places.details(placeId, tier) };
+      } catch (error) {
+        const statusCode = error instanceof CustomError ? error.statusCode : 500;
+        const message = error instanceof Error ? error.message : String(error);
+        line = { placeId, success: false, error: { message, statusCode } };
+      }
+      if (!aborted) {
+        res.write(JSON.stringify(line) + '\n');
+      }
+    }
+  };
+
+  const workers = Math.min(config.detailsBatchConcurrency, queue.length);
+  await Promise.all(Array.from({ length: workers }, worker));
+  res.end();
 }));
 
-// GET /api/places/:placeId - Get detailed information about a place
+// GET /api/places/:placeId?tier=basic|contact|atmosphere - Get detailed information about a place
 router.get('/:placeId', asyncHandler(async (req: Request, res: Response) => {
   const { placeId } = placeIdSchema.parse(req.params);
+  const { tier } = detailsQuerySchema.parse(req.query);
 
-  const place = await places.details(placeId);
+  const place = await places.details(placeId, tier);
 
-  res.json({
-    success: true,
-    data: place,
-    timestamp: new Date().toISOString(),
-  });
+  await sendEncoded(req, res, cache.encoded(place, encodeSuccess));
 }));
 
 // GET /api/places/photo/:photoReference - Get photo URL
@@ -116,10 +198,71 @@ router.get('/photo/:photoReference', asyncHandler(async (req: Request, res: Resp
   });
 }));
 
+// GET /api/places/photo/:photoReference/media - Stream photo bytes from the on-disk store
+// With ?width=, serves a width-bucketed variant in the best format the client accepts
+router.get('/photo/:photoReference/media', asyncHandler(async (req: Request, res: Response) => {
+  const photoReference = (req.query.photoReference as string) || req.params.photoReference;
+
+  if (req.query.width) {
+    const validatedParams = photoVariantSchema.parse({
+      photoReference,
+      width: parseInt(req.query.width as string),
+      format: req.query.format as string | undefined,
+    });
+
+    const format = negotiateFormat(validatedParams.format, req.headers.accept);
+    const stored = await photoVariant(validatedParams.photoReference, validatedParams.width, format);
+    placeholderFromStored(validatedParams.photoReference, stored);
+
+    res.vary('Accept');
+    return sendStoredPhoto(res, stored);
+  }
+
+  const params = {
+    photoReference,
+    maxWidth: req.query.maxWidth ? parseInt(req.query.maxWidth as string) : undefined,
+    maxHeight: req.query.maxHeight ? parseInt(req.query.maxHeight as string) : undefined,
+  };
+
+  // Remove undefined values
+  const cleanParams = Object.fromEntries(
+    Object.entries(params).filter(([_, value]) => value !== undefined && !Number.isNaN(value))
+  );
+
+  const validatedParams = photoReferenceSchema.parse(cleanParams);
+
+  const stored = await places.photoMedia(
+    validatedParams.photoReference,
+    validatedParams.maxWidth,
+    validatedParams.maxHeight
+  );
+  placeholderFromStored(validatedParams.photoReference, stored);
+
+  sendStoredPhoto(res, stored);
+}));
+
+// sendFile streams from disk and handles Range and If-None-Match against our ETag
+function sendStoredPhoto(res: Response, stored: StoredPhoto): void {
+  const filePath = photoStore.pathFor(stored.hash);
+  if (!filePath) {
+    throw new CustomError('Photo is no longer available', 503);
+  }
+
+  res.sendFile(path.resolve(filePath), {
+    etag: false,
+    lastModified: false,
+    headers: {
+      'Content-Type': stored.contentType,
+      'ETag': `"${stored.hash}"`,
+      'Cache-Control': `public, max-age=${config.cacheTtlDays * 86400}, immutable`,
+    },
+  });
+}
+
 // Development only endpoints for dev cache management
 if (config.nodeEnv === 'development') {
   router.delete('/dev-cache', asyncHandler(async (req: Request, res: Response) => {
-    cache.clearDevCache();
+    await cache.clearDevCache();
     res.json({
       success: true,
       message: 'Dev cache cleared successfully',
@@ -135,6 +278,14 @@ if (config.nodeEnv === 'development') {
       timestamp: new Date().toISOString(),
     });
   }));
+
+  router.get('/upstream/stats', asyncHandler(async (req: Request, res: Response) => {
+    res.json({
+      success: true,
+      data: getUpstreamStats(),
+      timestamp: new Date().toISOString(),
+    });
+  }));
 }
 
 export { router as placesRouter };
\ No newline at end of file
@@ -4,8 +4,10 @@ import { IsEmptyRowError, supabase, UserProfile } from '../lib/supabase';
 import { userProfileService } from '../services/userProfileService';
 import { UserProfileRequest, UserProfileResponse } from '../types/userProfileTypes';
 import { requireAuth, sessions } from '../auth/auth';
+import { logger } from '../lib/logger';
 
 const router = Router();
+const log = logger.child('userprofile');
 
 // Create or update user profile
 router.post('/create', requireAuth, asyncHandler(async (req: Request, res: Response) => {
@@ -39,7 +41,7 @@ router.post('/create', requireAuth, asyncHandler(async (req: Request, res: Respo
         });
 
         if (insertError) {
-            console.error('Error creating user profile:', insertError);
+            log.error('Error creating user profile', { error: insertError });
             throw new Error('Failed to create user profile');
         }
 
@@ -50,7 +52,7 @@ router.post('/create', requireAuth, asyncHandler(async (req: Request, res: Respo
         return res.json(response);
 
     } catch (error) {
-        console.error('Error managing user profile:', error);
+        log.error('Error managing user profile', { error });
 
         const response: UserProfileResponse = {
             success: false,
@@ -85,7 +87,7 @@ router.get("/me", requireAuth, asyncHandler(async (req: Request, res: Response)
                 });
             }
             else {
-                console.error('Error getting user profile:', userProfileError);
+                log.error('Error getting user profile', { error: userProfileError });
                 throw new Error(`Failed to get user profile ${JSON.stringify(userProfileError)}`);
             }
         }
@@ -107,7 +109,7 @@ router.get("/me", requireAuth, asyncHandler(async (req: Request, res: Response)
         return res.json(response);
 
     } catch (error) {
-        console.error('Error managing user profile:', error);
+        log.error('Error managing user profile', { error });
         return res.status(500).json({
             success: false,
             errorCode: 'PROFILE_OPERATION_FAILED',
@@ -136,7 +138,7 @@ router.get('/health', asyncHandler(async (req: Request, res: Response) => {
         });
 
     } catch (error) {
-        console.error('Health check failed:', error);
+        log.error('Health check failed', { error });
         res.status(500).json({
             success: false,
             message: 'Health check failed',
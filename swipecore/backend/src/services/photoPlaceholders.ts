@@ -0,0 +1,154 @@
+import fs from 'fs';
+import { config } from '../config';
+import { cache, photoStore, StoredPhoto } from '../cache';
+import { logger } from '../lib/logger';
+import { PlaceBasic } from '../types/places';
+
+const log = logger.child('photo');
+
+// ThumbHash works on images of at most 100x100
+const THUMB_MAX_SIDE = 100;
+// Placeholders remembered in memory for attaching without a cache round-trip
+const MAX_KNOWN = 20000;
+// Photos waiting to be hashed; more are dropped until the queue drains
+const MAX_QUEUED = 200;
+
+interface PlaceholderEncoder {
+  encode(input: Buffer): Promise<string>;
+}
+
+/**
+ * ThumbHash placeholders need sharp (optional native dependency) to decode
+ * the photo and the thumbhash package to encode it. Without either, places
+ * are returned without placeholders.
+ */
+function loadEncoder(): PlaceholderEncoder | null {
+  try {
+    // eslint-disable-next-line @typescript-eslint/no-var-requires
+    const sharp = require('sharp');
+    // eslint-disable-next-line @typescript-eslint/no-var-requires
+    const { rgbaToThumbHash } = require('thumbhash');
+    return {
+      encode: async (input) => {
+        const { data, info } = await sharp(input)
+          .resize(THUMB_MAX_SIDE, THUMB_MAX_SIDE, { fit: 'inside' })
+          .ensureAlpha()
+          .raw()
+          .toBuffer({ resolveWithObject: true });
+        return Buffer.from(rgbaToThumbHash(info.width, info.height, data)).toString('base64');
+      },
+    };
+  } catch {
+    log.info('sharp or thumbhash not installed, places are returned without photo placeholders');
+    return null;
+  }
+}
+
+const encoder = config.photoPlaceholders ? loadEncoder() : null;
+
+const placeholderKey = (photoName: string) => `photo:thumbhash:${photoName}`;
+
+// Photo name -> base64 ThumbHash ('' when it could not be computed), least
+// recently added first
+const known = new Map<string, string>();
+
+function remember(photoName: string, hash: string) {
+  known.set(photoName, hash);
+  if (known.size > MAX_KNOWN) {
+    known.delete(known.keys().next().value as string);
+  }
+}
+
+// Placeholder for a photo if one has been computed, here or by another instance
+function lookup(photoName: string): string | undefined {
+  let hash = known.get(photoName);
+  if (hash === undefined) {
+    hash = cache.peek<string>(placeholderKey(photoName));
+    if (hash !== undefined) remember(photoName, hash);
+  }
+  return hash;
+}
+
+// Photos waiting to be hashed, by name, hashed one at a time
+const queue = new Map<string, StoredPhoto>();
+let draining = false;
+
+async function drain(): Promise<void> {
+  draining = true;
+  try {
+    for (const [photoName, stored] of queue) {
+      queue.delete(photoName);
+      const filePath = photoStore.pathFor(stored.hash);
+      if (!encoder || !filePath) continue;
+
+      try {
+        const hash = await encoder.encode(await fs.promises.readFile(filePath));
+        cache.set(placeholderKey(photoName), hash, config.cacheTtlDays * 86400);
+        remember(photoName, hash);
+      } catch (error) {
+        // Not retried until it drops out of the known set
+        remember(photoName, '');
+        log.warn('Photo placeholder failed', { photo: photoName, error });
+      }
+    }
+  } finally {
+    draining = false;
+  }
+}
+
+/**
+ * Queue a ThumbHash of a photo the backend has just stored, for later place
+ * lists. Hashing runs in the background from the stored bytes, so it never
+ * costs an upstream fetch or holds up a response.
+ */
+export function placeholderFromStored(photoName: string, stored: StoredPhoto): void {
+  if (!encoder || lookup(photoName) !== undefined || queue.has(photoName)) return;
+  if (queue.size >= MAX_QUEUED) return;
+
+  queue.set(photoName, stored);
+  if (!draining) {
+    setImmediate(() => {
+      drain().catch((error) => log.warn('Photo placeholder queue failed', { error }));
+    });
+  }
+}
+
+// Attached results per places array, so a cached array keeps one identity
+// (and one encoded body) until more placeholders become available
+const attached = new WeakMap<PlaceBasic[], { count: number; places: PlaceBasic[] }>();
+
+/**
+ * Places with a `thumbhash` on their leading photos, for those photos the
+ * backend has already served and hashed. Nothing is fetched or computed here.
+ */
+export function withPlaceholders(placesArray: PlaceBasic[]): PlaceBasic[] {
+  if (!encoder || placesArray.length === 0) return placesArray;
+
+  const leading = (place: PlaceBasic) =>
+    (place.photos || []).slice(0, config.photoPlaceholdersPerPlace);
+
+  let count = 0;
+  for (const place of placesArray) {
+    for (const photo of leading(place)) {
+      if (lookup(photo.name)) count++;
+    }
+  }
+  if (count === 0) return placesArray;
+
+  const previous = attached.get(placesArray);
+  if (previous?.count === count) return previous.places;
+
+  const places = placesArray.map((place) => {
+    const hashed = new Set(leading(place).filter((photo) => known.get(photo.name)));
+    return hashed.size > 0
+      ? {
+          ...place,
+          photos: place.photos!.map((photo) =>
+            hashed.has(photo) ? { ...photo, thumbhash: known.get(photo.name) } : photo
+          ),
+        }
+      : place;
+  });
+  attached.set(placesArray, { count, places });
+  return places;
+}
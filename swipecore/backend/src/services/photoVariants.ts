@@ -0,0 +1,112 @@
+import fs from 'fs';
+import { config } from '../config';
+import { withCache, cache, photoStore, StoredPhoto } from '../cache';
+import { photoMedia } from '../google';
+import { logger } from '../lib/logger';
+
+// Widths a variant is snapped up to, so devices with similar screens share variants
+export const WIDTH_BUCKETS = [160, 320, 480, 640, 960, 1280, 1600];
+
+export type VariantFormat = 'avif' | 'webp' | 'original';
+
+interface Transcoder {
+  transcode(input: Buffer, format: 'avif' | 'webp', width: number): Promise<Buffer>;
+}
+
+/**
+ * sharp is an optional native dependency. When it is installed, variants are
+ * re-encoded as AVIF/WebP; without it they are still width-bucketed (Google
+ * resizes upstream) but keep their original format.
+ */
+function loadTranscoder(): Transcoder | null {
+  try {
+    // eslint-disable-next-line @typescript-eslint/no-var-requires
+    const sharp = require('sharp');
+    return {
+      transcode: (input, format, width) => {
+        const pipeline = sharp(input).resize({ width, withoutEnlargement: true });
+        return (format === 'avif'
+          ? pipeline.avif({ quality: 50 })
+          : pipeline.webp({ quality: 75 })
+        ).toBuffer();
+      },
+    };
+  } catch {
+    logger.child('photo').info('sharp not installed, photo variants keep their original format');
+    return null;
+  }
+}
+
+const transcoder = loadTranscoder();
+
+export function widthBucket(width: number): number {
+  return WIDTH_BUCKETS.find((bucket) => bucket >= width) ?? WIDTH_BUCKETS[WIDTH_BUCKETS.length - 1];
+}
+
+/**
+ * Best format for the client: an explicit request wins, otherwise the Accept
+ * header decides. Falls back to the original format if we cannot transcode.
+ */
+export function negotiateFormat(
+  requested: VariantFormat | undefined,
+  accept: string | undefined
+): VariantFormat {
+  if (!transcoder) return 'original';
+  if (requested) return requested;
+  if (accept?.includes('image/avif')) return 'avif';
+  if (accept?.includes('image/webp')) return 'webp';
+  return 'original';
+}
+
+// Reproductions of evicted variants in flight, by variant key
+const pendingReproductions = new Map<string, Promise<StoredPhoto>>();
+
+/**
+ * A photo resized to the width bucket covering `width` and encoded in
+ * `format`. Variants are stored in the photo store like originals and looked
+ * up through the cache, so each one is produced once.
+ */
+export async function photoVariant(
+  photoReference: string,
+  width: number,
+  format: VariantFormat
+): Promise<StoredPhoto> {
+  const bucket = widthBucket(width);
+  const variantKey = `photo:variant:${photoReference}:${bucket}:${format}`;
+  const ttlSecs = config.cacheTtlDays * 86400;
+
+  const produce = async (): Promise<StoredPhoto> => {
+    // Height is left unconstrained so portrait photos are also sized by width
+    const original = await photoMedia(photoReference, bucket, 4800);
+    if (format === 'original' || !transcoder) {
+      return original;
+    }
+
+    const filePath = photoStore.pathFor(original.hash);
+    if (!filePath) {
+      throw new Error(`Photo evicted before transcoding: ${photoReference}`);
+    }
+
+    const input = await fs.promises.readFile(filePath);
+    const output = await transcoder.transcode(input, format, bucket);
+    return photoStore.put(output, `image/${format}`);
+  };
+
+  const stored = await withCache(variantKey, ttlSecs, produce);
+  if (photoStore.has(stored.hash)) {
+    return stored;
+  }
+
+  // Requests finding the same evicted blob share one reproduction
+  let reproduce = pendingReproductions.get(variantKey);
+  if (!reproduce) {
+    reproduce = produce()
+      .then((reproduced) => {
+        cache.set(variantKey, reproduced, ttlSecs);
+        return reproduced;
+      })
+      .finally(() => pendingReproductions.delete(variantKey));
+    pendingReproductions.set(variantKey, reproduce);
+  }
+  return reproduce;
+}
@@ -0,0 +1,212 @@
+import * as places from '../google';
+import { distanceMeters } from '../google/tiles';
+import { PlaceBasic, PlaceSearchParams } from '../types/places';
+import {
+  CUISINE_KEYWORDS,
+  DIETARY_KEYWORDS,
+  FEATURE_KEYWORDS,
+  AMBIANCE_KEYWORDS,
+} from '../shared/filterKeywords';
+
+// Google types the app shows as a cuisine label (extractCuisineType on the client)
+const CUISINE_LABELS: Record<string, string> = {
+  italian_restaurant: 'italian',
+  japanese_restaurant: 'japanese',
+  chinese_restaurant: 'chinese',
+  mexican_restaurant: 'mexican',
+  thai_restaurant: 'thai',
+  indian_restaurant: 'indian',
+  french_restaurant: 'french',
+  american_restaurant: 'american',
+  mediterranean_restaurant: 'mediterranean',
+  pizza_restaurant: 'pizza',
+  seafood_restaurant: 'seafood',
+  steakhouse: 'steakhouse',
+  sushi_restaurant: 'sushi',
+  fast_food_restaurant: 'fast food',
+  cafe: 'cafe',
+  bakery: 'bakery',
+  bar: 'bar',
+};
+
+const PRICE_LEVELS: Record<string, number> = {
+  PRICE_LEVEL_FREE: 1,
+  PRICE_LEVEL_INEXPENSIVE: 1,
+  PRICE_LEVEL_MODERATE: 2,
+  PRICE_LEVEL_EXPENSIVE: 3,
+  PRICE_LEVEL_VERY_EXPENSIVE: 4,
+};
+
+// Ranking weights; rating dominates, distance breaks near-ties, and places
+// matching more of the selected values float up
+const RANK_WEIGHTS = { rating: 0.6, distance: 0.3, matches: 0.1 };
+// Unrated places rank as if they had this rating
+const PRIOR_RATING = 3.5;
+
+// Ranked candidate lists kept per merged result, per filter set
+const MAX_RANKINGS_PER_RESULT = 32;
+
+type SearchablePlace = PlaceBasic & { regularOpeningHours?: { openNow?: boolean } };
+
+interface PlaceText {
+  text: string;
+  types: string[];
+  cuisine: string;
+}
+
+export interface PlaceSearchPage {
+  places: PlaceBasic[];
+  total: number;
+  nextCursor: number | null;
+}
+
+// Same fields as the app's card search index: name and types, with the
+// cuisine label only consulted by the cuisine filter
+function placeText(place: PlaceBasic): PlaceText {
+  const types = (place.types || []).map((type) => type.toLowerCase());
+  return {
+    text: `${place.displayName?.text || ''} ${types.join(' ')}`.toLowerCase(),
+    types,
+    cuisine: types.map((type) => CUISINE_LABELS[type]).find(Boolean) || '',
+  };
+}
+
+type GroupMatcher = (values: string[], place: PlaceText) => number;
+
+// Number of selected values the place matches (0 rejects the place)
+const keywordMatches =
+  (table: Record<string, string[]>): GroupMatcher =>
+  (values, { text }) =>
+    values.filter((value) => (table[value] || [value]).some((keyword) => text.includes(keyword)))
+      .length;
+
+const cuisineMatches: GroupMatcher = (values, { text, types, cuisine }) =>
+  values.filter(
+    (value) =>
+      types.some((type) => type.includes(value) || value.includes(type)) ||
+      cuisine.includes(value) ||
+      [value, ...(CUISINE_KEYWORDS[value] || [])].some((keyword) => text.includes(keyword))
+  ).length;
+
+/**
+ * Compile the search filters into one predicate returning the number of
+ * matched multi-select values, or -1 when the place is filtered out. Same
+ * semantics as the app's compiled filters (src/utils/filterPredicates.ts):
+ * every filter must pass, and a multi-select filter passes when any of its
+ * values matches.
+ */
+export function compileFilters(
+  p: Pick<PlaceSearchParams, 'openNow' | 'minRating' | 'priceLevel' | 'keyword' | 'cuisine' | 'dietary' | 'features' | 'ambiance'>
+): (place: SearchablePlace) => number {
+  const keyword = p.keyword?.trim().toLowerCase();
+  const groups = (
+    [
+      [p.cuisine, cuisineMatches],
+      [p.dietary, keywordMatches(DIETARY_KEYWORDS)],
+      [p.features, keywordMatches(FEATURE_KEYWORDS)],
+      [p.ambiance, keywordMatches(AMBIANCE_KEYWORDS)],
+    ] as Array<[string[] | undefined, GroupMatcher]>
+  ).filter((group): group is [string[], GroupMatcher] => !!group[0]?.length);
+
+  return (place) => {
+    if (p.openNow && place.regularOpeningHours?.openNow !== true) return -1;
+    if (p.minRating !== undefined && (place.rating || 0) < p.minRating) return -1;
+    if (p.priceLevel !== undefined && PRICE_LEVELS[place.priceLevel || ''] !== p.priceLevel) return -1;
+
+    if (!keyword && !groups.length) return 0;
+
+    const text = placeText(place);
+    if (keyword && !text.text.includes(keyword)) return -1;
+
+    let matched = 0;
+    for (const [values, matchesOf] of groups) {
+      const matches = matchesOf(values, text);
+      if (!matches) return -1;
+      matched += matches;
+    }
+    return matched;
+  };
+}
+
+// Stable key for the filter part of the request
+const filterKey = (p: PlaceSearchParams) =>
+  JSON.stringify([
+    p.openNow,
+    p.minRating,
+    p.priceLevel,
+    p.keyword?.trim().toLowerCase(),
+    ...[p.cuisine, p.dietary, p.features, p.ambiance].map((values) => [...(values || [])].sort()),
+  ]);
+
+/**
+ * Filter and rank candidates. Scores combine rating, closeness within the
+ * search radius and the share of selected values matched.
+ */
+export function rankPlaces(candidates: PlaceBasic[], p: PlaceSearchParams): PlaceBasic[] {
+  const predicate = compileFilters(p);
+  const center = { lat: p.lat, lng: p.lng };
+  const selected = [p.cuisine, p.dietary, p.features, p.ambiance].reduce(
+    (sum, values) => sum + (values?.length || 0),
+    0
+  );
+
+  const scored: Array<{ place: PlaceBasic; score: number; distance: number }> = [];
+  for (const place of candidates) {
+    const matches = predicate(place);
+    if (matches < 0) continue;
+
+    const distance = place.location
+      ? distanceMeters(center, { lat: place.location.latitude, lng: place.location.longitude })
+      : p.radius;
+    const score =
+      RANK_WEIGHTS.rating * ((place.rating ?? PRIOR_RATING) / 5) +
+      RANK_WEIGHTS.distance * Math.max(0, 1 - distance / p.radius) +
+      RANK_WEIGHTS.matches * (selected ? matches / selected : 0);
+
+    scored.push({ place, score, distance });
+  }
+
+  return scored
+    .sort((a, b) => b.score - a.score || a.distance - b.distance)
+    .map(({ place }) => place);
+}
+
+// Rankings remembered against the candidate list they were built from; the
+// merged nearby result is reused while its tiles are cached, so paging
+// through a deck ranks once
+const rankings = new WeakMap<PlaceBasic[], Map<string, PlaceBasic[]>>();
+
+function rankedCandidates(candidates: PlaceBasic[], p: PlaceSearchParams): PlaceBasic[] {
+  let byFilters = rankings.get(candidates);
+  if (!byFilters) {
+    byFilters = new Map();
+    rankings.set(candidates, byFilters);
+  }
+
+  const key = filterKey(p);
+  let ranked = byFilters.get(key);
+  if (!ranked) {
+    ranked = rankPlaces(candidates, p);
+    byFilters.set(key, ranked);
+    if (byFilters.size > MAX_RANKINGS_PER_RESULT) {
+      byFilters.delete(byFilters.keys().next().value as string);
+    }
+  }
+  return ranked;
+}
+
+/**
+ * Filtered, ranked and paginated deck over the merged multi-tile nearby
+ * candidates for the search circle
+ */
+export async function searchPlaces(p: PlaceSearchParams): Promise<PlaceSearchPage> {
+  const response = await places.nearby({ lat: p.lat, lng: p.lng, radius: p.radius, type: p.type });
+  const ranked = rankedCandidates(response?.places || [], p);
+
+  const end = p.cursor + p.pageSize;
+  return {
+    places: ranked.slice(p.cursor, end),
+    total: ranked.length,
+    nextCursor: end < ranked.length ? end : null,
+  };
+}
@@ -0,0 +1,53 @@
+// Keyword tables for the multi-select filters: a filter value matches when
+// any of its keywords appears in a place's text. The app's filters
+// (src/utils/filterPredicates.ts) import this module as well, so server-side
+// search and on-device filtering use the same tables.
+
+export const CUISINE_KEYWORDS: Record<string, string[]> = {
+  italian: ['pizza', 'pasta', 'italian', 'pizzeria', 'trattoria', 'ristorante', 'gelato', 'espresso'],
+  chinese: ['chinese', 'asian', 'noodle', 'dim sum', 'wok', 'szechuan', 'cantonese', 'mandarin'],
+  mexican: ['mexican', 'taco', 'burrito', 'quesadilla', 'tex-mex', 'enchilada', 'fajita', 'salsa'],
+  indian: ['indian', 'curry', 'tandoor', 'biryani', 'masala', 'naan', 'tikka', 'vindaloo'],
+  japanese: ['japanese', 'sushi', 'ramen', 'hibachi', 'teriyaki', 'tempura', 'yakitori', 'miso'],
+  american: ['american', 'burger', 'bbq', 'grill', 'diner', 'steakhouse', 'sandwich', 'wings'],
+  thai: ['thai', 'pad thai', 'curry', 'asian', 'tom yum', 'green curry', 'coconut'],
+  french: ['french', 'bistro', 'cafe', 'brasserie', 'croissant', 'crepe', 'escargot'],
+};
+
+export const DIETARY_KEYWORDS: Record<string, string[]> = {
+  vegetarian: ['vegetarian', 'veggie', 'plant-based', 'meat-free'],
+  vegan: ['vegan', 'plant-based', 'dairy-free'],
+  'gluten-free': ['gluten-free', 'gluten free', 'celiac', 'gf'],
+  'dairy-free': ['dairy-free', 'dairy free', 'lactose-free', 'non-dairy'],
+  'nut-free': ['nut-free', 'nut free', 'allergy-friendly'],
+  halal: ['halal', 'islamic', 'muslim'],
+  kosher: ['kosher', 'jewish', 'orthodox'],
+  keto: ['keto', 'ketogenic', 'low-carb', 'high-fat'],
+  'low-carb': ['low-carb', 'low carb', 'keto', 'atkins'],
+};
+
+export const FEATURE_KEYWORDS: Record<string, string[]> = {
+  'outdoor-seating': ['outdoor', 'patio', 'terrace', 'garden', 'sidewalk', 'al fresco'],
+  parking: ['parking', 'valet', 'garage', 'lot'],
+  delivery: ['delivery', 'delivers', 'door dash', 'uber eats', 'grubhub'],
+  takeout: ['takeout', 'take out', 'to go', 'pickup', 'carry out'],
+  reservations: ['reservations', 'booking', 'table', 'reserve'],
+  wifi: ['wifi', 'wi-fi', 'internet', 'wireless'],
+  'wheelchair-accessible': ['wheelchair', 'accessible', 'ada', 'handicap'],
+  'live-music': ['live music', 'band', 'entertainment', 'acoustic'],
+  bar: ['bar', 'cocktails', 'drinks', 'alcohol', 'wine', 'beer'],
+  'happy-hour': ['happy hour', 'happy-hour', 'specials', 'discounts'],
+};
+
+export const AMBIANCE_KEYWORDS: Record<string, string[]> = {
+  casual: ['casual', 'relaxed', 'informal', 'laid-back', 'family'],
+  'fine-dining': ['fine dining', 'upscale', 'elegant', 'sophisticated', 'gourmet', 'michelin'],
+  'family-friendly': ['family', 'kids', 'children', 'playground', 'kid-friendly'],
+  romantic: ['romantic', 'intimate', 'date', 'candlelit', 'cozy'],
+  business: ['business', 'corporate', 'meeting', 'professional', 'lunch'],
+  trendy: ['trendy', 'hip', 'modern', 'contemporary', 'stylish', 'chic'],
+  quiet: ['quiet', 'peaceful', 'intimate', 'serene', 'calm'],
+  lively: ['lively', 'energetic', 'vibrant', 'bustling', 'loud', 'party'],
+  'sports-bar': ['sports', 'bar', 'game', 'tv', 'screen', 'pub'],
+  rooftop: ['rooftop', 'scenic', 'view', 'skyline', 'terrace', 'panoramic'],
+};
@@ -17,10 +17,50 @@ export const textSearchSchema = z.object({
   type: z.string().optional(),
 });
 
+// Multi-select filter values, lowercased
+const filterValuesSchema = z.array(z.string().trim().toLowerCase().min(1)).max(20).optional();
+
+// Filtered, ranked deck over the nearby candidates (FilterEngine semantics)
+export const placeSearchSchema = z.object({
+  lat: z.number().min(-90).max(90),
+  lng: z.number().min(-180).max(180),
+  radius: z.number().min(1).max(50000).optional().default(1500),
+  type: z.string().optional().default('restaurant'),
+  keyword: z.string().max(100).optional(),
+  openNow: z.boolean().optional().default(false),
+  minRating: z.number().min(0).max(5).optional(),
+  priceLevel: z.number().int().min(1).max(4).optional(),
+  cuisine: filterValuesSchema,
+  dietary: filterValuesSchema,
+  features: filterValuesSchema,
+  ambiance: filterValuesSchema,
+  cursor: z.number().int().min(0).optional().default(0),
+  pageSize: z.number().int().min(1).max(50).optional().default(20),
+});
+
 export const placeIdSchema = z.object({
   placeId: z.string().min(1),
 });
 
+export const photoVariantSchema = z.object({
+  photoReference: z.string().min(1),
+  width: z.number().min(1).max(4800),
+  format: z.enum(['avif', 'webp', 'original']).optional(),
+});
+
+// Field tiers for place details, each a superset of the previous one:
+// basic (listing fields), contact (phone, website, hours), atmosphere (reviews, summary)
+export const detailsTierSchema = z.enum(['basic', 'contact', 'atmosphere']);
+
+export const detailsQuerySchema = z.object({
+  tier: detailsTierSchema.optional().default('atmosphere'),
+});
+
+export const detailsBatchSchema = z.object({
+  placeIds: z.array(z.string().min(1)).min(1).max(50),
+  tier: detailsTierSchema.optional().default('atmosphere'),
+});
+
 export const photoReferenceSchema = z.object({
   photoReference: z.string().min(1),
   maxWidth: z.number().min(1).max(4800).optional().default(400),
@@ -46,6 +86,8 @@ export interface PlaceBasic {
       uri: string;
       photoUri: string;
     }>;
+    // Base64 ThumbHash, added by the backend for the leading photos
+    thumbhash?: string;
   }>;
   types?: string[];
   location?: {
@@ -100,4 +142,8 @@ export interface PlaceDetails extends PlaceBasic {
 
 export type NearbySearchParams = z.infer<typeof nearbySearchSchema>;
 
-export type TextSearchParams = z.infer<typeof textSearchSchema>;
\ No newline at end of file
+export type TextSearchParams = z.infer<typeof textSearchSchema>;
+
+export type PlaceSearchParams = z.infer<typeof placeSearchSchema>;
+
+export type DetailsTier = z.infer<typeof detailsTierSchema>;
\ No newline at end of file
@@ -0,0 +1,30 @@
+// Babel plugin: removes devLog.*(...) calls from release bundles
+// The whole call goes, arguments included, so a stripped log never builds its
+// message. Only calls on the devLog imported from utils/devLog are touched.
+
+module.exports = function stripDevLog({ types: t }) {
+  const isDevLogImport = (binding) =>
+    binding &&
+    binding.kind === 'module' &&
+    /(^|\/)devLog$/.test(binding.path.parent.source.value);
+
+  return {
+    name: 'strip-dev-log',
+    visitor: {
+      CallExpression(path) {
+        const callee = path.get('callee');
+        if (!callee.isMemberExpression()) return;
+
+        const object = callee.get('object');
+        if (!object.isIdentifier({ name: 'devLog' })) return;
+        if (!isDevLogImport(path.scope.getBinding('devLog'))) return;
+
+        if (path.parentPath.isExpressionStatement()) {
+          path.parentPath.remove();
+        } else {
+          path.replaceWith(t.unaryExpression('void', t.numericLiteral(0)));
+        }
+      },
+    },
+  };
+};
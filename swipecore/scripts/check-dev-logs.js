@@ -0,0 +1,43 @@
+// Checks that release builds carry no debug logging from the hot paths:
+// compiles each file with the production babel config and fails if a devLog
+// call, or a console.log/info/debug call, survives. console.warn/error stay:
+// they report real failures and are meant to reach release logs.
+//
+// Usage: npm run check:dev-logs
+
+const path = require('path');
+const babel = require('@babel/core');
+
+const ROOT = path.resolve(__dirname, '..');
+
+const FILES = [
+  'src/hooks/useFilters.ts',
+  'src/hooks/useFilteredPlaces.ts',
+  'src/services/prefetcher.ts',
+  'src/components/SwipeCard.tsx',
+];
+
+const LOG_CALL = /\b(devLog\.(log|info|debug|warn)|console\.(log|info|debug))\s*\(/g;
+
+let failures = 0;
+
+for (const file of FILES) {
+  const filename = path.join(ROOT, file);
+  const { code } = babel.transformFileSync(filename, {
+    cwd: ROOT,
+    envName: 'production',
+    // Commented-out code is not a log call
+    comments: false,
+    caller: { name: 'metro', bundler: 'metro', platform: 'ios' },
+  });
+
+  const calls = code.match(LOG_CALL) || [];
+  if (calls.length > 0) {
+    failures++;
+    console.error(`❌ ${file}: ${calls.length} log call(s) left in the release build`);
+  } else {
+    console.log(`✅ ${file}: no log calls in the release build`);
+  }
+}
+
+process.exit(failures > 0 ? 1 : 0);
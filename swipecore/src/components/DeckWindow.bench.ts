@@ -0,0 +1,112 @@
+// Frame-time harness for the deck's swipe animations
+// Scripts swipes through DeckWindow and counts the frames the UI thread
+// missed, once idle and once with the JS thread kept busy after every swipe
+// (as filter runs or prefetch logging would)
+
+import { RefObject, useCallback } from 'react';
+import { useFrameCallback, useSharedValue } from 'react-native-reanimated';
+import { DeckWindowHandle } from './DeckWindow';
+
+// 60 Hz frame budget
+const FRAME_MS = 1000 / 60;
+
+export interface SwipeFrameStats {
+  frames: number;
+  droppedFrames: number;
+  worstFrameMs: number;
+  averageFrameMs: number;
+}
+
+export interface SwipeFrameBenchmarkOptions {
+  // Swipes per pass; every swipe passes a card, so the deck needs twice this
+  swipes?: number;
+  // Time between swipes, longer than the swipe animation
+  intervalMs?: number;
+  // How long the JS thread is blocked after each swipe in the loaded pass
+  jsBusyMs?: number;
+}
+
+const sleep = (ms: number) => new Promise(resolve => setTimeout(resolve, ms));
+
+function blockJsThread(ms: number) {
+  const until = Date.now() + ms;
+  while (Date.now() < until) {
+    // Busy wait
+  }
+}
+
+/**
+ * Returns a function that runs the benchmark against the deck behind
+ * `deckRef` and logs the results (for development/debugging)
+ */
+export function useSwipeFrameBenchmark(deckRef: RefObject<DeckWindowHandle>) {
+  const frames = useSharedValue(0);
+  const dropped = useSharedValue(0);
+  const worst = useSharedValue(0);
+  const total = useSharedValue(0);
+
+  // Runs on the UI thread every frame while active
+  const recorder = useFrameCallback(({ timeSincePreviousFrame }) => {
+    'worklet';
+    if (timeSincePreviousFrame === null) return;
+    frames.value += 1;
+    total.value += timeSincePreviousFrame;
+    if (timeSincePreviousFrame > worst.value) worst.value = timeSincePreviousFrame;
+    // Frames that should have been drawn within this interval
+    const missed = Math.round(timeSincePreviousFrame / FRAME_MS) - 1;
+    if (missed > 0) dropped.value += missed;
+  }, false);
+
+  const recordPass = useCallback(
+    async (swipes: number, intervalMs: number, jsBusyMs: number): Promise<SwipeFrameStats> => {
+      frames.value = 0;
+      dropped.value = 0;
+      worst.value = 0;
+      total.value = 0;
+      recorder.setActive(true);
+
+      for (let i = 0; i < swipes; i++) {
+        // Passes only; a right swipe opens the menu
+        deckRef.current?.swipe('left');
+        if (jsBusyMs > 0) blockJsThread(jsBusyMs);
+        await sleep(intervalMs);
+      }
+
+      recorder.setActive(false);
+      return {
+        frames: frames.value,
+        droppedFrames: dropped.value,
+        worstFrameMs: worst.value,
+        averageFrameMs: frames.value > 0 ? total.value / frames.value : 0,
+      };
+    },
+    [deckRef, recorder]
+  );
+
+  return useCallback(
+    async ({ swipes = 10, intervalMs = 400, jsBusyMs = 50 }: SwipeFrameBenchmarkOptions = {}) => {
+      console.log('🧪 Running Swipe Frame Benchmark\n');
+
+      const idle = await recordPass(swipes, intervalMs, 0);
+      const loaded = await recordPass(swipes, intervalMs, jsBusyMs);
+
+      const report = (label: string, stats: SwipeFrameStats) =>
+        console.log(
+          `  ${label} ${stats.droppedFrames} dropped of ${stats.frames} frames ` +
+            `(avg ${stats.averageFrameMs.toFixed(1)}ms, worst ${stats.worstFrameMs.toFixed(1)}ms)`
+        );
+
+      console.log(`${swipes} scripted swipes per pass:`);
+      report('😌 JS idle:        ', idle);
+      report(`🏋️ JS busy ${jsBusyMs}ms:`, loaded);
+      console.log('');
+
+      return { idle, loaded };
+    },
+    [recordPass]
+  );
+}
+
+// Example usage (in SwipeDeck, which holds the deck ref):
+// const runSwipeFrameBenchmark = useSwipeFrameBenchmark(deckRef);
+// runSwipeFrameBenchmark();
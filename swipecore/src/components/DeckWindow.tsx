@@ -0,0 +1,373 @@
+import React, {
+  forwardRef,
+  useCallback,
+  useEffect,
+  useImperativeHandle,
+  useLayoutEffect,
+  useMemo,
+  useRef,
+  useState,
+} from "react";
+import { StyleSheet, useWindowDimensions, View } from "react-native";
+import { Gesture, GestureDetector } from "react-native-gesture-handler";
+import Animated, {
+  Extrapolation,
+  interpolate,
+  runOnJS,
+  SharedValue,
+  useAnimatedStyle,
+  useSharedValue,
+  withSpring,
+  withTiming,
+} from "react-native-reanimated";
+import { RestaurantCard } from "../types/Types";
+
+export type DeckSwipeDirection = "left" | "right";
+
+export interface DeckWindowHandle {
+  // Throw the top card off the deck as if it had been swiped
+  swipe: (direction: DeckSwipeDirection) => void;
+}
+
+interface DeckWindowProps {
+  cards: RestaurantCard[];
+  // Number of card views kept mounted; views are recycled as the deck advances
+  poolSize: number;
+  renderCard: (card: RestaurantCard) => React.ReactNode;
+  onSwiped: (card: RestaurantCard, direction: DeckSwipeDirection) => void;
+  // Keep the pool mounted but invisible (expanded card, ads)
+  hidden?: boolean;
+  swipeAnimationDuration?: number;
+  // Scale of the cards under the top one
+  stackScale?: number;
+  // Rotation in radians at half a screen width of drag
+  maxRotation?: number;
+}
+
+// Horizontal movement before the deck takes the gesture from the card
+const SWIPE_SLOP = 8;
+// Release velocity (points per second) that completes a swipe short of the
+// distance threshold
+const SWIPE_VELOCITY = 500;
+
+/**
+ * Fixed pool of card slots. A card keeps its slot while it stays in the
+ * window; the slot a swiped card frees is handed to the card entering at the
+ * bottom, so React updates that mounted view instead of mounting a new one.
+ */
+function assignSlots(
+  windowCards: RestaurantCard[],
+  previous: Map<string, number>,
+  poolSize: number
+): Map<string, number> {
+  const slots = new Map<string, number>();
+  const used = new Set<number>();
+
+  for (const card of windowCards) {
+    const slot = previous.get(card.id);
+    if (slot !== undefined && slot < poolSize) {
+      slots.set(card.id, slot);
+      used.add(slot);
+    }
+  }
+
+  let free = 0;
+  for (const card of windowCards) {
+    if (slots.has(card.id)) continue;
+    while (used.has(free)) free++;
+    slots.set(card.id, free);
+    used.add(free);
+  }
+
+  return slots;
+}
+
+interface DeckSlotHandle {
+  fling: (direction: DeckSwipeDirection) => void;
+}
+
+interface DeckSlotProps {
+  card: RestaurantCard;
+  index: number;
+  zIndex: number;
+  // Horizontal drag of the top card, read by the card under it
+  topX: SharedValue<number>;
+  width: number;
+  renderCard: (card: RestaurantCard) => React.ReactNode;
+  onSwiped: (card: RestaurantCard, direction: DeckSwipeDirection) => void;
+  swipeAnimationDuration: number;
+  stackScale: number;
+  maxRotation: number;
+}
+
+/**
+ * One pooled card view. Drag, tilt, labels and the throw run as worklets on
+ * the UI thread; JS is only called once the card has left the screen.
+ */
+const DeckSlot = React.memo(
+  forwardRef<DeckSlotHandle, DeckSlotProps>(function DeckSlot(
+    {
+      card,
+      index,
+      zIndex,
+      topX,
+      width,
+      renderCard,
+      onSwiped,
+      swipeAnimationDuration,
+      stackScale,
+      maxRotation,
+    },
+    ref
+  ) {
+    const x = useSharedValue(0);
+    const y = useSharedValue(0);
+    const isTop = index === 0;
+
+    // Recentre before paint when the slot is handed another card
+    useLayoutEffect(() => {
+      x.value = 0;
+      y.value = 0;
+    }, [card.id]);
+
+    const handleSwiped = useCallback(
+      (direction: DeckSwipeDirection) => onSwiped(card, direction),
+      [card, onSwiped]
+    );
+
+    const fling = useCallback(
+      (direction: DeckSwipeDirection, toY: number) => {
+        "worklet";
+        const toX = (direction === "right" ? 1.5 : -1.5) * width;
+        topX.value = withTiming(toX, { duration: swipeAnimationDuration });
+        y.value = withTiming(toY, { duration: swipeAnimationDuration });
+        x.value = withTiming(toX, { duration: swipeAnimationDuration }, (finished) => {
+          if (finished) runOnJS(handleSwiped)(direction);
+        });
+      },
+      [width, swipeAnimationDuration, handleSwiped]
+    );
+
+    useImperativeHandle(
+      ref,
+      () => ({ fling: (direction) => fling(direction, 0) }),
+      [fling]
+    );
+
+    const pan = useMemo(
+      () =>
+        Gesture.Pan()
+          .enabled(isTop)
+          .activeOffsetX([-SWIPE_SLOP, SWIPE_SLOP])
+          // Vertical drags belong to the card's own scroll views
+          .failOffsetY([-SWIPE_SLOP, SWIPE_SLOP])
+          .onUpdate((e) => {
+            x.value = e.translationX;
+            y.value = e.translationY;
+            topX.value = e.translationX;
+          })
+          .onEnd((e) => {
+            const thrown =
+              Math.abs(e.translationX) > width / 4 ||
+              (Math.abs(e.velocityX) > SWIPE_VELOCITY &&
+                Math.sign(e.velocityX) === Math.sign(e.translationX));
+            if (thrown) {
+              fling(e.translationX > 0 ? "right" : "left", e.translationY);
+              return;
+            }
+            x.value = withSpring(0);
+            y.value = withSpring(0);
+            topX.value = withSpring(0);
+          }),
+      [isTop, width, fling]
+    );
+
+    const threshold = width / 4;
+    const cardStyle = useAnimatedStyle(() => {
+      if (isTop) {
+        const rotation = interpolate(
+          x.value,
+          [-width / 2, 0, width / 2],
+          [-maxRotation, 0, maxRotation]
+        );
+        return {
+          transform: [
+            { translateX: x.value },
+            { translateY: y.value },
+            { rotate: `${rotation}rad` },
+          ],
+        };
+      }
+      // The next card grows into place as the top one leaves
+      const scale =
+        index === 1
+          ? interpolate(Math.abs(topX.value), [0, threshold], [stackScale, 1], Extrapolation.CLAMP)
+          : stackScale;
+      return { transform: [{ scale }] };
+    }, [isTop, index, width, stackScale, maxRotation]);
+
+    const menuLabelStyle = useAnimatedStyle(() => ({
+      opacity: interpolate(x.value, [0, threshold], [0, 1], Extrapolation.CLAMP),
+    }), [threshold]);
+    const passLabelStyle = useAnimatedStyle(() => ({
+      opacity: interpolate(x.value, [-threshold, 0], [1, 0], Extrapolation.CLAMP),
+    }), [threshold]);
+
+    return (
+      <GestureDetector gesture={pan}>
+        <Animated.View
+          style={[styles.slot, { zIndex }, cardStyle]}
+          pointerEvents={isTop ? "auto" : "none"}
+        >
+          {renderCard(card)}
+          {isTop && (
+            <>
+              <Animated.Text style={[styles.label, styles.menuLabel, menuLabelStyle]}>
+                MENU
+              </Animated.Text>
+              <Animated.Text style={[styles.label, styles.passLabel, passLabelStyle]}>
+                PASS
+              </Animated.Text>
+            </>
+          )}
+        </Animated.View>
+      </GestureDetector>
+    );
+  })
+);
+
+/**
+ * Windowed deck renderer: only the top `poolSize` cards are mounted, however
+ * long the deck grows. The top card follows the drag, tilts and shows the
+ * PASS/MENU labels; a swiped card stays hidden until the parent removes it.
+ */
+export const DeckWindow = forwardRef<DeckWindowHandle, DeckWindowProps>(
+  function DeckWindow(
+    {
+      cards,
+      poolSize,
+      renderCard,
+      onSwiped,
+      hidden = false,
+      swipeAnimationDuration = 200,
+      stackScale = 0.95,
+      maxRotation = 0.3,
+    },
+    ref
+  ) {
+    const { width } = useWindowDimensions();
+    // Swiped cards the parent has not removed yet
+    const [dismissed, setDismissed] = useState<ReadonlySet<string>>(new Set());
+    const topX = useSharedValue(0);
+
+    const windowCards = useMemo(() => {
+      const visible: RestaurantCard[] = [];
+      for (const card of cards) {
+        if (visible.length >= poolSize) break;
+        if (!dismissed.has(card.id)) visible.push(card);
+      }
+      return visible;
+    }, [cards, dismissed, poolSize]);
+
+    const slotsRef = useRef(new Map<string, number>());
+    const slots = useMemo(
+      () => assignSlots(windowCards, slotsRef.current, poolSize),
+      [windowCards, poolSize]
+    );
+    useLayoutEffect(() => {
+      slotsRef.current = slots;
+    }, [slots]);
+
+    // The card under a new top card starts from the stacked scale
+    const topCard = windowCards[0];
+    useLayoutEffect(() => {
+      topX.value = 0;
+    }, [topCard?.id]);
+
+    // Forget dismissed cards once the parent has removed them
+    useEffect(() => {
+      setDismissed((prev) => {
+        if (prev.size === 0) return prev;
+        const ids = new Set(cards.map((card) => card.id));
+        const next = new Set([...prev].filter((id) => ids.has(id)));
+        return next.size === prev.size ? prev : next;
+      });
+    }, [cards]);
+
+    const handleSwiped = useCallback(
+      (card: RestaurantCard, direction: DeckSwipeDirection) => {
+        setDismissed((prev) => new Set(prev).add(card.id));
+        onSwiped(card, direction);
+      },
+      [onSwiped]
+    );
+
+    const topSlotRef = useRef<DeckSlotHandle>(null);
+    useImperativeHandle(
+      ref,
+      () => ({
+        swipe: (direction) => topSlotRef.current?.fling(direction),
+      }),
+      []
+    );
+
+    return (
+      <View
+        style={[styles.deck, hidden && styles.hidden]}
+        pointerEvents={hidden ? "none" : "box-none"}
+      >
+        {windowCards
+          .map((card, index) => ({ card, index }))
+          .reverse()
+          .map(({ card, index }) => {
+            const slot = slots.get(card.id)!;
+            return (
+              <DeckSlot
+                key={`slot-${slot}`}
+                ref={index === 0 ? topSlotRef : undefined}
+                card={card}
+                index={index}
+                zIndex={windowCards.length - index}
+                topX={topX}
+                width={width}
+                renderCard={renderCard}
+                onSwiped={handleSwiped}
+                swipeAnimationDuration={swipeAnimationDuration}
+                stackScale={stackScale}
+                maxRotation={maxRotation}
+              />
+            );
+          })}
+      </View>
+    );
+  }
+);
+
+const styles = StyleSheet.create({
+  deck: {
+    ...StyleSheet.absoluteFillObject,
+  },
+  hidden: {
+    display: "none",
+  },
+  slot: {
+    ...StyleSheet.absoluteFillObject,
+    alignItems: "center",
+    justifyContent: "center",
+  },
+  label: {
+    position: "absolute",
+    top: 30,
+    fontSize: 24,
+    fontWeight: "700",
+    backgroundColor: "transparent",
+  },
+  menuLabel: {
+    left: 30,
+    color: "green",
+  },
+  passLabel: {
+    right: 30,
+    color: "red",
+  },
+});
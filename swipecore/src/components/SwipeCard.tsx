@@ -6,10 +6,14 @@ import {
   Image,
   Dimensions,
   Linking,
-  Animated,
   ActivityIndicator,
 } from "react-native";
-import Swiper from "react-native-deck-swiper";
+import Animated, {
+  runOnJS,
+  useAnimatedStyle,
+  useSharedValue,
+  withTiming,
+} from "react-native-reanimated";
 
 import { RestaurantCard, SwipeConfig } from "@/types/Types";
 import { Ionicons } from "@expo/vector-icons";
@@ -22,6 +26,9 @@ import React, {
 } from "react";
 
 import { openUrl, getDomainFromUrl } from "@/utils/browser";
+import { devLog } from "@/utils/devLog";
+import { useCard } from "@/hooks/useCardStore";
+import { placeholderUri } from "@/utils/photoPlaceholders";
 import { ReactNativeModal } from "@/components/ui/modal";
 import {
   getDeviceInfo,
@@ -35,6 +42,10 @@ import { Platform } from "react-native";
 // iOS-specific static bar height
 const IOS_STATIC_BAR_HEIGHT = 44; // Standard iOS status bar height
 
+// Expanded details slide up this far while fading in
+const EXPAND_OFFSET = 48;
+const EXPAND_DURATION = 220;
+
 interface SwipeCardProps {
   card: RestaurantCard;
   //onSwipe: (cardId: string, direction: "menu" | "pass") => void;
@@ -48,16 +59,20 @@ interface SwipeCardProps {
 
 export const SwipeCard = React.memo(
   function SwipeCard({
-    card,
+    card: cardProp,
     onCardTap,
     expandCard,
     unExpandCard,
     isExpanded: initialIsExpanded = false,
     forceNormalView = false,
   }: SwipeCardProps) {
+    // Latest version from the card store; prefetched details re-render this
+    // card only
+    const card = useCard(cardProp);
+
     // Debug logging for component renders
     if (__DEV__) {
-      console.log(`🎨 [SwipeCard] Rendering card ${card.id}`, {
+      devLog.log(`🎨 [SwipeCard] Rendering card ${card.id}`, {
         hasAdvDetails: !!card.advDetails,
         hasPhone: !!card.phone,
         hasWebsite: !!card.website,
@@ -74,6 +89,38 @@ export const SwipeCard = React.memo(
     const [openMapDialog, setOpenMapDialog] = useState(false);
     const [openMapDialogAddress, setOpenMapDialogAddress] = useState("");
 
+    const [detailsShown, setDetailsShown] = useState(initialIsExpanded);
+
+    // The deck recycles card views, so start fresh when handed another card
+    const [shownCardId, setShownCardId] = useState(card.id);
+    if (shownCardId !== card.id) {
+      setShownCardId(card.id);
+      setIsExpanded(initialIsExpanded);
+      setCurrentImageIndex(0);
+      setIsLoadingDetails(false);
+      setOpenMapDialog(false);
+      setDetailsShown(initialIsExpanded);
+    }
+
+    // Expand/collapse runs on the UI thread; the details stay mounted until
+    // the collapse has finished
+    const expandProgress = useSharedValue(0);
+    useEffect(() => {
+      if (isExpanded) {
+        setDetailsShown(true);
+        expandProgress.value = withTiming(1, { duration: EXPAND_DURATION });
+      } else {
+        expandProgress.value = withTiming(0, { duration: EXPAND_DURATION }, (finished) => {
+          if (finished) runOnJS(setDetailsShown)(false);
+        });
+      }
+    }, [isExpanded]);
+
+    const expandStyle = useAnimatedStyle(() => ({
+      opacity: expandProgress.value,
+      transform: [{ translateY: (1 - expandProgress.value) * EXPAND_OFFSET }],
+    }));
+
     const queryClient = useQueryClient();
 
     // Check if details are available and handle loading state
@@ -134,7 +181,7 @@ export const SwipeCard = React.memo(
     // Debug logging for card data changes (only log when key data changes)
     useEffect(() => {
       if (__DEV__) {
-        console.log(`[SwipeCard] Card ${card.id} data changed:`, {
+        devLog.log(`[SwipeCard] Card ${card.id} data changed:`, {
           hasAdvDetails: !!card.advDetails,
           hasPhone: !!card.phone,
           hasWebsite: !!card.website,
@@ -152,8 +199,8 @@ export const SwipeCard = React.memo(
     // Memoize expensive callbacks for better performance
     const handleMapsClick = useCallback((resturantAddress: string) => {
       if (typeof __DEV__ !== "undefined" && __DEV__) {
-        console.log("handleMapsClick called with address:", resturantAddress);
-        console.log("Setting dialog state:", {
+        devLog.log("handleMapsClick called with address:", resturantAddress);
+        devLog.log("Setting dialog state:", {
           address: resturantAddress,
           hasAddress: !!resturantAddress,
         });
@@ -164,7 +211,7 @@ export const SwipeCard = React.memo(
 
     const handlePhoneCall = useCallback(async (phoneNumber: string) => {
       if (typeof __DEV__ !== "undefined" && __DEV__) {
-        console.log("handlePhoneCall called with number:", phoneNumber);
+        devLog.log("handlePhoneCall called with number:", phoneNumber);
       }
 
       try {
@@ -174,7 +221,7 @@ export const SwipeCard = React.memo(
             const phoneUrl = `tel:${phoneNumber}`;
             await Linking.openURL(phoneUrl);
             if (typeof __DEV__ !== "undefined" && __DEV__) {
-              console.log(
+              devLog.log(
                 "Phone call initiated successfully via React Native Linking:",
                 phoneNumber
               );
@@ -182,7 +229,7 @@ export const SwipeCard = React.memo(
             return; // Success, exit early
           } catch (phoneCallError) {
             if (typeof __DEV__ !== "undefined" && __DEV__) {
-              console.log(
+              devLog.log(
                 "Phone call via React Native Linking failed, trying fallback:",
                 phoneCallError
               );
@@ -193,7 +240,7 @@ export const SwipeCard = React.memo(
         // Fallback: Try to open the phone app with the number
         const phoneUrl = `tel:${phoneNumber}`;
         if (typeof __DEV__ !== "undefined" && __DEV__) {
-          console.log("Attempting to open phone URL:", phoneUrl);
+          devLog.log("Attempting to open phone URL:", phoneUrl);
         }
 
         // For React Native, we need to use Linking instead of openUrl for tel: protocol
@@ -202,14 +249,14 @@ export const SwipeCard = React.memo(
             // First try to open directly without checking canOpenURL
             await Linking.openURL(phoneUrl);
             if (typeof __DEV__ !== "undefined" && __DEV__) {
-              console.log(
+              devLog.log(
                 "Phone URL opened successfully via Linking:",
                 phoneUrl
               );
             }
           } catch (linkingError) {
             if (typeof __DEV__ !== "undefined" && __DEV__) {
-              console.log(
+              devLog.log(
                 "Direct Linking failed, trying canOpenURL check:",
                 linkingError
               );
@@ -221,7 +268,7 @@ export const SwipeCard = React.memo(
               if (canOpen) {
                 await Linking.openURL(phoneUrl);
                 if (typeof __DEV__ !== "undefined" && __DEV__) {
-                  console.log(
+                  devLog.log(
                     "Phone URL opened successfully after canOpenURL check:",
                     phoneUrl
                   );
@@ -231,7 +278,7 @@ export const SwipeCard = React.memo(
               }
             } catch (canOpenError) {
               if (typeof __DEV__ !== "undefined" && __DEV__) {
-                console.log("canOpenURL also failed:", canOpenError);
+                devLog.log("canOpenURL also failed:", canOpenError);
               }
               throw canOpenError;
             }
@@ -240,7 +287,7 @@ export const SwipeCard = React.memo(
           // Fallback to openUrl for web
           await openUrl(phoneUrl);
           if (typeof __DEV__ !== "undefined" && __DEV__) {
-            console.log("Phone URL opened successfully via openUrl:", phoneUrl);
+            devLog.log("Phone URL opened successfully via openUrl:", phoneUrl);
           }
         }
       } catch (error) {
@@ -255,12 +302,12 @@ export const SwipeCard = React.memo(
           const alternativeUrl = `tel:${cleanNumber}`;
 
           if (typeof __DEV__ !== "undefined" && __DEV__) {
-            console.log("Trying alternative phone URL format:", alternativeUrl);
+            devLog.log("Trying alternative phone URL format:", alternativeUrl);
           }
 
           await Linking.openURL(alternativeUrl);
           if (typeof __DEV__ !== "undefined" && __DEV__) {
-            console.log(
+            devLog.log(
               "Alternative phone URL opened successfully:",
               alternativeUrl
             );
@@ -268,7 +315,7 @@ export const SwipeCard = React.memo(
           return;
         } catch (fallbackError) {
           if (typeof __DEV__ !== "undefined" && __DEV__) {
-            console.log("Alternative phone URL also failed:", fallbackError);
+            devLog.log("Alternative phone URL also failed:", fallbackError);
           }
         }
 
@@ -282,7 +329,7 @@ export const SwipeCard = React.memo(
     const openMapsApp = useCallback(
       async (app: "google" | "apple") => {
         if (typeof __DEV__ !== "undefined" && __DEV__) {
-          console.log("openMapsApp called with card:", {
+          devLog.log("openMapsApp called with card:", {
             cardId: card.id,
             cardTitle: card.title,
             cardAddress: card.address,
@@ -307,7 +354,7 @@ export const SwipeCard = React.memo(
         }
 
         if (typeof __DEV__ !== "undefined" && __DEV__) {
-          console.log("openMapsApp called:", {
+          devLog.log("openMapsApp called:", {
             app,
             address,
             url,
@@ -318,11 +365,11 @@ export const SwipeCard = React.memo(
         if (url) {
           try {
             if (typeof __DEV__ !== "undefined" && __DEV__) {
-              console.log("Attempting to open URL:", url);
+              devLog.log("Attempting to open URL:", url);
             }
             await openUrl(url);
             if (typeof __DEV__ !== "undefined" && __DEV__) {
-              console.log("URL opened successfully");
+              devLog.log("URL opened successfully");
             }
           } catch (e) {
             if (typeof __DEV__ !== "undefined" && __DEV__) {
@@ -363,6 +410,12 @@ export const SwipeCard = React.memo(
       return card.photos[currentImageIndex]?.url;
     }, [card.photos, currentImageIndex]);
 
+    // Blurred ThumbHash drawn instantly, under the photo while it loads
+    const currentPlaceholderUri = useMemo(
+      () => placeholderUri(card.photos?.[currentImageIndex]?.thumbhash),
+      [card.photos, currentImageIndex]
+    );
+
     // Memoize star rendering for better performance
     const renderStars = useCallback((rating: number) => {
       const stars = [];
@@ -589,8 +642,8 @@ export const SwipeCard = React.memo(
     // Loading component for when details are being fetched
     const LoadingDetailsComponent = () => {
       return (
-        <View
-          style={{
+        <Animated.View
+          style={[{
             position: "absolute",
             top: 0,
             left: 0,
@@ -604,7 +657,7 @@ export const SwipeCard = React.memo(
             zIndex: 3,
             justifyContent: "center",
             alignItems: "center",
-          }}
+          }, expandStyle]}
         >
           <View style={{ alignItems: "center", padding: 24 }}>
             <ActivityIndicator size="large" color="#3B82F6" />
@@ -631,7 +684,7 @@ export const SwipeCard = React.memo(
               Fetching restaurant information and reviews
             </Text>
           </View>
-        </View>
+        </Animated.View>
       );
     };
 
@@ -738,9 +791,9 @@ export const SwipeCard = React.memo(
             <TouchableOpacity
               onPress={() => {
                 if (typeof __DEV__ !== "undefined" && __DEV__) {
-                  console.log("Open Maps button pressed");
-                  console.log("Card address:", card?.address);
-                  console.log(
+                  devLog.log("Open Maps button pressed");
+                  devLog.log("Card address:", card?.address);
+                  devLog.log(
                     "Calling handleMapsClick with:",
                     card?.address || ""
                   );
@@ -792,7 +845,7 @@ export const SwipeCard = React.memo(
             <TouchableOpacity
               onPress={async () => {
                 if (typeof __DEV__ !== "undefined" && __DEV__) {
-                  console.log("Call button pressed for:", card.phone);
+                  devLog.log("Call button pressed for:", card.phone);
                 }
                 try {
                   if (card.phone) {
@@ -1028,8 +1081,8 @@ export const SwipeCard = React.memo(
       };
 
       return (
-        <View
-          style={{
+        <Animated.View
+          style={[{
             position: "absolute",
             top: 0,
             left: 0,
@@ -1041,7 +1094,7 @@ export const SwipeCard = React.memo(
             borderRadius: 20,
             overflow: "hidden",
             zIndex: 3,
-          }}
+          }, expandStyle]}
         >
           {/* Tap to close area at the very top - smaller to allow scrolling */}
           <TouchableOpacity
@@ -1095,7 +1148,7 @@ export const SwipeCard = React.memo(
               {card.reviews && card.reviews.length > 0 && <ReviewsSection />}
             </ScrollView>
           </View>
-        </View>
+        </Animated.View>
       );
     };
 
@@ -1110,7 +1163,7 @@ export const SwipeCard = React.memo(
             <TouchableOpacity
               onPress={async () => {
                 if (typeof __DEV__ !== "undefined" && __DEV__) {
-                  console.log("Google Maps button pressed");
+                  devLog.log("Google Maps button pressed");
                 }
                 try {
                   await openMapsApp("google");
@@ -1139,7 +1192,7 @@ export const SwipeCard = React.memo(
               <TouchableOpacity
                 onPress={async () => {
                   if (typeof __DEV__ !== "undefined" && __DEV__) {
-                    console.log("Apple Maps button pressed");
+                    devLog.log("Apple Maps button pressed");
                   }
                   try {
                     await openMapsApp("apple");
@@ -1201,6 +1254,20 @@ export const SwipeCard = React.memo(
             overflow: "hidden",
           }}
         >
+          {currentPlaceholderUri && (
+            <Image
+              source={{ uri: currentPlaceholderUri }}
+              style={{
+                position: "absolute",
+                width: "100%",
+                height: "100%",
+                resizeMode: "cover",
+                borderRadius: 20,
+              }}
+              blurRadius={8}
+              fadeDuration={0}
+            />
+          )}
           {currentImageUrl ? (
             <Image
               source={{ uri: currentImageUrl }}
@@ -1215,7 +1282,7 @@ export const SwipeCard = React.memo(
               resizeMethod="resize"
               progressiveRenderingEnabled={true}
             />
-          ) : (
+          ) : currentPlaceholderUri ? null : (
             <View
               style={{
                 flex: 1,
@@ -1355,7 +1422,7 @@ export const SwipeCard = React.memo(
         </View>
 
         {/* Content Overlays */}
-        {!forceNormalView && isExpanded ? (
+        {!forceNormalView && (isExpanded || detailsShown) ? (
           isLoadingDetails ? (
             <LoadingDetailsComponent />
           ) : (
@@ -1399,6 +1466,7 @@ export const SwipeCard = React.memo(
       prevProps.isExpanded !== nextProps.isExpanded ||
       prevProps.forceNormalView !== nextProps.forceNormalView ||
       prevCard.photos?.[0]?.url !== nextCard.photos?.[0]?.url ||
+      prevCard.photos?.[0]?.thumbhash !== nextCard.photos?.[0]?.thumbhash ||
       prevCard.rating !== nextCard.rating ||
       prevCard.title !== nextCard.title
     ) {
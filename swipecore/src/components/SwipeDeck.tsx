@@ -15,7 +15,7 @@ import {
 } from "react-native";
 import { Ionicons } from "@expo/vector-icons";
 import { useQueryClient } from "@tanstack/react-query";
-import Swiper from "react-native-deck-swiper";
+import { DeckSwipeDirection, DeckWindow, DeckWindowHandle } from "./DeckWindow";
 import { SwipeCard } from "./SwipeCard";
 import { SwipeControls } from "./SwipeControls";
 import { openUrl } from "../utils/browser";
@@ -68,8 +68,7 @@ export function SwipeDeck({
   // Don't use status bar height on iOS since SwipeCard handles it internally
   const effectiveStatusBarHeight = isIOS() ? 44 : statusBarHeight;
   const [expandedCard, setExpandedCard] = useState<RestaurantCard | null>(null);
-  const swiperRef = useRef<Swiper<RestaurantCard>>(null);
-  const cardsRef = useRef<RestaurantCard[]>([]);
+  const deckRef = useRef<DeckWindowHandle>(null);
   const queryClient = useQueryClient();
 
   const {
@@ -127,7 +126,12 @@ export function SwipeDeck({
         // When no cards but ad is showing, pass the ad to dismiss it
         swipeCard({ cardId: "ad", action: "pass", timestamp: 0 });
       } else if (cards.length > 0) {
-        handleSwipe(cards[0], action);
+        // Animate the throw on the UI thread; the deck reports the swipe
+        if (deckRef.current) {
+          deckRef.current.swipe("left");
+        } else {
+          handleSwipe(cards[0], action);
+        }
       }
     },
     [showAd, swipeCard, cards, handleSwipe]
@@ -164,138 +168,24 @@ export function SwipeDeck({
     [handleCardTapInternal, handleExpandCard]
   );
 
-  // Memoize swipe handlers to prevent unnecessary re-renders - OPTIMIZED
-  const handleSwipedLeft = useCallback(
-    (cardIndex: number) => {
-      // Use ref to get current cards for better performance
-      const currentCards = cardsRef.current;
-      const swipedCard = currentCards[cardIndex];
-      if (swipedCard) {
-        handleSwipe(swipedCard, "pass");
-        if (__DEV__) {
-          console.log("🎴 SWIPED LEFT:", {
-            cardIndex,
-            cardId: swipedCard.id,
-          });
-        }
-      }
-    },
-    [handleSwipe] // Removed cards dependency for better performance
-  );
-
-  const handleSwipedRight = useCallback(
-    (cardIndex: number) => {
-      // Use ref to get current cards for better performance
-      const currentCards = cardsRef.current;
-      const swipedCard = currentCards[cardIndex];
-      if (swipedCard) {
-        handleSwipe(swipedCard, "menu");
-        if (__DEV__) {
-          console.log("🎴 SWIPED RIGHT:", {
-            cardIndex,
-            cardId: swipedCard.id,
-          });
-        }
+  const handleDeckSwiped = useCallback(
+    (card: RestaurantCard, direction: DeckSwipeDirection) => {
+      handleSwipe(card, direction === "right" ? "menu" : "pass");
+      if (__DEV__) {
+        console.log(`🎴 SWIPED ${direction.toUpperCase()}:`, {
+          cardId: card.id,
+        });
       }
     },
-    [handleSwipe] // Removed cards dependency for better performance
+    [handleSwipe]
   );
 
-  // Memoize overlay labels to prevent recreation
-  const overlayLabels = useMemo(
-    () => ({
-      left: {
-        title: "PASS",
-        style: {
-          label: {
-            backgroundColor: "transparent",
-            color: "red",
-            fontSize: 24,
-          },
-          wrapper: {
-            flexDirection: "column",
-            alignItems: "flex-end",
-            justifyContent: "flex-start",
-            marginTop: 30,
-            marginLeft: -30,
-          },
-        },
-      },
-      right: {
-        title: "MENU",
-        style: {
-          label: {
-            backgroundColor: "transparent",
-            color: "green",
-            fontSize: 24,
-          },
-          wrapper: {
-            flexDirection: "column",
-            alignItems: "flex-start",
-            justifyContent: "flex-start",
-            marginTop: 30,
-            marginLeft: 30,
-          },
-        },
-      },
-    }),
-    []
-  );
-
-  // Memoize swiper props to prevent unnecessary re-renders
-  // Optimize stack size for better performance with many cards
+  // Card views kept mounted by the deck; the rest of the deck is never
+  // rendered, so mount cost and memory stay flat however many places load
   const optimizedStackSize = useMemo(() => {
-    // Limit stack size to improve performance with many cards
     return Math.min(cards.length, maxVisibleCards || 5);
   }, [cards.length, maxVisibleCards]);
 
-  const swiperProps = useMemo(
-    () => ({
-      cards: cards,
-      renderCard: renderCard,
-      backgroundColor: "transparent",
-      stackSize: optimizedStackSize,
-      infinite: false,
-      animateOverlayLabelsOpacity: true,
-      onSwipedLeft: handleSwipedLeft,
-      onSwipedRight: handleSwipedRight,
-      overlayLabels: overlayLabels,
-      swipeAnimationDuration: 200, // Reduced from 300ms for snappier feel
-      disableTopSwipe: true,
-      disableBottomSwipe: true,
-      disableLeftSwipe: false,
-      disableRightSwipe: false,
-      stackSeparation: 0,
-      stackScale: 0.95,
-      cardVerticalMargin: 0,
-      cardHorizontalMargin: 0,
-      goBackToPreviousCardOnSwipeLeft: false,
-      goBackToPreviousCardOnSwipeRight: false,
-      goBackToPreviousCardOnSwipeTop: false,
-      goBackToPreviousCardOnSwipeBottom: false,
-      useViewOverflow: false,
-      outputRotationRange: ["-0.3rad", "0rad", "0.3rad"] as [
-        string,
-        string,
-        string
-      ],
-      cardStyle: {
-        width: "100%",
-        height: "100%",
-        alignItems: "center",
-        justifyContent: "center",
-      },
-    }),
-    [
-      cards,
-      renderCard,
-      handleSwipedLeft,
-      handleSwipedRight,
-      overlayLabels,
-      optimizedStackSize,
-    ]
-  );
-
   const handleMenuOpen = useCallback(() => {
     if (cards.length === 0) return;
     const topCard = cards[0];
@@ -369,11 +259,6 @@ export function SwipeDeck({
     handleVoiceFiltersApplied,
   ]);
 
-  // Update cardsRef when cards change for better performance
-  useEffect(() => {
-    cardsRef.current = cards;
-  }, [cards]);
-
   // Pass filter functions to parent component
   useEffect(() => {
     if (onFilterFunctionsReady) {
@@ -504,16 +389,21 @@ export function SwipeDeck({
                 { marginHorizontal: effectiveStatusBarHeight - 16 },
               ]}
             >
-              {cards && cards.length > 0 && !showAd && (
+              {cards && cards.length > 0 && (
                 <>
-                  {!expandedCard && (
-                    <Swiper
-                      key={`swiper-${cards.length}`}
-                      ref={swiperRef}
-                      {...swiperProps}
-                    />
-                  )}
-                  {expandedCard && (
+                  {/* Stays mounted while a card is expanded or an ad shows,
+                      so returning to the deck mounts nothing */}
+                  <DeckWindow
+                    ref={deckRef}
+                    cards={cards}
+                    poolSize={optimizedStackSize}
+                    renderCard={renderCard}
+                    onSwiped={handleDeckSwiped}
+                    hidden={Boolean(expandedCard) || showAd}
+                    swipeAnimationDuration={200}
+                    stackScale={0.95}
+                  />
+                  {expandedCard && !showAd && (
                     <SwipeCard
                       card={
                         cards.find((c) => c.id === expandedCard.id) ||
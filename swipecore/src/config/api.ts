@@ -30,7 +30,10 @@ export const API_CONFIG = {
         PLACES: {
             NEARBY: "api/places/nearby",
             DETAILS: "api/places", // Will be appended with /{placeId}
+            DETAILS_BATCH: "api/places/details:batch",
+            SEARCH: "api/places/search",
             PHOTO: "api/places/photo/givememyphoto",
+            PHOTO_MEDIA: "api/places/photo/givememyphoto/media",
         },
 
         // Health check
@@ -12,6 +12,8 @@ export const USE_LIVE_DATA: boolean = process.env.EXPO_PUBLIC_USE_LIVE_DATA ===
 
 // Google Places Configuration
 export const GOOGLE_PLACES_ENABLED: boolean = process.env.EXPO_PUBLIC_GOOGLE_PLACES_ENABLED === 'true' || false;
+// Apply active filters on the backend's /api/places/search instead of on the device
+export const SERVER_FILTERING: boolean = process.env.EXPO_PUBLIC_SERVER_FILTERING === 'true' || false;
 
 // Google Ads Configuration
 export const ADMOB_APP_ID_ANDROID: string = process.env.EXPO_PUBLIC_ADMOB_APP_ID_ANDROID || 'ca-app-pub-3940256099942544~3347511713';
@@ -58,6 +60,7 @@ export const getFeatureFlags = () => ({
   enableDebug: ENABLE_DEBUG,
   useLiveData: USE_LIVE_DATA,
   googlePlacesEnabled: GOOGLE_PLACES_ENABLED,
+  serverFiltering: SERVER_FILTERING,
   adsEnabled: ADS_ENABLED,
   adsNativeInDeck: ADS_NATIVE_IN_DECK,
   adsNativeInterval: ADS_NATIVE_INTERVAL,
@@ -0,0 +1,134 @@
+// Normalised card store: one entry per card ID with per-card subscriptions
+// Enrichment (prefetched details, photo URLs) is recorded as a patch over the
+// card the deck holds, so updating one card re-renders only the components
+// subscribed to that ID instead of copying and re-rendering the whole deck.
+// Entries live while their card is in the deck or has a subscriber.
+
+import { useCallback, useSyncExternalStore } from "react";
+import { RestaurantCard } from "@/types/Types";
+
+type Listener = () => void;
+
+interface CardEntry {
+  // The card as the deck holds it (transformed from place data)
+  source: RestaurantCard;
+  // Fields changed by enrichment since
+  patch: Partial<RestaurantCard>;
+  // source + patch; a new object only when either changes
+  card: RestaurantCard;
+}
+
+// Shallow diff: the fields of `next` that are not identical in `prev`
+const changedFields = (
+  prev: RestaurantCard,
+  next: RestaurantCard
+): Partial<RestaurantCard> => {
+  const changed: Partial<RestaurantCard> = {};
+  for (const key of Object.keys(next)) {
+    if (next[key] !== prev[key]) changed[key] = next[key];
+  }
+  return changed;
+};
+
+export class CardStore {
+  private entries = new Map<string, CardEntry>();
+  private listeners = new Map<string, Set<Listener>>();
+
+  /**
+   * Register a deck card and return its latest version. A new source object
+   * for the same ID (for example refreshed distances) keeps the enrichment
+   * already applied, and that card's subscribers are notified.
+   */
+  resolve(source: RestaurantCard): RestaurantCard {
+    let entry = this.entries.get(source.id);
+    if (!entry) {
+      entry = { source, patch: {}, card: source };
+      this.entries.set(source.id, entry);
+    } else if (entry.source !== source) {
+      entry.source = source;
+      if (Object.keys(entry.patch).length > 0) {
+        entry.card = { ...source, ...entry.patch };
+        this.listeners.get(source.id)?.forEach((listener) => listener());
+      } else {
+        entry.card = source;
+      }
+    }
+    return entry.card;
+  }
+
+  /**
+   * Latest version of a card without registering it (safe during render):
+   * the stored version when `source` is what the store holds, else `source`
+   */
+  peek(source: RestaurantCard): RestaurantCard {
+    const entry = this.entries.get(source.id);
+    return entry?.source === source ? entry.card : source;
+  }
+
+  get(id: string): RestaurantCard | undefined {
+    return this.entries.get(id)?.card;
+  }
+
+  /**
+   * Update one card. `update` returns the next version without mutating the
+   * current one; only the fields it changed are kept as enrichment and only
+   * that card's subscribers are notified.
+   */
+  update(id: string, update: (card: RestaurantCard) => RestaurantCard): void {
+    const entry = this.entries.get(id);
+    if (!entry) return;
+
+    const next = update(entry.card);
+    const changed = changedFields(entry.card, next);
+    if (Object.keys(changed).length === 0) return;
+
+    entry.patch = { ...entry.patch, ...changed };
+    entry.card = { ...entry.source, ...entry.patch };
+    this.listeners.get(id)?.forEach((listener) => listener());
+  }
+
+  subscribe(id: string, listener: Listener): () => void {
+    let listeners = this.listeners.get(id);
+    if (!listeners) {
+      listeners = new Set();
+      this.listeners.set(id, listeners);
+    }
+    listeners.add(listener);
+
+    return () => {
+      listeners!.delete(listener);
+      if (listeners!.size === 0) this.listeners.delete(id);
+    };
+  }
+
+  /**
+   * Drop the entries of cards that left the deck, keeping any that still
+   * have a subscriber (a card animating out)
+   */
+  retain(deck: RestaurantCard[]): void {
+    const ids = new Set(deck.map((card) => card.id));
+    for (const id of this.entries.keys()) {
+      if (!ids.has(id) && !this.listeners.has(id)) this.entries.delete(id);
+    }
+  }
+
+  clear(): void {
+    this.entries.clear();
+  }
+}
+
+export const cardStore = new CardStore();
+
+/**
+ * The latest version of `card` from the store, re-rendering the caller only
+ * when this card is updated
+ */
+export function useCard(card: RestaurantCard, store: CardStore = cardStore): RestaurantCard {
+  const subscribe = useCallback(
+    (listener: Listener) => store.subscribe(card.id, listener),
+    [store, card.id]
+  );
+  const getSnapshot = useCallback(() => store.peek(card), [store, card]);
+
+  return useSyncExternalStore(subscribe, getSnapshot, getSnapshot);
+}
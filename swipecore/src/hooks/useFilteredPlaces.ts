@@ -10,22 +10,39 @@ import {
   defaultSearchConfig,
   FEATURE_FLAGS,
   GooglePlacesApiAdvDetails,
+  GooglePlacesApiBasicDetails,
   UserPreferences,
   ExpandAction,
 } from "../types/Types";
 import {
-  transformPlacesToCards,
+  CardTransformCache,
   mergeCardWithDetails,
 } from "../utils/placeTransformers";
-import { FilterResult, useFilters } from "./useFilters";
+import { FilterResult, toSearchFilters, useFilters } from "./useFilters";
+import { placesApi } from "../services/places";
+import { cardStore } from "./useCardStore";
 import { useFilterContext } from "../contexts/FilterContext";
 import { useQueryClient } from "@tanstack/react-query";
 import { ImmediateFetchRequest, usePrefetcher } from "./usePrefetcher";
+import { prefetchingService } from "../services/prefetcher";
 import { useBehaviorTracking } from "./useBehaviorTracking";
 import { PrefetchAnalytics, PrefetchEvent } from "@/types/prefetching";
 import { openUrl } from "@/utils/browser";
 import { hasPreloadedAds, initializeNativeAds } from "@/services/nativeAdsProvider";
 import { getRandomRestaurantCards } from "@/utils/mockData";
+import { devLog } from "@/utils/devLog";
+import { prefetchCardImage } from "@/utils/photoPlaceholders";
+
+// Ranked results requested per page of a server-side filter run (the
+// endpoint maximum); pages are followed until the ranked set is exhausted
+const SERVER_FILTER_PAGE_SIZE = 50;
+// Guard against a cursor that never ends; the merged nearby set behind a
+// search is at most two pages
+const SERVER_FILTER_MAX_PAGES = 4;
+
+// Cards under the top one whose photos are fetched into the image cache
+// ahead of time (the deck keeps them mounted, so they decode while hidden)
+const DECODE_AHEAD_CARDS = 2;
 
 export interface UseFilteredPlacesOptions {
   searchConfig?: Partial<PlaceSearchConfig>;
@@ -106,6 +123,8 @@ export function useFilteredPlaces(
 
   // Refs for latest values in callbacks
   const baseCardsRef = useRef<RestaurantCard[]>([]);
+  // Cards per place ID, reused while the place and the user's position are unchanged
+  const cardTransformCacheRef = useRef<CardTransformCache>(new CardTransformCache());
   const applyFiltersRef = useRef<((cards: RestaurantCard[]) => Promise<void>) | null>(null);
 
   const [showAd, setShowAd] = useState<boolean>(false);
@@ -128,54 +147,57 @@ export function useFilteredPlaces(
     enabled: prefetchDetails ?? true,
     debugMode: true,
     onPrefetchEvent: (event: PrefetchEvent) => {
-      console.log(`🎯 [useFilteredPlaces] Received prefetch event:`, event.type, event.cardId);
+      devLog.log(`🎯 [useFilteredPlaces] Received prefetch event:`, event.type, event.cardId);
       if (event.type === "prefetch_completed") {
-        console.log(`🎉 [useFilteredPlaces] Processing prefetch_completed for ${event.cardId}`);
-        setCards((prevCards) => {
-          const cardIndex = prevCards.findIndex(
-            (card) => card.id === event.cardId
-          );
-          if (cardIndex === -1) {
-            console.log(`❌ [useFilteredPlaces] Card ${event.cardId} not found in cards array`);
-            return prevCards;
-          }
-
-          let updatedCards = [...prevCards];
-
-          const detailsData = queryClient.getQueryData([
-            "places",
-            "details",
-            event.cardId,
-          ]) as GooglePlacesApiAdvDetails;
-
-          const photoData = queryClient.getQueryData([
-            "places",
-            "photos",
-            event.cardId,
-          ]) as {
-            photoUrl: string;
-            photoReference: string;
-          };
+        devLog.log(`🎉 [useFilteredPlaces] Processing prefetch_completed for ${event.cardId}`);
+        const detailsData = queryClient.getQueryData([
+          "places",
+          "details",
+          event.cardId,
+        ]) as GooglePlacesApiAdvDetails;
+
+        const photoData = queryClient.getQueryData([
+          "places",
+          "photos",
+          event.cardId,
+        ]) as {
+          photoUrl: string;
+          photoReference: string;
+        };
 
-          console.log(`🔍 [useFilteredPlaces] Details data for ${event.cardId}:`, !!detailsData);
-          console.log(`🔍 [useFilteredPlaces] Photo data for ${event.cardId}:`, !!photoData);
+        devLog.log(`🔍 [useFilteredPlaces] Details data for ${event.cardId}:`, !!detailsData);
+        devLog.log(`🔍 [useFilteredPlaces] Photo data for ${event.cardId}:`, !!photoData);
 
+        // Only this card's subscribers re-render; the deck array is untouched
+        cardStore.update(event.cardId, (card) => {
+          let updatedCard = card;
           // Prefetched Details
-          let updatedCard = prevCards[cardIndex];
           if (detailsData) {
-            console.log(`✅ [useFilteredPlaces] Merging details for ${event.cardId}`);
-            updatedCard = mergeCardWithDetails(prevCards[cardIndex], detailsData);
+            devLog.log(`✅ [useFilteredPlaces] Merging details for ${event.cardId}`);
+            updatedCard = mergeCardWithDetails(updatedCard, detailsData);
           }
           // Prefetched photos
-          if (photoData) {
-            console.log(`✅ [useFilteredPlaces] Updating photo for ${event.cardId}`);
-            updatedCard.photos[0].url = photoData.photoUrl;
+          if (photoData && updatedCard.photos?.length > 0) {
+            devLog.log(`✅ [useFilteredPlaces] Updating photo for ${event.cardId}`);
+            updatedCard = {
+              ...updatedCard,
+              photos: updatedCard.photos.map((photo, i) =>
+                i === 0 ? { ...photo, url: photoData.photoUrl } : photo
+              ),
+            };
           }
-          updatedCards[cardIndex] = updatedCard;
-
-          console.log(`🎯 [useFilteredPlaces] Updated card ${event.cardId} with new data`);
-          return updatedCards;
+          return updatedCard;
         });
+
+        if (
+          photoData &&
+          cardsRef.current
+            .slice(0, DECODE_AHEAD_CARDS + 1)
+            .some((card) => card.id === event.cardId)
+        ) {
+          const updated = cardStore.get(event.cardId);
+          if (updated) prefetchCardImage(updated);
+        }
       }
     },
   });
@@ -237,7 +259,7 @@ export function useFilteredPlaces(
     };
 
     const result = Array.isArray(filters) && filters.some((f) => f.enabled && hasMeaningfulValue(f.value));
-    console.log("🔍 hasActiveFilters check:", {
+    devLog.log("🔍 hasActiveFilters check:", {
       filters,
       result,
       enabledFilters: filters?.filter(f => f.enabled),
@@ -327,11 +349,11 @@ export function useFilteredPlaces(
         const distanceKm = distanceFilter.value;
         const radiusMeters = distanceKm * 1000;
         baseConfig.radius = radiusMeters;
-        console.log(`🔍 Distance filter applied: ${distanceKm}km -> ${radiusMeters}m radius`);
+        devLog.log(`🔍 Distance filter applied: ${distanceKm}km -> ${radiusMeters}m radius`);
       }
 
       // Add any other relevant filters that can be passed to the Google Places API
-      console.log("Enhanced search config with filters:", baseConfig);
+      devLog.log("Enhanced search config with filters:", baseConfig);
     }
 
     return baseConfig;
@@ -363,7 +385,7 @@ export function useFilteredPlaces(
   // Log when Google Places query is enabled/disabled
   useEffect(() => {
     const isQueryEnabled = Boolean(location) && FEATURE_FLAGS.GOOGLE_PLACES_ENABLED;
-    console.log(`🌍 Google Places query ${isQueryEnabled ? 'ENABLED' : 'DISABLED'}`, {
+    devLog.log(`🌍 Google Places query ${isQueryEnabled ? 'ENABLED' : 'DISABLED'}`, {
       hasLocation: Boolean(location),
       googlePlacesEnabled: FEATURE_FLAGS.GOOGLE_PLACES_ENABLED,
       location: location ? `${location.latitude}, ${location.longitude}` : 'none',
@@ -376,18 +398,18 @@ export function useFilteredPlaces(
     const currentRadius = finalSearchConfig.radius || 5000;
 
     if (currentRadius !== previousRadius) {
-      console.log(`🔄 Radius changed from ${previousRadius}m to ${currentRadius}m`);
+      devLog.log(`🔄 Radius changed from ${previousRadius}m to ${currentRadius}m`);
 
       if (currentRadius > previousRadius) {
         // Radius increased - trigger new API call
-        console.log("📡 Radius increased, fetching new places...");
+        devLog.log("📡 Radius increased, fetching new places...");
         setIsRadiusLoading(true);
         setError(null);
 
         // Trigger a new API call with the increased radius
         refetchPlaces().then((result) => {
           if (result.data && Array.isArray(result.data)) {
-            console.log(`📡 Fetched ${result.data.length} new places with increased radius`);
+            devLog.log(`📡 Fetched ${result.data.length} new places with increased radius`);
             // The processPlacesWithFilters will be called automatically when nearbyPlaces changes
           }
           setIsRadiusLoading(false);
@@ -406,7 +428,7 @@ export function useFilteredPlaces(
   const [isLoading, SetIsLoading] = useState<boolean>(true);
   const hasLocation = Boolean(location);
   const usingLiveData = FEATURE_FLAGS.GOOGLE_PLACES_ENABLED && hasLocation;
-  const currentCard = cards.length > 0 ? cards[0] : null;
+  const currentCard = cards.length > 0 ? cardStore.peek(cards[0]) : null;
   const canSwipe = cards.length > 0;
 
   // Combined loading state that includes radius loading
@@ -431,24 +453,77 @@ export function useFilteredPlaces(
     []
   );
 
+  // With SERVER_FILTERING the backend filters and ranks every candidate in the
+  // radius, and the device only maps the result onto its cards; if the request
+  // fails we fall back to filtering on the device
+  const filterCards = useCallback(
+    async (available: RestaurantCard[]): Promise<FilterResult> => {
+      if (!FEATURE_FLAGS.SERVER_FILTERING || !location) {
+        return applyFiltersToCards(available);
+      }
+
+      const startTime = Date.now();
+      try {
+        const places: GooglePlacesApiBasicDetails[] = [];
+        let cursor: number | null = 0;
+        for (let page = 0; cursor !== null && page < SERVER_FILTER_MAX_PAGES; page++) {
+          const result = await placesApi.searchPlaces({
+            lat: location.latitude,
+            lng: location.longitude,
+            radius: finalSearchConfig.radius,
+            type: finalSearchConfig.type,
+            pageSize: SERVER_FILTER_PAGE_SIZE,
+            cursor,
+            ...toSearchFilters(filters),
+          });
+          places.push(...result.places);
+          cursor = result.nextCursor;
+        }
+
+        const availableById = new Map(available.map((card) => [card.id, card]));
+        const filteredCards = places
+          .filter((place) => !swipedCardIdsRef.current.has(place.id))
+          .map(
+            (place) =>
+              availableById.get(place.id) ??
+              cardTransformCacheRef.current.transformPlace(place, {
+                userLatitude: location.latitude,
+                userLongitude: location.longitude,
+              })
+          );
+
+        return {
+          filteredCards,
+          totalCount: filteredCards.length,
+          appliedFilters: filters.filter((f) => f.enabled),
+          processingTime: Date.now() - startTime,
+        };
+      } catch (err) {
+        devLog.warn("Server-side filtering failed, filtering on device:", err);
+        return applyFiltersToCards(available);
+      }
+    },
+    [applyFiltersToCards, filters, location, finalSearchConfig.radius, finalSearchConfig.type]
+  );
+
   // Trigger re-filtering when filters change from FilterProvider
   useEffect(() => {
-    console.log("🔄 useFilteredPlaces - Filters changed from FilterProvider:", filters);
-    console.log("🔄 useFilteredPlaces - hasActiveFilters:", hasActiveFilters);
-    console.log("🔄 useFilteredPlaces - baseCardsRef.current.length:", baseCardsRef.current.length);
+    devLog.log("🔄 useFilteredPlaces - Filters changed from FilterProvider:", filters);
+    devLog.log("🔄 useFilteredPlaces - hasActiveFilters:", hasActiveFilters);
+    devLog.log("🔄 useFilteredPlaces - baseCardsRef.current.length:", baseCardsRef.current.length);
 
     if (baseCardsRef.current.length > 0) {
-      console.log("🔄 useFilteredPlaces - Triggering re-filtering with baseCards:", baseCardsRef.current.length);
+      devLog.log("🔄 useFilteredPlaces - Triggering re-filtering with baseCards:", baseCardsRef.current.length);
 
       // Re-process the base cards with current filters
       const availableCards = excludeSwiped(baseCardsRef.current);
-      console.log("🔄 useFilteredPlaces - availableCards after excluding swiped:", availableCards.length);
+      devLog.log("🔄 useFilteredPlaces - availableCards after excluding swiped:", availableCards.length);
 
       if (hasActiveFilters) {
-        console.log("🔄 useFilteredPlaces - Applying filters to available cards");
+        devLog.log("🔄 useFilteredPlaces - Applying filters to available cards");
         // Apply filters to available cards
-        applyFiltersToCards(availableCards).then((result) => {
-          console.log("🔍 Filter result:", {
+        filterCards(availableCards).then((result) => {
+          devLog.log("🔍 Filter result:", {
             totalCount: result.totalCount,
             filteredCount: result.filteredCards.length,
             appliedFilters: result.appliedFilters
@@ -461,23 +536,33 @@ export function useFilteredPlaces(
         });
       } else {
         // No active filters - show all available cards
-        console.log("🔍 No active filters - showing all available cards:", availableCards.length);
+        devLog.log("🔍 No active filters - showing all available cards:", availableCards.length);
         setFilterResult(null);
         setCards(availableCards);
       }
     }
-  }, [filters, hasActiveFilters, applyFiltersToCards, excludeSwiped]);
+  }, [filters, hasActiveFilters, filterCards, excludeSwiped]);
 
   // Update the ref whenever cards change
   useEffect(() => {
     cardsRef.current = cards;
 
-    if (isPrefetchingEnabled && cards.length > 0) {
-      if (cards[0].photos?.length > 0 && !cards[0].photos[0].url) {
-        requestImmediateFetch(
-          cardsRef.current[0],
-          ImmediateFetchRequest.Photos
-        );
+    // Register the deck so enrichment can be applied by ID, and forget cards
+    // that are no longer in it
+    for (const card of cards) cardStore.resolve(card);
+    cardStore.retain(cards);
+
+    // Top card and the next ones a swipe reveals: fetch missing photo URLs,
+    // and put known photos in the image cache before they are shown
+    if (isPrefetchingEnabled) {
+      for (const deckCard of cards.slice(0, DECODE_AHEAD_CARDS + 1)) {
+        const card = cardStore.resolve(deckCard);
+        if (!(card.photos?.length > 0)) continue;
+        if (!card.photos[0].url) {
+          requestImmediateFetch(card, ImmediateFetchRequest.Photos);
+        } else {
+          prefetchCardImage(card);
+        }
       }
     }
     SetIsLoading(isPlacesLoading && cards.length === 0);
@@ -488,12 +573,12 @@ export function useFilteredPlaces(
     if (!FEATURE_FLAGS.GOOGLE_PLACES_ENABLED && autoStart) {
       // Use mock data when Google Places is disabled
       const cards = getRandomRestaurantCards(40);
-      console.log("Using mock data - Cards: ", cards.length);
+      devLog.log("Using mock data - Cards: ", cards.length);
       setBaseCards(cards);
       setCards(cards);
     } else if (FEATURE_FLAGS.GOOGLE_PLACES_ENABLED && autoStart && location) {
       // Google Places is enabled - the query will be triggered automatically by useNearbyPlaces
-      console.log("Google Places enabled - query will be triggered automatically");
+      devLog.log("Google Places enabled - query will be triggered automatically");
     }
   }, [autoStart]); // Include location dependency to trigger when location is available
 
@@ -502,7 +587,7 @@ export function useFilteredPlaces(
     // Only process if we have places data
     if (nearbyPlaces && nearbyPlaces.length > 0) {
       if (FEATURE_FLAGS.GOOGLE_PLACES_ENABLED && location) {
-        console.log("Processing places with filtering system");
+        devLog.log("Processing places with filtering system");
         processPlacesWithFilters(nearbyPlaces);
       }
     } else if (FEATURE_FLAGS.GOOGLE_PLACES_ENABLED && location && !isPlacesLoading) {
@@ -518,20 +603,28 @@ export function useFilteredPlaces(
     try {
       setError(null);
 
-      // Transform places to restaurant cards
-      const transformedCards = transformPlacesToCards(places, {
+      // Transform places to restaurant cards; unchanged places keep their card objects
+      const transformedCards = cardTransformCacheRef.current.transform(places, {
         userLatitude: location?.latitude,
         userLongitude: location?.longitude,
       });
 
       // Merge new cards with existing baseCards, avoiding duplicates
-      console.log(`🔄 Merging ${transformedCards.length} new cards with ${baseCards.length} existing cards`);
+      devLog.log(`🔄 Merging ${transformedCards.length} new cards with ${baseCards.length} existing cards`);
+
+      const transformedById = new Map(transformedCards.map(card => [card.id, card]));
+      const refreshedBaseCards = baseCards.map(card => {
+        // Existing cards may carry enrichment; only take over refreshed distances
+        const transformed = transformedById.get(card.id);
+        if (!transformed || transformed.distanceInMeters === card.distanceInMeters) return card;
+        return { ...card, distance: transformed.distance, distanceInMeters: transformed.distanceInMeters };
+      });
 
       const existingCardIds = new Set(baseCards.map(card => card.id));
       const newUniqueCards = transformedCards.filter(card => !existingCardIds.has(card.id));
 
-      const currentBaseCards = [...baseCards, ...newUniqueCards];
-      console.log(`🔄 Merged result: ${currentBaseCards.length} total cards (${newUniqueCards.length} new)`);
+      const currentBaseCards = [...refreshedBaseCards, ...newUniqueCards];
+      devLog.log(`🔄 Merged result: ${currentBaseCards.length} total cards (${newUniqueCards.length} new)`);
 
       setBaseCards(currentBaseCards);
 
@@ -541,7 +634,7 @@ export function useFilteredPlaces(
       // Apply filters if enabled and active on the available set
       let newCards: RestaurantCard[] = [];
       if (hasActiveFilters) {
-        const result = await applyFiltersToCards(availableCards);
+        const result = await filterCards(availableCards);
         newCards = result.filteredCards as RestaurantCard[];
         setFilterResult(result);
       } else {
@@ -559,7 +652,7 @@ export function useFilteredPlaces(
     } finally {
       setIsRadiusLoading(false);
     }
-  }, [baseCards, location?.latitude, location?.longitude, excludeSwiped, hasActiveFilters, applyFiltersToCards]);
+  }, [baseCards, location?.latitude, location?.longitude, excludeSwiped, hasActiveFilters, filterCards]);
 
   // Add card view tracking effect
   useEffect(() => {
@@ -589,13 +682,13 @@ export function useFilteredPlaces(
         }
 
         // Always filter from the base, unfiltered list to avoid compounding filters
-        console.log("🔍 Filtering from cards:", cards.length);
-        console.log("🔍 hasActiveFilters:", hasActiveFilters);
+        devLog.log("🔍 Filtering from cards:", cards.length);
+        devLog.log("🔍 hasActiveFilters:", hasActiveFilters);
 
         // Check if there are active filters before applying them
         if (hasActiveFilters) {
-          const result = await applyFiltersToCards(cards);
-          console.log("🔍 Filter result:", {
+          const result = await filterCards(cards);
+          devLog.log("🔍 Filter result:", {
             totalCount: result.totalCount,
             filteredCount: result.filteredCards.length,
             appliedFilters: result.appliedFilters
@@ -603,14 +696,14 @@ export function useFilteredPlaces(
 
           setFilterResult(result);
           const filteredAndExcluded = excludeSwiped(result.filteredCards as RestaurantCard[]);
-          console.log("🔍 Setting filtered cards:", filteredAndExcluded.length);
+          devLog.log("🔍 Setting filtered cards:", filteredAndExcluded.length);
           setCards(filteredAndExcluded);
         } else {
           // No active filters - show all available cards
-          console.log("🔍 No active filters - showing all cards");
+          devLog.log("🔍 No active filters - showing all cards");
           setFilterResult(null);
           const allAvailableCards = excludeSwiped(cards);
-          console.log("🔍 Setting all available cards:", allAvailableCards.length);
+          devLog.log("🔍 Setting all available cards:", allAvailableCards.length);
           setCards(allAvailableCards);
         }
       } catch (err) {
@@ -621,7 +714,7 @@ export function useFilteredPlaces(
       }
     },
     [
-      applyFiltersToCards,
+      filterCards,
       excludeSwiped,
       hasActiveFilters
     ]
@@ -630,24 +723,20 @@ export function useFilteredPlaces(
   // Update refs when values change
   useEffect(() => {
     baseCardsRef.current = baseCards;
-    console.log("🔧 baseCards changed, length:", baseCards.length);
+    devLog.log("🔧 baseCards changed, length:", baseCards.length);
   }, [baseCards]);
 
   useEffect(() => {
     applyFiltersRef.current = applyFilters;
   }, [applyFilters]);
 
-  // useEffect(() => {
-  //   console.log("Filtered cards: ", filterResult);
-  // }, [filterResult]);
-
   // Swipe card action with behavior tracking and prefetching - OPTIMIZED
   const swipeCard = useCallback(
     async (action: SwipeAction) => {
-      console.log("Swiping card: ", action);
+      devLog.log("Swiping card: ", action);
 
       if (showAd) {
-        console.log("DEBUG - Dismissing ad, setting showAd to false");
+        devLog.log("DEBUG - Dismissing ad, setting showAd to false");
         setShowAd(false);
         return;
       }
@@ -661,7 +750,7 @@ export function useFilteredPlaces(
         return;
       }
 
-      const card = currentCards[cardIndex];
+      const card = cardStore.resolve(currentCards[cardIndex]);
 
       // OPTIMIZATION: Use splice for O(1) removal instead of filter O(n)
       const remainingCards = [...currentCards];
@@ -678,7 +767,7 @@ export function useFilteredPlaces(
       // Defer expensive operations to prevent blocking the UI
       setTimeout(async () => {
         if (numSwipesRef.current > 0 && await hasPreloadedAds()) {
-          console.log("Showing Ad");
+          devLog.log("Showing Ad");
           setShowAd(true);
         }
 
@@ -741,14 +830,29 @@ export function useFilteredPlaces(
     if (isPrefetchingEnabled) {
       trackDetailView(card.id);
 
-      if (!card.advDetails) {
-        requestImmediateFetch(card, ImmediateFetchRequest.Details);
+      // Prefetched details stop at the contact tier; reviews and the
+      // editorial summary are only worth fetching once the card is opened
+      if (!prefetchingService.hasDetailsTier(card.id, "atmosphere")) {
+        prefetchingService
+          .prefetchPlaceDetails(card.id, queryClient, "atmosphere")
+          .then(() => {
+            const detailsData = queryClient.getQueryData([
+              "places",
+              "details",
+              card.id,
+            ]) as GooglePlacesApiAdvDetails | undefined;
+            if (detailsData) {
+              cardStore.update(card.id, (current) => mergeCardWithDetails(current, detailsData));
+            }
+          })
+          .catch((error) => devLog.warn(`Expanded details failed for ${card.id}`, error));
       }
     }
   };
 
   const expandCard = useCallback(() => {
-    handleExpandCard(cardsRef.current[0]);
+    const topCard = cardsRef.current[0];
+    if (topCard) handleExpandCard(cardStore.resolve(topCard));
   }, []);
 
   // Refresh cards
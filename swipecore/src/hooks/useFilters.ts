@@ -4,6 +4,9 @@
 import { useState, useEffect, useCallback, useRef } from 'react';
 import { RestaurantCard } from '@/types/Types';
 import { CrossPlatformStorage } from '@/utils/crossPlatformStorage';
+import { devLog } from '@/utils/devLog';
+import { PlaceSearchFilters } from '@/services/places';
+import { FilterMatchCache } from '@/utils/filterPredicates';
 
 // ============================================================================
 // UNIFIED TYPES - Single source of truth
@@ -189,8 +192,13 @@ export const FILTER_DEFINITIONS: FilterDefinition[] = [
 // ============================================================================
 
 class FilterEngine {
-  // Apply all active filters to cards
-  static async applyFilters(cards: RestaurantCard[], filters: Filter[]): Promise<FilterResult> {
+  // Apply all active filters to cards. `matches` remembers earlier results, so
+  // only changed filters and new cards are evaluated.
+  static async applyFilters(
+    cards: RestaurantCard[],
+    filters: Filter[],
+    matches: FilterMatchCache = new FilterMatchCache()
+  ): Promise<FilterResult> {
     const startTime = Date.now();
     const activeFilters = filters.filter(f => f.enabled);
 
@@ -203,12 +211,9 @@ class FilterEngine {
       };
     }
 
-    let filteredCards = [...cards];
-
-    // Apply each filter
-    for (const filter of activeFilters) {
-      filteredCards = this.applyFilter(filteredCards, filter);
-    }
+    // Filters without a definition are ignored
+    const knownFilters = activeFilters.filter(f => FILTER_DEFINITIONS.some(d => d.id === f.id));
+    const filteredCards = matches.filter(cards, knownFilters);
 
     return {
       filteredCards,
@@ -217,207 +222,6 @@ class FilterEngine {
       processingTime: Date.now() - startTime
     };
   }
-
-  // Apply a single filter to cards
-  private static applyFilter(cards: RestaurantCard[], filter: Filter): RestaurantCard[] {
-    const definition = FILTER_DEFINITIONS.find(d => d.id === filter.id);
-    if (!definition) return cards;
-
-    switch (filter.id) {
-      case 'openNow':
-        return filter.value ? cards.filter(card => card.isOpenNow === true) : cards;
-
-      case 'minRating':
-        return cards.filter(card => (card.rating || 0) >= Number(filter.value));
-
-      case 'priceLevel':
-        // Map numeric selection (1-4) to RestaurantCard.priceRange ('$'..'$$$$')
-        const levelToSymbol: Record<number, '$' | '$$' | '$$$' | '$$$$'> = {
-          1: '$',
-          2: '$$',
-          3: '$$$',
-          4: '$$$$',
-        };
-        return cards.filter(card => card.priceRange === levelToSymbol[Number(filter.value)]);
-
-      case 'cuisine':
-        const cuisines = Array.isArray(filter.value) ? filter.value : [filter.value];
-        console.log('Filtering by cuisines:', cuisines);
-
-        return cards.filter(card => {
-          // Check multiple possible sources for cuisine information
-          const cardTypes = card.types || [];
-          const cardTitle = card.title || '';
-          const cardDescription = card.description || '';
-          const cardCuisine = card.cuisine || '';
-
-          console.log(`🔍 Checking card "${card.title}" against cuisines:`, cuisines);
-          console.log(`🔍 Card data:`, {
-            types: cardTypes,
-            title: cardTitle,
-            description: cardDescription,
-            cuisine: cardCuisine
-          });
-
-          const matchResult = cuisines.some(cuisine => {
-            const cuisineLower = String(cuisine).toLowerCase();
-            console.log(`🔍 Checking cuisine: "${cuisineLower}"`);
-
-            // Check if any of the card's types match the cuisine
-            const typeMatch = cardTypes.some((type: string) =>
-              type.toLowerCase().includes(cuisineLower) ||
-              cuisineLower.includes(type.toLowerCase())
-            );
-
-            // Check title and description for cuisine keywords
-            const titleMatch = cardTitle.toLowerCase().includes(cuisineLower);
-            const descriptionMatch = cardDescription.toLowerCase().includes(cuisineLower);
-            const cuisineMatch = cardCuisine.toLowerCase().includes(cuisineLower);
-
-            // Also check for common cuisine keywords
-            const cuisineKeywords: Record<string, string[]> = {
-              'italian': ['pizza', 'pasta', 'italian', 'pizzeria', 'trattoria', 'ristorante', 'gelato', 'espresso'],
-              'chinese': ['chinese', 'asian', 'noodle', 'dim sum', 'wok', 'szechuan', 'cantonese', 'mandarin'],
-              'mexican': ['mexican', 'taco', 'burrito', 'quesadilla', 'tex-mex', 'enchilada', 'fajita', 'salsa'],
-              'indian': ['indian', 'curry', 'tandoor', 'biryani', 'masala', 'naan', 'tikka', 'vindaloo'],
-              'japanese': ['japanese', 'sushi', 'ramen', 'hibachi', 'teriyaki', 'tempura', 'yakitori', 'miso'],
-              'american': ['american', 'burger', 'bbq', 'grill', 'diner', 'steakhouse', 'sandwich', 'wings'],
-              'thai': ['thai', 'pad thai', 'curry', 'asian', 'tom yum', 'green curry', 'coconut'],
-              'french': ['french', 'bistro', 'cafe', 'brasserie', 'croissant', 'crepe', 'escargot']
-            };
-
-            const keywords = cuisineKeywords[cuisineLower] || [cuisineLower];
-            const keywordMatch = keywords.some((keyword: string) =>
-              cardTitle.toLowerCase().includes(keyword) ||
-              cardDescription.toLowerCase().includes(keyword) ||
-              cardTypes.some((type: string) => type.toLowerCase().includes(keyword))
-            );
-
-            const matches = typeMatch || titleMatch || descriptionMatch || cuisineMatch || keywordMatch;
-            console.log(`🔍 Cuisine "${cuisineLower}" matches:`, {
-              typeMatch,
-              titleMatch,
-              descriptionMatch,
-              cuisineMatch,
-              keywordMatch,
-              keywords,
-              overall: matches
-            });
-
-            return matches;
-          });
-
-          if (matchResult) {
-            console.log(`✅ Card "${card.title}" matched cuisine filter`);
-          } else {
-            console.log(`❌ Card "${card.title}" did not match any cuisine filter`);
-          }
-
-          return matchResult;
-        });
-
-      case 'keyword':
-        const keyword = String(filter.value).toLowerCase();
-        return cards.filter(card =>
-          card.title.toLowerCase().includes(keyword) ||
-          card.description?.toLowerCase().includes(keyword) ||
-          card.types?.some((type: string) => type.toLowerCase().includes(keyword))
-        );
-
-      case 'distance':
-        // Distance filter is now handled by radius in API calls, not client-side filtering
-        // This ensures we get the right data from the API instead of filtering after fetching
-        console.log('Distance filter is handled by API radius, not client-side filtering');
-        return cards;
-
-      case 'dietaryRestrictions':
-        const dietaryRestrictions = Array.isArray(filter.value) ? filter.value : [filter.value];
-        return cards.filter(card => {
-          // Check if the restaurant supports the dietary restrictions
-          // This would typically come from restaurant data, but for now we'll use keywords
-          const cardText = `${card.title} ${card.description || ''} ${card.types?.join(' ') || ''}`.toLowerCase();
-
-          return dietaryRestrictions.some(restriction => {
-            const restrictionLower = String(restriction).toLowerCase();
-
-            // Define keywords for each dietary restriction
-            const dietaryKeywords: Record<string, string[]> = {
-              'vegetarian': ['vegetarian', 'veggie', 'plant-based', 'meat-free'],
-              'vegan': ['vegan', 'plant-based', 'dairy-free'],
-              'gluten-free': ['gluten-free', 'gluten free', 'celiac', 'gf'],
-              'dairy-free': ['dairy-free', 'dairy free', 'lactose-free', 'non-dairy'],
-              'nut-free': ['nut-free', 'nut free', 'allergy-friendly'],
-              'halal': ['halal', 'islamic', 'muslim'],
-              'kosher': ['kosher', 'jewish', 'orthodox'],
-              'keto': ['keto', 'ketogenic', 'low-carb', 'high-fat'],
-              'low-carb': ['low-carb', 'low carb', 'keto', 'atkins']
-            };
-
-            const keywords = dietaryKeywords[restrictionLower] || [restrictionLower];
-            return keywords.some(keyword => cardText.includes(keyword));
-          });
-        });
-
-      case 'restaurantFeatures':
-        const features = Array.isArray(filter.value) ? filter.value : [filter.value];
-        return cards.filter(card => {
-          // Check if the restaurant has the required features
-          const cardText = `${card.title} ${card.description || ''} ${card.types?.join(' ') || ''}`.toLowerCase();
-
-          return features.some(feature => {
-            const featureLower = String(feature).toLowerCase();
-
-            // Define keywords for each feature
-            const featureKeywords: Record<string, string[]> = {
-              'outdoor-seating': ['outdoor', 'patio', 'terrace', 'garden', 'sidewalk', 'al fresco'],
-              'parking': ['parking', 'valet', 'garage', 'lot'],
-              'delivery': ['delivery', 'delivers', 'door dash', 'uber eats', 'grubhub'],
-              'takeout': ['takeout', 'take out', 'to go', 'pickup', 'carry out'],
-              'reservations': ['reservations', 'booking', 'table', 'reserve'],
-              'wifi': ['wifi', 'wi-fi', 'internet', 'wireless'],
-              'wheelchair-accessible': ['wheelchair', 'accessible', 'ada', 'handicap'],
-              'live-music': ['live music', 'band', 'entertainment', 'acoustic'],
-              'bar': ['bar', 'cocktails', 'drinks', 'alcohol', 'wine', 'beer'],
-              'happy-hour': ['happy hour', 'happy-hour', 'specials', 'discounts']
-            };
-
-            const keywords = featureKeywords[featureLower] || [featureLower];
-            return keywords.some(keyword => cardText.includes(keyword));
-          });
-        });
-
-      case 'ambiance':
-        const ambianceTypes = Array.isArray(filter.value) ? filter.value : [filter.value];
-        return cards.filter(card => {
-          // Check if the restaurant matches the ambiance
-          const cardText = `${card.title} ${card.description || ''} ${card.types?.join(' ') || ''}`.toLowerCase();
-
-          return ambianceTypes.some(ambiance => {
-            const ambianceLower = String(ambiance).toLowerCase();
-
-            // Define keywords for each ambiance type
-            const ambianceKeywords: Record<string, string[]> = {
-              'casual': ['casual', 'relaxed', 'informal', 'laid-back', 'family'],
-              'fine-dining': ['fine dining', 'upscale', 'elegant', 'sophisticated', 'gourmet', 'michelin'],
-              'family-friendly': ['family', 'kids', 'children', 'playground', 'kid-friendly'],
-              'romantic': ['romantic', 'intimate', 'date', 'candlelit', 'cozy'],
-              'business': ['business', 'corporate', 'meeting', 'professional', 'lunch'],
-              'trendy': ['trendy', 'hip', 'modern', 'contemporary', 'stylish', 'chic'],
-              'quiet': ['quiet', 'peaceful', 'intimate', 'serene', 'calm'],
-              'lively': ['lively', 'energetic', 'vibrant', 'bustling', 'loud', 'party'],
-              'sports-bar': ['sports', 'bar', 'game', 'tv', 'screen', 'pub'],
-              'rooftop': ['rooftop', 'scenic', 'view', 'skyline', 'terrace', 'panoramic']
-            };
-
-            const keywords = ambianceKeywords[ambianceLower] || [ambianceLower];
-            return keywords.some(keyword => cardText.includes(keyword));
-          });
-        });
-
-      default:
-        return cards;
-    }
-  }
 }
 
 // ============================================================================
@@ -462,6 +266,50 @@ export function mergeFilterValues(filterId: string, existingValue: FilterValue,
   return normalizeFilterValue(filterId, newValue);
 }
 
+/**
+ * Maps the active filters onto the query of the backend search endpoint,
+ * which applies them with the same semantics as FilterEngine
+ */
+export function toSearchFilters(filters: Filter[]): PlaceSearchFilters {
+  const search: PlaceSearchFilters = {};
+  const list = (value: FilterValue) =>
+    (Array.isArray(value) ? value : [value]).map(v => String(v).toLowerCase()).filter(v => v.length > 0);
+
+  for (const filter of filters) {
+    if (!filter.enabled) continue;
+
+    switch (filter.id) {
+      case 'openNow':
+        search.openNow = filter.value === true;
+        break;
+      case 'minRating':
+        search.minRating = Number(filter.value);
+        break;
+      case 'priceLevel':
+        search.priceLevel = Number(filter.value);
+        break;
+      case 'keyword':
+        search.keyword = String(filter.value).trim() || undefined;
+        break;
+      case 'cuisine':
+        search.cuisine = list(filter.value);
+        break;
+      case 'dietaryRestrictions':
+        search.dietary = list(filter.value);
+        break;
+      case 'restaurantFeatures':
+        search.features = list(filter.value);
+        break;
+      case 'ambiance':
+        search.ambiance = list(filter.value);
+        break;
+      // distance is already the search radius
+    }
+  }
+
+  return search;
+}
+
 // ============================================================================
 // SIMPLIFIED HOOK INTERFACE
 // ============================================================================
@@ -511,6 +359,9 @@ export function useFilters(options: UseFiltersOptions = {}): UseFiltersReturn {
   // Ref to track current filters for stable access
   const filtersRef = useRef<Filter[]>([]);
 
+  // Match results per filter and card, kept across runs for incremental re-filtering
+  const matchCacheRef = useRef<FilterMatchCache>(new FilterMatchCache());
+
   // Load persisted filters on mount
   useEffect(() => {
     const loadFilters = async () => {
@@ -523,7 +374,7 @@ export function useFilters(options: UseFiltersOptions = {}): UseFiltersReturn {
             if (Array.isArray(parsed)) {
               // For now, always start with empty filters to prevent persistence issues
               // TODO: Re-enable filter persistence once we have proper version management
-              console.log('🔍 Filter persistence temporarily disabled - starting with empty filters');
+              devLog.log('🔍 Filter persistence temporarily disabled - starting with empty filters');
               setFilters([]);
               // Clear the stored filters to prevent confusion
               await CrossPlatformStorage.removeItem(storageKey);
@@ -551,7 +402,7 @@ export function useFilters(options: UseFiltersOptions = {}): UseFiltersReturn {
       // Temporarily disable filter persistence to prevent issues
       // TODO: Re-enable with proper version management
       if (!enablePersistence) return;
-      console.log('🔍 Filter persistence temporarily disabled');
+      devLog.log('🔍 Filter persistence temporarily disabled');
       return;
 
       try {
@@ -579,31 +430,31 @@ export function useFilters(options: UseFiltersOptions = {}): UseFiltersReturn {
 
   // Actions
   const addFilter = useCallback((filterId: string, value: FilterValue) => {
-    console.log(`🔍 Adding filter: ${filterId} = ${JSON.stringify(value)}`);
+    devLog.log(`🔍 Adding filter: ${filterId} = ${JSON.stringify(value)}`);
     setFilters(prev => {
       // Ensure prev is always an array
       const currentFilters = Array.isArray(prev) ? prev : [];
-      console.log(`🔍 Current filters before adding ${filterId}:`, currentFilters);
+      devLog.log(`🔍 Current filters before adding ${filterId}:`, currentFilters);
       const existing = currentFilters.find(f => f.id === filterId);
 
       if (existing) {
         // Merge with existing filter values to handle duplicates and case sensitivity
         const mergedValue = mergeFilterValues(filterId, existing.value, value);
-        console.log(`🔍 Merging with existing filter ${filterId}:`, {
+        devLog.log(`🔍 Merging with existing filter ${filterId}:`, {
           existing: existing.value,
           new: value,
           merged: mergedValue
         });
         const updatedFilters = currentFilters.map(f => f.id === filterId ? { ...f, value: mergedValue, enabled: true } : f);
-        console.log(`🔍 Updated filters after merge:`, updatedFilters);
+        devLog.log(`🔍 Updated filters after merge:`, updatedFilters);
         return updatedFilters;
       }
 
       // Normalize new filter value
       const normalizedValue = normalizeFilterValue(filterId, value);
-      console.log(`🔍 Adding new filter ${filterId} with normalized value:`, normalizedValue);
+      devLog.log(`🔍 Adding new filter ${filterId} with normalized value:`, normalizedValue);
       const newFilters = [...currentFilters, { id: filterId, value: normalizedValue, enabled: true }];
-      console.log(`🔍 New filters after adding:`, newFilters);
+      devLog.log(`🔍 New filters after adding:`, newFilters);
       return newFilters;
     });
     setError(null);
@@ -635,14 +486,14 @@ export function useFilters(options: UseFiltersOptions = {}): UseFiltersReturn {
   }, []);
 
   const clearFilters = useCallback(async () => {
-    console.log(`🔍 Clearing all filters`);
+    devLog.log(`🔍 Clearing all filters`);
     setFilters(prev => {
       // Only clear if there are actually filters to clear
       if (!Array.isArray(prev) || prev.length === 0) {
-        console.log(`🔍 No filters to clear`);
+        devLog.log(`🔍 No filters to clear`);
         return prev; // No change needed
       }
-      console.log(`🔍 Cleared ${prev.length} filters`);
+      devLog.log(`🔍 Cleared ${prev.length} filters`);
       return [];
     });
     setError(null);
@@ -654,7 +505,7 @@ export function useFilters(options: UseFiltersOptions = {}): UseFiltersReturn {
     try {
       setTimeout(() => {
         if (onNewFiltersAppliedCallback) {
-          console.log(`🔍 Calling onNewFiltersAppliedCallback after clear`);
+          devLog.log(`🔍 Calling onNewFiltersAppliedCallback after clear`);
           onNewFiltersAppliedCallback();
         }
       }, 0);
@@ -668,7 +519,7 @@ export function useFilters(options: UseFiltersOptions = {}): UseFiltersReturn {
     try {
       // Use the ref to get current filters without causing dependency issues
       const currentFilters = filtersRef.current;
-      const result = await FilterEngine.applyFilters(cards, currentFilters);
+      const result = await FilterEngine.applyFilters(cards, currentFilters, matchCacheRef.current);
       return result;
     } catch (err) {
       const errorMessage = err instanceof Error ? err.message : 'Filter application failed';
@@ -680,15 +531,15 @@ export function useFilters(options: UseFiltersOptions = {}): UseFiltersReturn {
   }, []);
 
   const onNewFiltersApplied = useCallback(() => {
-    console.log('🔍 onNewFiltersApplied called, triggering re-filter...');
+    devLog.log('🔍 onNewFiltersApplied called, triggering re-filter...');
     if (onNewFiltersAppliedCallback) {
       // Use setTimeout to avoid potential synchronous state update issues
       setTimeout(() => {
-        console.log('🔍 Calling onNewFiltersAppliedCallback');
+        devLog.log('🔍 Calling onNewFiltersAppliedCallback');
         onNewFiltersAppliedCallback();
       }, 0);
     } else {
-      console.log('🔍 No onNewFiltersAppliedCallback provided');
+      devLog.log('🔍 No onNewFiltersAppliedCallback provided');
     }
   }, [onNewFiltersAppliedCallback]);
 
@@ -4,6 +4,7 @@ import {
   NearbySearchParams,
   GooglePlacesApiError,
 } from "../services/places";
+import { getCardImageWidthPx } from "../utils/deviceOptimization";
 
 // Query keys for React Query
 export const PLACES_QUERY_KEYS = {
@@ -124,7 +125,10 @@ export const usePhotoUrl = (
       maxWidth,
       maxHeight
     ),
-    queryFn: () => placesApi.getPhotoUrl(placeId, photoReference, maxWidth, maxHeight),
+    queryFn: async () => ({
+      placeId,
+      photoUrl: placesApi.getPhotoVariantUrl(photoReference, Math.min(maxWidth, getCardImageWidthPx())),
+    }),
     enabled: enabled && Boolean(photoReference),
     staleTime: CACHE_CONFIG.PHOTO_STALE_TIME,
     gcTime: CACHE_CONFIG.PHOTO_STALE_TIME * 2,
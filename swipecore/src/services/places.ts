@@ -11,6 +11,31 @@ export interface NearbySearchParams {
   type?: string;
 }
 
+// Filters applied server-side by the search endpoint, with FilterEngine semantics
+export interface PlaceSearchFilters {
+  openNow?: boolean;
+  minRating?: number;
+  priceLevel?: number;
+  keyword?: string;
+  cuisine?: string[];
+  dietary?: string[];
+  features?: string[];
+  ambiance?: string[];
+}
+
+export interface PlaceSearchParams extends PlaceSearchFilters {
+  lat: number;
+  lng: number;
+  radius?: number;
+  type?: string;
+  cursor?: number;
+  pageSize?: number;
+}
+
+// Details field tiers, each a superset of the previous one:
+// basic (listing fields), contact (phone, website, hours), atmosphere (reviews, summary)
+export type DetailsTier = "basic" | "contact" | "atmosphere";
+
 export interface ApiResponse<T> {
   success: boolean;
   data: T;
@@ -22,8 +47,19 @@ export interface NearbySearchResponse extends ApiResponse<GooglePlacesApiBasicDe
   count: number;
 }
 
+export interface PlaceSearchResponse extends ApiResponse<GooglePlacesApiBasicDetails[]> {
+  count: number;
+  total: number;
+  nextCursor: number | null;
+}
+
 export interface GooglePlaceDetailsResponse extends ApiResponse<GooglePlacesApiAdvDetails> { }
 
+// One NDJSON line of a details batch response
+export type DetailsBatchResult =
+  | { placeId: string; success: true; data: GooglePlacesApiAdvDetails }
+  | { placeId: string; success: false; error: { message: string; statusCode: number } };
+
 export interface GooglePhotoResponse
   extends ApiResponse<{
     photoUrl: string;
@@ -50,8 +86,13 @@ export class GooglePlacesApiError extends Error {
 
 import { API_CONFIG, buildApiUrl } from "../config/api";
 
+// Responses kept for If-None-Match revalidation
+const MAX_VALIDATED_RESPONSES = 100;
+
 export class PlacesApiClient {
   private baseURL: string;
+  // Last body and ETag per URL, so unchanged results come back as an empty 304
+  private validated = new Map<string, { etag: string; body: unknown }>();
 
   constructor(baseURL?: string) {
     this.baseURL = baseURL || API_CONFIG.BACKEND_URL;
@@ -66,6 +107,43 @@ export class PlacesApiClient {
     });
   }
 
+  /**
+   * GET a JSON endpoint, revalidating a previously seen response with its
+   * ETag. A 304 returns the stored body without downloading it again.
+   */
+  private async getJsonRevalidated<T>(url: string): Promise<{ ok: boolean; status: number; statusText: string; body?: T }> {
+    const previous = this.validated.get(url);
+    const response = await fetch(url, {
+      method: 'GET',
+      headers: {
+        'Content-Type': 'application/json',
+        ...(previous && { 'If-None-Match': previous.etag }),
+      },
+    });
+
+    if (response.status === 304 && previous) {
+      // Refresh its position so frequently used responses are kept
+      this.validated.delete(url);
+      this.validated.set(url, previous);
+      return { ok: true, status: 200, statusText: response.statusText, body: previous.body as T };
+    }
+
+    if (!response.ok) {
+      return { ok: false, status: response.status, statusText: response.statusText };
+    }
+
+    const body = await response.json() as T;
+    const etag = response.headers.get('ETag');
+    if (etag) {
+      this.validated.delete(url);
+      this.validated.set(url, { etag, body });
+      if (this.validated.size > MAX_VALIDATED_RESPONSES) {
+        this.validated.delete(this.validated.keys().next().value as string);
+      }
+    }
+    return { ok: true, status: response.status, statusText: response.statusText, body };
+  }
+
   /**
    * Search for nearby places
    */
@@ -73,27 +151,22 @@ export class PlacesApiClient {
     try {
       console.log("🔍 Searching nearby places:", params);
 
-      const response = await fetch(buildApiUrl(API_CONFIG.ENDPOINTS.PLACES.NEARBY) + `?${new URLSearchParams({
+      const response = await this.getJsonRevalidated<NearbySearchResponse>(buildApiUrl(API_CONFIG.ENDPOINTS.PLACES.NEARBY) + `?${new URLSearchParams({
         lat: params.lat.toString(),
         lng: params.lng.toString(),
         radius: (params.radius || 5000).toString(),
         keyword: params.keyword || '',
         type: params.type || 'restaurant',
-      })}`, {
-        method: 'GET',
-        headers: {
-          'Content-Type': 'application/json',
-        },
-      });
+      })}`);
 
-      if (!response.ok) {
+      if (!response.ok || !response.body) {
         throw new GooglePlacesApiError(
           `Failed to fetch nearby places: ${response.statusText}`,
           response.status
         );
       }
 
-      const data = await response.json() as NearbySearchResponse;
+      const data = response.body;
       console.log("🎯 Found places:", data.data?.length || 0);
 
       if (!data.success) {
@@ -108,27 +181,75 @@ export class PlacesApiClient {
   }
 
   /**
-   * Get detailed information about a specific place
+   * Filtered and ranked deck from the backend, which applies the filters over
+   * every nearby candidate in the radius rather than the one page the app has
    */
-  async getPlaceDetails(placeId: string): Promise<GooglePlacesApiAdvDetails> {
+  async searchPlaces(
+    params: PlaceSearchParams
+  ): Promise<{ places: GooglePlacesApiBasicDetails[]; total: number; nextCursor: number | null }> {
     try {
-      console.log("🔍 Getting place details for:", placeId);
-
-      const response = await fetch(buildApiUrl(`${API_CONFIG.ENDPOINTS.PLACES.DETAILS}/${placeId}`), {
-        method: 'GET',
-        headers: {
-          'Content-Type': 'application/json',
-        },
+      const query = new URLSearchParams({
+        lat: params.lat.toString(),
+        lng: params.lng.toString(),
+        radius: (params.radius || 5000).toString(),
+        type: params.type || 'restaurant',
       });
+      if (params.openNow) query.set('openNow', 'true');
+      if (params.minRating !== undefined) query.set('minRating', params.minRating.toString());
+      if (params.priceLevel !== undefined) query.set('priceLevel', params.priceLevel.toString());
+      if (params.keyword) query.set('keyword', params.keyword);
+      for (const list of ['cuisine', 'dietary', 'features', 'ambiance'] as const) {
+        if (params[list]?.length) query.set(list, params[list]!.join(','));
+      }
+      if (params.cursor) query.set('cursor', params.cursor.toString());
+      if (params.pageSize) query.set('pageSize', params.pageSize.toString());
 
-      if (!response.ok) {
+      const response = await this.getJsonRevalidated<PlaceSearchResponse>(
+        buildApiUrl(API_CONFIG.ENDPOINTS.PLACES.SEARCH) + `?${query}`
+      );
+
+      if (!response.ok || !response.body) {
+        throw new GooglePlacesApiError(
+          `Failed to search places: ${response.statusText}`,
+          response.status
+        );
+      }
+
+      const data = response.body;
+
+      if (!data.success) {
+        throw new GooglePlacesApiError('Backend returned unsuccessful response');
+      }
+
+      return { places: data.data || [], total: data.total, nextCursor: data.nextCursor };
+    } catch (error) {
+      console.error("❌ Error searching places:", error);
+      throw error;
+    }
+  }
+
+  /**
+   * Get detailed information about a specific place, up to the given field tier
+   */
+  async getPlaceDetails(
+    placeId: string,
+    tier: DetailsTier = "atmosphere"
+  ): Promise<GooglePlacesApiAdvDetails> {
+    try {
+      console.log("🔍 Getting place details for:", placeId, tier);
+
+      const response = await this.getJsonRevalidated<GooglePlaceDetailsResponse>(buildApiUrl(`${API_CONFIG.ENDPOINTS.PLACES.DETAILS}/${placeId}`) + `?${new URLSearchParams({
+        tier,
+      })}`);
+
+      if (!response.ok || !response.body) {
         throw new GooglePlacesApiError(
           `Failed to fetch place details: ${response.statusText}`,
           response.status
         );
       }
 
-      const data = await response.json() as GooglePlaceDetailsResponse;
+      const data = response.body;
 
       if (!data.success) {
         throw new GooglePlacesApiError('Backend returned unsuccessful response');
@@ -141,6 +262,64 @@ export class PlacesApiClient {
     }
   }
 
+  /**
+   * Get details for many places in one request. The backend streams one
+   * NDJSON line per place as it resolves; `onResult` is called for each line,
+   * incrementally where the platform exposes a readable body stream.
+   */
+  async getPlaceDetailsBatch(
+    placeIds: string[],
+    tier: DetailsTier = "atmosphere",
+    onResult?: (result: DetailsBatchResult) => void | Promise<void>
+  ): Promise<DetailsBatchResult[]> {
+    const response = await fetch(buildApiUrl(API_CONFIG.ENDPOINTS.PLACES.DETAILS_BATCH), {
+      method: 'POST',
+      headers: {
+        'Content-Type': 'application/json',
+        'Accept': 'application/x-ndjson',
+      },
+      body: JSON.stringify({ placeIds, tier }),
+    });
+
+    if (!response.ok) {
+      throw new GooglePlacesApiError(
+        `Failed to fetch place details batch: ${response.statusText}`,
+        response.status
+      );
+    }
+
+    const results: DetailsBatchResult[] = [];
+    const handleLine = async (line: string) => {
+      if (!line.trim()) return;
+      const result = JSON.parse(line) as DetailsBatchResult;
+      results.push(result);
+      await onResult?.(result);
+    };
+
+    // React Native's fetch has no body stream, so fall back to the full text
+    const reader = response.body?.getReader?.();
+    if (!reader) {
+      for (const line of (await response.text()).split("\n")) {
+        await handleLine(line);
+      }
+      return results;
+    }
+
+    const decoder = new TextDecoder();
+    let buffered = "";
+    for (let chunk = await reader.read(); !chunk.done; chunk = await reader.read()) {
+      buffered += decoder.decode(chunk.value, { stream: true });
+      const lines = buffered.split("\n");
+      buffered = lines.pop() ?? "";
+      for (const line of lines) {
+        await handleLine(line);
+      }
+    }
+    await handleLine(buffered + decoder.decode());
+
+    return results;
+  }
+
   /**
    * Get a photo URL for a place photo reference
    */
@@ -184,6 +363,43 @@ export class PlacesApiClient {
     }
   }
 
+  /**
+   * URL of the photo bytes proxied and cached by the backend. Needs no
+   * round-trip: the image component loads it directly, and the backend serves
+   * it from disk with ETag/Cache-Control after the first fetch.
+   */
+  getPhotoMediaUrl(
+    photoReference: string,
+    maxWidth: number = 400,
+    maxHeight: number = 400
+  ): string {
+    return buildApiUrl(API_CONFIG.ENDPOINTS.PLACES.PHOTO_MEDIA) + `?${new URLSearchParams({
+      photoReference,
+      maxWidth: maxWidth.toString(),
+      maxHeight: maxHeight.toString(),
+    })}`;
+  }
+
+  /**
+   * URL of a photo resized for the card on this device. The backend snaps the
+   * width to a bucket and transcodes to `format` (or what the Accept header
+   * allows), so nearby widths share one cached variant.
+   */
+  getPhotoVariantUrl(
+    photoReference: string,
+    widthPx: number,
+    format?: "avif" | "webp"
+  ): string {
+    const params = new URLSearchParams({
+      photoReference,
+      width: Math.round(widthPx).toString(),
+    });
+    if (format) {
+      params.set("format", format);
+    }
+    return buildApiUrl(API_CONFIG.ENDPOINTS.PLACES.PHOTO_MEDIA) + `?${params}`;
+  }
+
   /**
    * Check if the API server is healthy
    */
@@ -10,9 +10,17 @@ import {
 import { HeuristicScoringEngine } from "@/utils/heuristicScoring";
 import { CostOptimizer, PrefetchCandidate } from "@/utils/costOptimizer";
 import { behaviorTracker } from "./behaviorTracker";
-import { placesApi } from "./places";
+import { placesApi, DetailsTier } from "./places";
 import { QueryClient } from "@tanstack/react-query";
 import { CrossPlatformStorage } from "@/utils/crossPlatformStorage";
+import { getCardImageWidthPx } from "@/utils/deviceOptimization";
+import { devLog } from "@/utils/devLog";
+
+const DETAILS_TIER_RANK: Record<DetailsTier, number> = {
+  basic: 0,
+  contact: 1,
+  atmosphere: 2,
+};
 
 export class PrefetchingService {
   private scoringEngine: HeuristicScoringEngine;
@@ -22,6 +30,8 @@ export class PrefetchingService {
   private eventListeners: Array<(event: PrefetchEvent) => void> = [];
   private prefetchQueue: Map<string, PrefetchCandidate> = new Map();
   private activeRequests: Set<string> = new Set();
+  // Highest details tier fetched per place, so a richer request refetches
+  private detailsTiers: Map<string, DetailsTier> = new Map();
 
   public queryClient: QueryClient | null = null;
 
@@ -34,7 +44,7 @@ export class PrefetchingService {
     this.budgetStatus = null;
     this.initializeBudgetStatus().then((status) => {
       this.budgetStatus = status;
-      console.info("Initialized budget status: ", JSON.stringify(this.budgetStatus, null, 2));
+      devLog.info("Initialized budget status: ", JSON.stringify(this.budgetStatus, null, 2));
     });
 
     // Set up behavior tracking integration
@@ -50,7 +60,7 @@ export class PrefetchingService {
 
     try {
       if (!this.budgetStatus) {
-        console.info("Budget status not initialized");
+        devLog.info("Budget status not initialized");
         setTimeout(() => {
           this.intelligentPrefetch(cards, currentPosition, userPreferences);
         }, 1000);
@@ -65,18 +75,6 @@ export class PrefetchingService {
       const sessionContext = behaviorTracker.getCurrentSession();
       const predictiveSignals = behaviorTracker.getPredictiveSignals();
 
-      // console.log(
-      //   `Current: \n\t${JSON.stringify(
-      //     userBehavior,
-      //     null,
-      //     2
-      //   )} \n\n\t${JSON.stringify(
-      //     sessionContext,
-      //     null,
-      //     2
-      //   )} \n\n\t${JSON.stringify(predictiveSignals, null, 2)}`
-      // );
-
       // Early exit if user likely to end session soon
       if (
         predictiveSignals.likelyToEndSoon &&
@@ -95,12 +93,12 @@ export class PrefetchingService {
         userPreferences
       );
 
-      console.log("candidates: ", JSON.stringify(candidates.map(candidate => candidate.card.title), null, 2));
+      devLog.log("candidates: ", JSON.stringify(candidates.map(candidate => candidate.card.title), null, 2));
 
       // Filter candidates based on thresholds
       const viableCandidates = this.filterViableCandidates(candidates);
 
-      console.log("filterViableCandidates: ", JSON.stringify(viableCandidates.map(candidate => candidate.card.title), null, 2));
+      devLog.log("filterViableCandidates: ", JSON.stringify(viableCandidates.map(candidate => candidate.card.title), null, 2));
 
       // Optimize selection based on separate budget constraints
       const budgetStatus = this.budgetStatus || this.getBudgetStatus();
@@ -110,8 +108,8 @@ export class PrefetchingService {
         userBehavior.detailViewRate
       );
 
-      console.log("Details candidates: ", JSON.stringify(detailsCandidates.map(candidate => candidate.card.title), null, 2));
-      console.log("Photo candidates: ", JSON.stringify(photoCandidates.map(candidate => candidate.card.title), null, 2));
+      devLog.log("Details candidates: ", JSON.stringify(detailsCandidates.map(candidate => candidate.card.title), null, 2));
+      devLog.log("Photo candidates: ", JSON.stringify(photoCandidates.map(candidate => candidate.card.title), null, 2));
 
       // Execute prefetch decisions for both types
       await this.executeSeparatePrefetchDecisions(detailsCandidates, photoCandidates);
@@ -156,7 +154,7 @@ export class PrefetchingService {
 
       // Skip if already prefetched or in progress
       if (this.isPrefetched(card.id) || this.activeRequests.has(card.id)) {
-        console.log(`Skipping ${card.title} because it's already prefetched or in progress`);
+        devLog.log(`Skipping ${card.title} because it's already prefetched or in progress`);
         continue;
       }
 
@@ -193,7 +191,7 @@ export class PrefetchingService {
       budgetStatus
     );
 
-    console.log(`adjustedThresholds: ${JSON.stringify(adjustedThresholds)}`);
+    devLog.log(`adjustedThresholds: ${JSON.stringify(adjustedThresholds)}`);
 
     return candidates.filter((candidate) => {
       const { score, position } = candidate;
@@ -248,7 +246,7 @@ export class PrefetchingService {
 
         // Prefetch photos
         if (candidate.card.photos && candidate.card.photos.length > 0) {
-          console.log(`Prefetching photos for ${candidate.card.title}...`);
+          devLog.log(`Prefetching photos for ${candidate.card.title}...`);
           await this.prefetchPhotos(candidate.card, this.queryClient);
         }
 
@@ -283,37 +281,85 @@ export class PrefetchingService {
     }
 
     // Execute details prefetching
-    for (const candidate of detailsCandidates) {
-      try {
-        // Mark as active
-        this.activeRequests.add(candidate.card.id);
+    if (detailsCandidates.length > 0) {
+      await this.prefetchDetailsBatch(detailsCandidates, "contact");
+    }
+  }
 
-        // Emit prefetch started event for details
-        this.emitEvent({
-          type: "prefetch_started",
-          cardId: candidate.card.id,
-          timestamp: Date.now(),
-          cost: candidate.estimatedCost,
-          score: candidate.score,
-          decision: {
-            shouldPrefetch: true,
-            shouldPrefetchPhotos: false,
-            priority: this.getPriority(candidate.score),
-            reason: `Details prefetch - Score: ${candidate.score.finalScore.toFixed(1)}, Confidence: ${(candidate.score.confidence * 100).toFixed(1)}%`,
-            estimatedCost: candidate.estimatedCost,
-            expectedValue: candidate.expectedValue,
-            confidence: candidate.score.confidence,
-            decidedAt: Date.now(),
-          },
-          metadata: {
-            position: candidate.position,
-            valuePerDollar: candidate.valuePerDollar,
-            type: "details",
-          },
-        });
+  /**
+   * Warm details for many cards with one request to the batch endpoint, so a
+   * handful of cards costs one round-trip instead of one each. Results stream
+   * back per place and are written into the query cache as they arrive.
+   */
+  private async prefetchDetailsBatch(
+    candidates: PrefetchCandidate[],
+    tier: DetailsTier
+  ): Promise<void> {
+    const pending = new Map<string, PrefetchCandidate>();
 
-        // Prefetch place details
-        await this.prefetchPlaceDetails(candidate.card.id, this.queryClient);
+    for (const candidate of candidates) {
+      const placeId = candidate.card.id;
+      if (pending.has(placeId) || !this.needsDetailsFetch(placeId, tier)) continue;
+
+      // Mark as active
+      this.activeRequests.add(placeId);
+      pending.set(placeId, candidate);
+
+      // Emit prefetch started event for details
+      this.emitEvent({
+        type: "prefetch_started",
+        cardId: placeId,
+        timestamp: Date.now(),
+        cost: candidate.estimatedCost,
+        score: candidate.score,
+        decision: {
+          shouldPrefetch: true,
+          shouldPrefetchPhotos: false,
+          priority: this.getPriority(candidate.score),
+          reason: `Details prefetch - Score: ${candidate.score.finalScore.toFixed(1)}, Confidence: ${(candidate.score.confidence * 100).toFixed(1)}%`,
+          estimatedCost: candidate.estimatedCost,
+          expectedValue: candidate.expectedValue,
+          confidence: candidate.score.confidence,
+          decidedAt: Date.now(),
+        },
+        metadata: {
+          position: candidate.position,
+          valuePerDollar: candidate.valuePerDollar,
+          type: "details",
+        },
+      });
+    }
+
+    if (pending.size === 0) return;
+
+    const failDetails = (candidate: PrefetchCandidate, error: unknown) => {
+      console.error(`Failed to prefetch details for ${candidate.card.id}:`, error);
+      this.emitEvent({
+        type: "prefetch_completed",
+        cardId: candidate.card.id,
+        timestamp: Date.now(),
+        cost: 0,
+        score: candidate.score,
+        decision: {} as PrefetchDecision,
+        metadata: { success: false, error: error instanceof Error ? error.message : String(error), type: "details" },
+      });
+    };
+
+    try {
+      devLog.log(`🔍 [Prefetcher] Batch prefetching details for ${pending.size} places`);
+      await placesApi.getPlaceDetailsBatch([...pending.keys()], tier, async (result) => {
+        const candidate = pending.get(result.placeId);
+        if (!candidate) return;
+        pending.delete(result.placeId);
+        this.activeRequests.delete(result.placeId);
+
+        if (!result.success) {
+          failDetails(candidate, new Error(result.error.message));
+          return;
+        }
+
+        this.queryClient?.setQueryData(["places", "details", result.placeId], result.data);
+        this.detailsTiers.set(result.placeId, tier);
 
         // Update details budget
         await this.updateDetailsBudgetSpend(candidate.estimatedCost);
@@ -321,47 +367,70 @@ export class PrefetchingService {
         // Emit prefetch completed event
         this.emitEvent({
           type: "prefetch_completed",
-          cardId: candidate.card.id,
+          cardId: result.placeId,
           timestamp: Date.now(),
           cost: candidate.estimatedCost,
           score: candidate.score,
           decision: {} as PrefetchDecision,
           metadata: { success: true, type: "details" },
         });
-      } catch (error) {
-        console.error(`Failed to prefetch details for ${candidate.card.id}:`, error);
-        this.emitEvent({
-          type: "prefetch_completed",
-          cardId: candidate.card.id,
-          timestamp: Date.now(),
-          cost: 0,
-          score: candidate.score,
-          decision: {} as PrefetchDecision,
-          metadata: { success: false, error: error instanceof Error ? error.message : String(error), type: "details" },
-        });
-      } finally {
-        // Remove from active requests
-        this.activeRequests.delete(candidate.card.id);
-      }
+      });
+    } catch (error) {
+      pending.forEach((candidate) => failDetails(candidate, error));
+    } finally {
+      // Places the stream never answered for are no longer in flight either
+      pending.forEach((_, placeId) => this.activeRequests.delete(placeId));
     }
   }
 
+  /**
+   * Whether the query cache lacks fresh details for a place at `tier`
+   */
+  private needsDetailsFetch(placeId: string, tier: DetailsTier): boolean {
+    const fetchedTier = this.detailsTiers.get(placeId);
+    if (fetchedTier === undefined || DETAILS_TIER_RANK[fetchedTier] < DETAILS_TIER_RANK[tier]) {
+      return true;
+    }
+
+    const state = this.queryClient?.getQueryState(["places", "details", placeId]);
+    return !state?.dataUpdatedAt || Date.now() - state.dataUpdatedAt > 30 * 60 * 1000;
+  }
+
+  /**
+   * Whether details for a place have been fetched at `tier` or above
+   */
+  public hasDetailsTier(placeId: string, tier: DetailsTier): boolean {
+    const fetchedTier = this.detailsTiers.get(placeId);
+    return fetchedTier !== undefined && DETAILS_TIER_RANK[fetchedTier] >= DETAILS_TIER_RANK[tier];
+  }
+
   public async prefetchPlaceDetails(
     placeId: string,
-    queryClient: any
+    queryClient: any,
+    tier: DetailsTier = "atmosphere"
   ): Promise<void> {
     try {
-      console.log(`🔍 [Prefetcher] Starting to prefetch details for ${placeId}`);
+      devLog.log(`🔍 [Prefetcher] Starting to prefetch details for ${placeId}`);
+      const fetchedTier = this.detailsTiers.get(placeId);
+      const needsUpgrade =
+        fetchedTier !== undefined &&
+        DETAILS_TIER_RANK[fetchedTier] < DETAILS_TIER_RANK[tier];
+
       await queryClient.prefetchQuery({
         queryKey: ["places", "details", placeId],
         queryFn: () => {
-          console.log(`🔍 [Prefetcher] Calling placesApi.getPlaceDetails for ${placeId}`);
-          return placesApi.getPlaceDetails(placeId);
+          devLog.log(`🔍 [Prefetcher] Calling placesApi.getPlaceDetails for ${placeId}`);
+          return placesApi.getPlaceDetails(placeId, tier);
         },
-        staleTime: 30 * 60 * 1000, // 30 minutes
+        // Cached data from a lower tier is treated as stale so it gets upgraded
+        staleTime: needsUpgrade ? 0 : 30 * 60 * 1000, // 30 minutes
         cacheTime: 60 * 60 * 1000, // 1 hour
       });
-      console.log(`✅ [Prefetcher] Successfully prefetched details for ${placeId}`);
+
+      if (fetchedTier === undefined || needsUpgrade) {
+        this.detailsTiers.set(placeId, tier);
+      }
+      devLog.log(`✅ [Prefetcher] Successfully prefetched details for ${placeId}`);
     } catch (error) {
       console.error(`❌ [Prefetcher] Failed to prefetch details for ${placeId}:`, error);
       throw new Error(
@@ -384,13 +453,13 @@ export class PrefetchingService {
       const firstPhoto = card.photos[0];
       await queryClient.prefetchQuery({
         queryKey: ["places", "photos", card.id],
-        queryFn: () =>
-          placesApi.getPhotoUrl(
-            card.basicDetails.id,
+        queryFn: async () => ({
+          placeId: card.basicDetails.id,
+          photoUrl: placesApi.getPhotoVariantUrl(
             firstPhoto.name || "",
-            firstPhoto.widthPx || 400,
-            firstPhoto.heightPx || 400
+            getCardImageWidthPx()
           ),
+        }),
         staleTime: 60 * 60 * 1000, // 1 hour
         cacheTime: 2 * 60 * 60 * 1000, // 2 hours
       });
@@ -516,8 +585,6 @@ export class PrefetchingService {
         this.budgetStatus.remainingDaily <= 0 ||
         this.budgetStatus.remainingMonthly <= 0;
     }
-
-    // console.log("updateBudgetStatus: ", JSON.stringify(this.budgetStatus, null, 2));
   }
 
   async updateBudgetSpend(cost: number): Promise<void> {
@@ -553,8 +620,6 @@ export class PrefetchingService {
         this.budgetStatus.monthlyBudget - currentMonthlySpend
       );
     }
-
-    // console.log("updateBudgetSpend: ", JSON.stringify(this.budgetStatus, null, 2));
   }
 
   // New method to update details budget specifically
@@ -719,7 +784,7 @@ export class PrefetchingService {
 
   private log(message: string, data?: any): void {
     if (this.config.debugMode) {
-      console.log(`[PrefetchingService] ${message}`, data);
+      devLog.log(`[PrefetchingService] ${message}`, data);
     }
   }
 
@@ -1,6 +1,7 @@
 // Domain models for the NomNom app - integrating Google Places API data
 
 import { getFeatureFlags } from '../config/env';
+import type { CardSearchIndex } from '../utils/filterPredicates';
 
 // Get feature flags from environment variables
 const featureFlags = getFeatureFlags();
@@ -11,6 +12,7 @@ export const FEATURE_FLAGS = {
   ENABLE_DEBUG: featureFlags.enableDebug,
   USE_LIVE_DATA: featureFlags.useLiveData,
   GOOGLE_PLACES_ENABLED: featureFlags.googlePlacesEnabled,
+  SERVER_FILTERING: featureFlags.serverFiltering,
   ADS_ENABLED: featureFlags.adsEnabled,
   ADS_NATIVE_IN_DECK: featureFlags.adsNativeInDeck,
   ADS_NATIVE_INTERVAL: featureFlags.adsNativeInterval,
@@ -39,6 +41,8 @@ export interface GooglePlacesApiBasicDetails {
       uri: string;
       photoUri: string;
     }>;
+    // Base64 ThumbHash placeholder from the backend
+    thumbhash?: string;
   }>;
   types?: string[];
   location?: {
@@ -101,6 +105,7 @@ export interface PhotoReference {
   name?: string;
   widthPx: number;
   heightPx: number;
+  thumbhash?: string;
 }
 
 // Unified SwipeCard interface that works with Google Places data
@@ -143,6 +148,9 @@ export interface RestaurantCard {
 
   reviews?: AppReview[];
 
+  // Filter keyword index, built once when the card is created
+  searchIndex?: CardSearchIndex;
+
   // Legacy fields for backward compatibility
   [key: string]: any;
 }
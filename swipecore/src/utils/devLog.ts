@@ -0,0 +1,18 @@
+// Development-only logging facade
+// Release builds strip every devLog call, arguments included, with
+// scripts/babel-plugin-strip-dev-log.js, so messages that stringify or dump
+// objects cost nothing in production. Where the plugin does not run (web
+// tooling, tests) the calls are no-ops outside __DEV__.
+
+type LogFn = (...args: unknown[]) => void;
+
+const noop: LogFn = () => {};
+
+const isDev = typeof __DEV__ !== "undefined" && __DEV__;
+
+export const devLog: { debug: LogFn; log: LogFn; info: LogFn; warn: LogFn } = {
+  debug: isDev ? console.debug.bind(console) : noop,
+  log: isDev ? console.log.bind(console) : noop,
+  info: isDev ? console.info.bind(console) : noop,
+  warn: isDev ? console.warn.bind(console) : noop,
+};
@@ -1,5 +1,5 @@
 // Device optimization utilities for React Native
-import { Platform, Dimensions } from 'react-native';
+import { Platform, Dimensions, PixelRatio } from 'react-native';
 
 export function initializeDeviceOptimizations(): void {
   try {
@@ -63,6 +63,13 @@ export function getDeviceInfo(): DeviceInfo {
   };
 }
 
+// Card photos span the screen width; low-end devices get a capped density
+export function getCardImageWidthPx(): number {
+  const { width } = Dimensions.get('window');
+  const density = getDeviceInfo().isLowEndDevice ? Math.min(PixelRatio.get(), 2) : PixelRatio.get();
+  return Math.round(width * density);
+}
+
 export function getOptimizedPerformanceConfig(device: DeviceInfo): {
   optimizedDragThreshold: number;
   fastSnapBack: boolean;
@@ -0,0 +1,145 @@
+// Benchmark for the compiled filter predicates
+// Run this to compare them with the old per-card string scans on a large deck
+
+import { RestaurantCard } from '../types/Types';
+import { Filter } from '../hooks/useFilters';
+import {
+  AMBIANCE_KEYWORDS,
+  CUISINE_KEYWORDS,
+  DIETARY_KEYWORDS,
+  FEATURE_KEYWORDS,
+  FilterMatchCache,
+  buildSearchIndex,
+  compileFilter,
+} from './filterPredicates';
+
+const NAME_WORDS = ['Golden', 'Rustic', 'Blue', 'Corner', 'Garden', 'Harbor', 'Urban', 'Little', 'Royal', 'Sunset'];
+const VENUE_WORDS = ['Trattoria', 'Sushi Bar', 'Taqueria', 'Bistro', 'Curry House', 'Grill', 'Noodle Shop', 'Diner', 'Cafe', 'Pub'];
+const DESCRIPTIONS = [
+  'Casual family spot with a patio and takeout',
+  'Upscale romantic dining with a rooftop view',
+  'Vegan and gluten-free friendly, free wifi',
+  'Lively sports bar with happy hour specials',
+  'Quiet intimate room, reservations recommended',
+  '',
+];
+const TYPES = [
+  ['italian_restaurant', 'restaurant'],
+  ['japanese_restaurant', 'restaurant'],
+  ['mexican_restaurant', 'restaurant'],
+  ['cafe', 'food'],
+  ['bar', 'restaurant'],
+  ['indian_restaurant', 'restaurant'],
+];
+
+// Filters covering every keyword branch, as a user stacking chips would
+const BENCH_FILTERS: Filter[] = [
+  { id: 'cuisine', value: ['italian', 'japanese', 'thai'], enabled: true },
+  { id: 'dietaryRestrictions', value: ['vegan', 'gluten-free'], enabled: true },
+  { id: 'restaurantFeatures', value: ['outdoor-seating', 'wifi', 'takeout'], enabled: true },
+  { id: 'ambiance', value: ['casual', 'romantic', 'quiet'], enabled: true },
+];
+
+function makeDeck(count: number): RestaurantCard[] {
+  return Array.from({ length: count }, (_, i) => {
+    const card = {
+      id: `bench-${i}`,
+      title: `${NAME_WORDS[i % NAME_WORDS.length]} ${VENUE_WORDS[(i * 7) % VENUE_WORDS.length]}`,
+      description: DESCRIPTIONS[(i * 3) % DESCRIPTIONS.length],
+      types: TYPES[(i * 5) % TYPES.length],
+      cuisine: undefined,
+      photos: [],
+    } as unknown as RestaurantCard;
+    card.searchIndex = buildSearchIndex(card);
+    return card;
+  });
+}
+
+// The previous FilterEngine matching: every card rebuilds and rescans its text
+// for every selected value and keyword (without its logging)
+function legacyFilter(cards: RestaurantCard[], filters: Filter[]): RestaurantCard[] {
+  let filtered = [...cards];
+  for (const filter of filters) {
+    const values = (Array.isArray(filter.value) ? filter.value : [filter.value]).map(v => String(v).toLowerCase());
+    const table =
+      filter.id === 'cuisine' ? CUISINE_KEYWORDS :
+      filter.id === 'dietaryRestrictions' ? DIETARY_KEYWORDS :
+      filter.id === 'restaurantFeatures' ? FEATURE_KEYWORDS :
+      AMBIANCE_KEYWORDS;
+
+    filtered = filtered.filter(card => {
+      if (filter.id === 'cuisine') {
+        const cardTypes: string[] = card.types || [];
+        return values.some(cuisine =>
+          cardTypes.some(type => type.toLowerCase().includes(cuisine) || cuisine.includes(type.toLowerCase())) ||
+          (card.title || '').toLowerCase().includes(cuisine) ||
+          (card.description || '').toLowerCase().includes(cuisine) ||
+          (card.cuisine || '').toLowerCase().includes(cuisine) ||
+          (table[cuisine] || [cuisine]).some(keyword =>
+            (card.title || '').toLowerCase().includes(keyword) ||
+            (card.description || '').toLowerCase().includes(keyword) ||
+            cardTypes.some(type => type.toLowerCase().includes(keyword))
+          )
+        );
+      }
+
+      const cardText = `${card.title} ${card.description || ''} ${card.types?.join(' ') || ''}`.toLowerCase();
+      return values.some(value => (table[value] || [value]).some(keyword => cardText.includes(keyword)));
+    });
+  }
+  return filtered;
+}
+
+function compiledFilter(cards: RestaurantCard[], filters: Filter[]): RestaurantCard[] {
+  const predicates = filters.map(compileFilter).filter(Boolean) as Array<(card: RestaurantCard) => boolean>;
+  return cards.filter(card => predicates.every(predicate => predicate(card)));
+}
+
+function timeRuns(run: () => RestaurantCard[], iterations: number): { msPerRun: number; matched: number } {
+  let matched = 0;
+  const start = Date.now();
+  for (let i = 0; i < iterations; i++) {
+    matched = run().length;
+  }
+  return { msPerRun: (Date.now() - start) / iterations, matched };
+}
+
+// Function to run the benchmark (for development/debugging)
+export function runFilterBenchmark(deckSizes: number[] = [1000, 5000], iterations = 50) {
+  console.log('🧪 Running Filter Predicate Benchmark\n');
+
+  deckSizes.forEach(size => {
+    const indexStart = Date.now();
+    const deck = makeDeck(size);
+    const indexMs = Date.now() - indexStart;
+
+    // Warm up both paths before timing
+    legacyFilter(deck, BENCH_FILTERS);
+    compiledFilter(deck, BENCH_FILTERS);
+
+    const legacy = timeRuns(() => legacyFilter(deck, BENCH_FILTERS), iterations);
+    const compiled = timeRuns(() => compiledFilter(deck, BENCH_FILTERS), iterations);
+
+    // One chip changes per run; the other filters' bitsets are reused
+    const ambianceOptions = Object.keys(AMBIANCE_KEYWORDS);
+    const matches = new FilterMatchCache();
+    matches.filter(deck, BENCH_FILTERS);
+    let toggle = 0;
+    const incremental = timeRuns(() => {
+      const ambiance = ambianceOptions[toggle++ % ambianceOptions.length];
+      return matches.filter(deck, [...BENCH_FILTERS.slice(0, 3), { id: 'ambiance', value: [ambiance], enabled: true }]);
+    }, iterations);
+
+    console.log(`Deck of ${size} cards (${BENCH_FILTERS.length} filters, ${iterations} runs):`);
+    console.log(`  🐢 String scans: ${legacy.msPerRun.toFixed(2)}ms per run`);
+    console.log(`  ⚡ Compiled:     ${compiled.msPerRun.toFixed(2)}ms per run (index built in ${indexMs}ms, once)`);
+    console.log(`  🔁 One chip changed: ${incremental.msPerRun.toFixed(2)}ms per run (other filters cached)`);
+    console.log(`  📈 Speed-up:     ${(legacy.msPerRun / Math.max(compiled.msPerRun, 0.001)).toFixed(1)}x`);
+    console.log(`  ${legacy.matched === compiled.matched ? '✅' : '❌'} Matched cards: ${compiled.matched}/${legacy.matched}`);
+    console.log('');
+  });
+}
+
+// Example usage:
+// import { runFilterBenchmark } from './filterPredicates.bench';
+// runFilterBenchmark();
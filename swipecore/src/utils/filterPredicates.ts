@@ -0,0 +1,276 @@
+import type { RestaurantCard } from '../types/Types';
+import type { Filter, FilterValue } from '../hooks/useFilters';
+import {
+  CUISINE_KEYWORDS,
+  DIETARY_KEYWORDS,
+  FEATURE_KEYWORDS,
+  AMBIANCE_KEYWORDS,
+} from '../../backend/src/shared/filterKeywords';
+
+// ============================================================================
+// KEYWORD TABLES - shared with the backend's server-side search
+// ============================================================================
+
+export { CUISINE_KEYWORDS, DIETARY_KEYWORDS, FEATURE_KEYWORDS, AMBIANCE_KEYWORDS };
+
+// Every keyword and value the tables can ask about. A card records which of
+// these occur in its text once, so filters test set membership instead of
+// rescanning strings; anything outside the vocabulary falls back to a scan.
+const VOCABULARY: string[] = Array.from(new Set(
+  [CUISINE_KEYWORDS, DIETARY_KEYWORDS, FEATURE_KEYWORDS, AMBIANCE_KEYWORDS].flatMap(table =>
+    Object.entries(table).flatMap(([value, keywords]) => [value, ...keywords])
+  )
+));
+const VOCABULARY_SET = new Set(VOCABULARY);
+
+// ============================================================================
+// CARD SEARCH INDEX - built once per card
+// ============================================================================
+
+export interface CardSearchIndex {
+  // Lowercased title, description and types, as the filters have always matched them
+  text: string;
+  types: string[];
+  cuisine: string;
+  // Vocabulary entries that occur in `text`
+  keywords: Set<string>;
+}
+
+export const buildSearchIndex = (
+  card: Pick<RestaurantCard, 'title' | 'description' | 'types' | 'cuisine'>
+): CardSearchIndex => {
+  const types: string[] = (card.types || []).map((type: string) => type.toLowerCase());
+  const text = `${card.title || ''} ${card.description || ''} ${types.join(' ')}`.toLowerCase();
+
+  const keywords = new Set<string>();
+  for (const keyword of VOCABULARY) {
+    if (text.includes(keyword)) keywords.add(keyword);
+  }
+
+  return { text, types, cuisine: (card.cuisine || '').toLowerCase(), keywords };
+};
+
+// Cards that did not come through transformPlaceBasicToCard (mock data, cards
+// restored from JSON, which turns the keyword Set into {}) are indexed on first use
+const lateIndexes = new WeakMap<RestaurantCard, CardSearchIndex>();
+
+export const searchIndexFor = (card: RestaurantCard): CardSearchIndex => {
+  if (card.searchIndex?.keywords instanceof Set) return card.searchIndex;
+
+  let index = lateIndexes.get(card);
+  if (!index) {
+    index = buildSearchIndex(card);
+    lateIndexes.set(card, index);
+  }
+  return index;
+};
+
+// ============================================================================
+// COMPILED PREDICATES
+// ============================================================================
+
+export type CardPredicate = (card: RestaurantCard) => boolean;
+
+type IndexTest = (index: CardSearchIndex) => boolean;
+
+const PRICE_SYMBOLS: Record<number, '$' | '$$' | '$$$' | '$$$$'> = {
+  1: '$',
+  2: '$$',
+  3: '$$$',
+  4: '$$$$',
+};
+
+const toValues = (value: FilterValue): string[] =>
+  (Array.isArray(value) ? value : [value]).map(v => String(v).toLowerCase());
+
+// Resolve a term to a set lookup when the index tracks it, a substring scan otherwise
+const containsTerm = (term: string): IndexTest =>
+  VOCABULARY_SET.has(term)
+    ? index => index.keywords.has(term)
+    : index => index.text.includes(term);
+
+const anyTerm = (terms: string[]): IndexTest => {
+  const tests = Array.from(new Set(terms)).map(containsTerm);
+  return index => tests.some(test => test(index));
+};
+
+// A multiselect filter passes when any selected value matches one of its keywords
+const compileKeywordFilter = (values: string[], table: Record<string, string[]>): IndexTest => {
+  const tests = values.map(value => anyTerm(table[value] || [value]));
+  return index => tests.some(test => test(index));
+};
+
+const compileCuisineFilter = (cuisines: string[]): IndexTest => {
+  const tests = cuisines.map((cuisine): IndexTest => {
+    const keywordTest = anyTerm([cuisine, ...(CUISINE_KEYWORDS[cuisine] || [cuisine])]);
+    return index =>
+      index.types.some(type => type.includes(cuisine) || cuisine.includes(type)) ||
+      index.cuisine.includes(cuisine) ||
+      keywordTest(index);
+  });
+  return index => tests.some(test => test(index));
+};
+
+/**
+ * Compile one filter into a predicate, or null when it lets every card through.
+ * Value parsing and keyword lookups happen here once rather than per card.
+ */
+export function compileFilter(filter: Filter): CardPredicate | null {
+  let test: IndexTest;
+
+  switch (filter.id) {
+    case 'openNow':
+      return filter.value ? card => card.isOpenNow === true : null;
+
+    case 'minRating': {
+      const minRating = Number(filter.value);
+      return card => (card.rating || 0) >= minRating;
+    }
+
+    case 'priceLevel': {
+      // Map numeric selection (1-4) to RestaurantCard.priceRange ('$'..'$$$$')
+      const symbol = PRICE_SYMBOLS[Number(filter.value)];
+      return card => card.priceRange === symbol;
+    }
+
+    case 'cuisine':
+      test = compileCuisineFilter(toValues(filter.value));
+      break;
+
+    case 'keyword':
+      test = containsTerm(String(filter.value).toLowerCase());
+      break;
+
+    case 'distance':
+      // Distance is handled by the radius of the API call, not client-side filtering
+      return null;
+
+    case 'dietaryRestrictions':
+      test = compileKeywordFilter(toValues(filter.value), DIETARY_KEYWORDS);
+      break;
+
+    case 'restaurantFeatures':
+      test = compileKeywordFilter(toValues(filter.value), FEATURE_KEYWORDS);
+      break;
+
+    case 'ambiance':
+      test = compileKeywordFilter(toValues(filter.value), AMBIANCE_KEYWORDS);
+      break;
+
+    default:
+      return null;
+  }
+
+  return card => test(searchIndexFor(card));
+}
+
+// ============================================================================
+// INCREMENTAL MATCHING - per-filter bitsets reused across runs
+// ============================================================================
+
+// Filter/value combinations kept, so toggling a chip back on costs nothing
+const MAX_FILTER_ENTRIES = 16;
+// Distinct cards tracked before the slots (and every bitset) start over
+const MAX_CARD_SLOTS = 8192;
+
+interface FilterBits {
+  predicate: CardPredicate | null;
+  evaluated: Uint32Array;
+  matched: Uint32Array;
+}
+
+const hasBit = (bits: Uint32Array, slot: number) => (bits[slot >>> 5] & (1 << (slot & 31))) !== 0;
+
+const setBit = (bits: Uint32Array, slot: number) => {
+  bits[slot >>> 5] |= 1 << (slot & 31);
+};
+
+const grow = (bits: Uint32Array, words: number): Uint32Array => {
+  if (bits.length >= words) return bits;
+  const grown = new Uint32Array(Math.max(words, bits.length * 2));
+  grown.set(bits);
+  return grown;
+};
+
+/**
+ * Match bitsets per filter value, over slots assigned to card IDs as they are
+ * first seen. A run only evaluates (filter, card) pairs it has not seen: when
+ * one chip changes, only that filter is evaluated, and when cards are
+ * appended, only the new cards are. The result is the AND of the active
+ * filters' bitsets. Filters read fields of the card's basic place data, which
+ * enrichment does not change, so results are keyed by ID, not object.
+ */
+export class FilterMatchCache {
+  private slots = new Map<string, number>();
+  private entries = new Map<string, FilterBits>();
+
+  filter(cards: RestaurantCard[], filters: Filter[]): RestaurantCard[] {
+    if (this.slots.size + cards.length > MAX_CARD_SLOTS) {
+      this.reset();
+    }
+
+    const cardSlots = cards.map(card => this.slotFor(card.id));
+    const words = (this.slots.size + 31) >>> 5;
+
+    let combined: Uint32Array | null = null;
+    for (const filter of filters) {
+      const bits = this.bitsFor(filter, words);
+      if (!bits.predicate) continue;
+
+      for (let i = 0; i < cards.length; i++) {
+        const slot = cardSlots[i];
+        if (hasBit(bits.evaluated, slot)) continue;
+        setBit(bits.evaluated, slot);
+        if (bits.predicate(cards[i])) setBit(bits.matched, slot);
+      }
+
+      if (!combined) {
+        combined = bits.matched.slice(0, words);
+      } else {
+        for (let w = 0; w < words; w++) combined[w] &= bits.matched[w];
+      }
+    }
+
+    if (!combined) return cards;
+    const result = combined;
+    return cards.filter((_, i) => hasBit(result, cardSlots[i]));
+  }
+
+  reset(): void {
+    this.slots.clear();
+    this.entries.clear();
+  }
+
+  private slotFor(id: string): number {
+    let slot = this.slots.get(id);
+    if (slot === undefined) {
+      slot = this.slots.size;
+      this.slots.set(id, slot);
+    }
+    return slot;
+  }
+
+  private bitsFor(filter: Filter, words: number): FilterBits {
+    const key = `${filter.id}:${JSON.stringify(filter.value)}`;
+    let bits = this.entries.get(key);
+
+    if (bits) {
+      // Most recently used last
+      this.entries.delete(key);
+      bits.evaluated = grow(bits.evaluated, words);
+      bits.matched = grow(bits.matched, words);
+    } else {
+      bits = {
+        predicate: compileFilter(filter),
+        evaluated: new Uint32Array(words),
+        matched: new Uint32Array(words),
+      };
+      if (this.entries.size >= MAX_FILTER_ENTRIES) {
+        this.entries.delete(this.entries.keys().next().value as string);
+      }
+    }
+
+    this.entries.set(key, bits);
+    return bits;
+  }
+}
@@ -0,0 +1,61 @@
+// Photo placeholders and decode-ahead for the deck
+// The backend sends a ThumbHash with the leading photo of each place; it is
+// decoded to a tiny data URL drawn (blurred) until the full image is ready.
+
+import { Image } from "react-native";
+import { thumbHashToDataURL } from "thumbhash";
+import { RestaurantCard } from "@/types/Types";
+import { devLog } from "@/utils/devLog";
+
+// Decoded placeholders kept, by hash; one per card in a typical deck
+const MAX_PLACEHOLDERS = 200;
+// Full-size URLs already handed to the image cache
+const MAX_PREFETCHED = 500;
+
+const placeholders = new Map<string, string>();
+const prefetched = new Set<string>();
+
+const base64ToBytes = (base64: string): Uint8Array =>
+  Uint8Array.from(atob(base64), (char) => char.charCodeAt(0));
+
+/**
+ * Data URL for a base64 ThumbHash, or null when there is none or it cannot
+ * be decoded
+ */
+export function placeholderUri(thumbhash?: string): string | null {
+  if (!thumbhash) return null;
+
+  let uri = placeholders.get(thumbhash);
+  if (uri === undefined) {
+    try {
+      uri = thumbHashToDataURL(base64ToBytes(thumbhash));
+    } catch (error) {
+      devLog.warn("Invalid photo placeholder", error);
+      uri = "";
+    }
+    placeholders.set(thumbhash, uri);
+    if (placeholders.size > MAX_PLACEHOLDERS) {
+      placeholders.delete(placeholders.keys().next().value as string);
+    }
+  }
+  return uri || null;
+}
+
+/**
+ * Download the card's first photo into the native image cache, so the view
+ * that reveals it only has to decode from disk (or memory)
+ */
+export function prefetchCardImage(card: RestaurantCard): void {
+  const url = card.photos?.[0]?.url;
+  if (!url || prefetched.has(url)) return;
+
+  prefetched.add(url);
+  if (prefetched.size > MAX_PREFETCHED) {
+    prefetched.delete(prefetched.values().next().value as string);
+  }
+
+  Image.prefetch(url).catch((error) => {
+    prefetched.delete(url);
+    devLog.warn(`Image prefetch failed for ${card.id}`, error);
+  });
+}
@@ -7,6 +7,7 @@ import {
   PhotoReference,
 } from "../types/Types";
 import { calculateDistance } from "../services/places";
+import { buildSearchIndex } from "./filterPredicates";
 
 /**
  * Transform Google Places price level to app price range format
@@ -168,6 +169,7 @@ export const transformPhotos = (
     name: photo.name,
     widthPx: photo.widthPx,
     heightPx: photo.heightPx,
+    thumbhash: photo.thumbhash,
   }));
 
   return { photoReferences };
@@ -217,7 +219,7 @@ export const transformPlaceBasicToCard = (
   );
   const { photoReferences } = transformPhotos(place.photos);
 
-  return {
+  const card: RestaurantCard = {
     id: place.id,
 
     basicDetails: place,
@@ -237,6 +239,9 @@ export const transformPlaceBasicToCard = (
     location: place.location,
     distanceInMeters,
   };
+  card.searchIndex = buildSearchIndex(card);
+
+  return card;
 };
 
 /**
@@ -249,6 +254,120 @@ export const transformPlacesToCards = (
   return places.map((place) => transformPlaceBasicToCard(place, options));
 };
 
+// Cards kept by the transform cache, and how far the user may move before
+// card distances are recomputed
+const MAX_CACHED_CARDS = 500;
+const DISTANCE_REFRESH_METERS = 100;
+
+// Whether two versions of a place would produce the same card
+const samePlace = (
+  a: GooglePlacesApiBasicDetails,
+  b: GooglePlacesApiBasicDetails
+): boolean =>
+  a === b ||
+  (a.displayName?.text === b.displayName?.text &&
+    a.formattedAddress === b.formattedAddress &&
+    a.rating === b.rating &&
+    a.priceLevel === b.priceLevel &&
+    a.regularOpeningHours?.openNow === b.regularOpeningHours?.openNow &&
+    a.location?.latitude === b.location?.latitude &&
+    a.location?.longitude === b.location?.longitude &&
+    (a.types || []).join() === (b.types || []).join() &&
+    (a.photos || []).map((photo) => `${photo.name}:${photo.thumbhash || ""}`).join() ===
+      (b.photos || []).map((photo) => `${photo.name}:${photo.thumbhash || ""}`).join());
+
+const metersBetween = (
+  fromLatitude: number,
+  fromLongitude: number,
+  toLatitude: number,
+  toLongitude: number
+): number => {
+  const distanceStr = calculateDistance(fromLatitude, fromLongitude, toLatitude, toLongitude);
+  return parseFloat(distanceStr) * (distanceStr.includes("km") ? 1000 : 1);
+};
+
+/**
+ * ID-keyed memo over transformPlaceBasicToCard. A place that has not changed
+ * gets back the same card object, so memoised card components skip
+ * re-rendering on a refresh. Distances are only recomputed (as a new card)
+ * once the user has moved more than DISTANCE_REFRESH_METERS from where the
+ * card was built.
+ */
+export class CardTransformCache {
+  private entries = new Map<
+    string,
+    {
+      place: GooglePlacesApiBasicDetails;
+      card: RestaurantCard;
+      userLatitude?: number;
+      userLongitude?: number;
+    }
+  >();
+
+  transform(
+    places: GooglePlacesApiBasicDetails[],
+    options: PlaceTransformOptions = {}
+  ): RestaurantCard[] {
+    return places.map((place) => this.transformPlace(place, options));
+  }
+
+  transformPlace(
+    place: GooglePlacesApiBasicDetails,
+    options: PlaceTransformOptions = {}
+  ): RestaurantCard {
+    const { userLatitude, userLongitude } = options;
+    const entry = this.entries.get(place.id);
+
+    if (entry && samePlace(entry.place, place)) {
+      if (!this.hasMoved(entry, userLatitude, userLongitude)) {
+        return entry.card;
+      }
+
+      const { distance, distanceInMeters } = calculateDistanceFromUser(
+        entry.place,
+        userLatitude,
+        userLongitude
+      );
+      const card = { ...entry.card, distance, distanceInMeters };
+      this.remember(entry.place, card, options);
+      return card;
+    }
+
+    const card = transformPlaceBasicToCard(place, options);
+    this.remember(place, card, options);
+    return card;
+  }
+
+  clear(): void {
+    this.entries.clear();
+  }
+
+  private hasMoved(
+    entry: { userLatitude?: number; userLongitude?: number },
+    userLatitude?: number,
+    userLongitude?: number
+  ): boolean {
+    if (!userLatitude || !userLongitude) return false;
+    if (!entry.userLatitude || !entry.userLongitude) return true;
+    return (
+      metersBetween(entry.userLatitude, entry.userLongitude, userLatitude, userLongitude) >
+      DISTANCE_REFRESH_METERS
+    );
+  }
+
+  private remember(
+    place: GooglePlacesApiBasicDetails,
+    card: RestaurantCard,
+    { userLatitude, userLongitude }: PlaceTransformOptions
+  ): void {
+    this.entries.delete(place.id);
+    this.entries.set(place.id, { place, card, userLatitude, userLongitude });
+    if (this.entries.size > MAX_CACHED_CARDS) {
+      this.entries.delete(this.entries.keys().next().value as string);
+    }
+  }
+}
+
 /**
  * Merge basic card with detailed information
  */